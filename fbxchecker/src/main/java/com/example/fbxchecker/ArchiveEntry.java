@@ -0,0 +1,58 @@
+package com.example.fbxchecker;
+
+public class ArchiveEntry {
+    // Запись архива по данным центрального каталога: имя, размеры и CRC-32.
+    // Содержимое читается отдельно через ZipArchive.openStream
+
+    private final String name;
+    private final long size;
+    private final long compressedSize;
+    private final long crc;
+    private final boolean directory;
+
+    public ArchiveEntry(String name, long size, long compressedSize, long crc, boolean directory) {
+        this.name = name;
+        this.size = size;
+        this.compressedSize = compressedSize;
+        this.crc = crc;
+        this.directory = directory;
+    }
+
+    // Полное имя внутри архива (с папками)
+    public String getName() {
+        return name;
+    }
+
+    // Имя файла без папок, как оно выводится в отчете
+    public String getFileName() {
+        String trimmed = name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+        return trimmed.substring(trimmed.lastIndexOf('/') + 1);
+    }
+
+    // Размер после распаковки; -1, если неизвестен
+    public long getSize() {
+        return size;
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    public long getCrc() {
+        return crc;
+    }
+
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    // Запись лежит в корне архива, а не во вложенной папке
+    public boolean isTopLevel() {
+        String trimmed = name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+        return trimmed.indexOf('/') < 0;
+    }
+
+    public boolean hasExtension(String extension) {
+        return !directory && name.toLowerCase().endsWith(extension);
+    }
+}
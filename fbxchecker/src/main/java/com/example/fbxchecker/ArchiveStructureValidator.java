@@ -1,36 +1,29 @@
 package com.example.fbxchecker;
 
-import java.io.File;
-import java.nio.file.Path;
+import java.util.List;
 
 public class ArchiveStructureValidator {
-    //Проверка самого архива и его структуры
+    //Проверка самого архива и его структуры по записям центрального каталога (без распаковки)
 
 
     //проверка на отсутствие вложенных папок
-    public boolean hasNoNestedDirectories(Path tempDir, ValidationResult result) {
-        File[] files = tempDir.toFile().listFiles();
-        if(files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    result.addMessage("Проверка на отсутствие вложенных папок: Ошибка: Архив содержит вложенные папки.");
-                    return false;
-                }
+    public boolean hasNoNestedDirectories(List<ArchiveEntry> entries, ValidationResult result) {
+        for (ArchiveEntry entry : entries) {
+            if (entry.isDirectory() || !entry.isTopLevel()) {
+                result.addMessage("Проверка на отсутствие вложенных папок: Ошибка: Архив содержит вложенные папки.");
+                return false;
             }
         }
         result.addMessage("Проверка на отсутствие вложенных папок: ОК");
         return true;
     }
-    //общий метод для проверки наличия ровно одного файла с указанным расширением
-    private boolean hasSingleFileWithExtension(Path tempDir, String extension, ValidationResult result) {
-        File[] files = tempDir.toFile().listFiles();
+    //общий метод для проверки наличия ровно одного файла с указанным расширением в корне архива
+    private boolean hasSingleFileWithExtension(List<ArchiveEntry> entries, String extension, ValidationResult result) {
         int count = 0;
 
-        if (files != null) {
-            for (File file : files) {
-                if (file.getName().endsWith(extension)) {
-                    count++;
-                }
+        for (ArchiveEntry entry : entries) {
+            if (entry.isTopLevel() && entry.getName().endsWith(extension)) {
+                count++;
             }
         }
         if (count < 1) {
@@ -42,11 +35,11 @@ public class ArchiveStructureValidator {
         } else return true;
     }
 
-    public boolean checkFbxFile(Path tempDir, ValidationResult result) {
-        return hasSingleFileWithExtension(tempDir, ".fbx", result);
+    public boolean checkFbxFile(List<ArchiveEntry> entries, ValidationResult result) {
+        return hasSingleFileWithExtension(entries, ".fbx", result);
     }
 
-    public boolean checkJsonFile(Path tempDir, ValidationResult result) {
-        return hasSingleFileWithExtension(tempDir, ".geojson", result);
+    public boolean checkJsonFile(List<ArchiveEntry> entries, ValidationResult result) {
+        return hasSingleFileWithExtension(entries, ".geojson", result);
     }
 }
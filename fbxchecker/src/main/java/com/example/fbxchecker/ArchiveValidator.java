@@ -0,0 +1,407 @@
+package com.example.fbxchecker;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+public class ArchiveValidator implements AutoCloseable {
+    // Идентификатор находки о проверке, пропущенной по порядку проверок (ExecutionPolicy)
+    static final String TIER_SKIPPED = "tier-skipped";
+
+    // Проверки 3-9 по записям архива, которые поступают по одной: из открытого ZipArchive (CLI)
+    // или из ZipInputStream загрузки. Сцена разбирается и текстуры ставятся в очередь проверки
+    // сразу при получении записи; разделы отчета выполняются в finish() через CheckScheduler:
+    // независимые разделы - одновременно, texel density - когда готовы меш и разрешения UDIM.
+    // С кэшем записей (ValidationCache) неизмененные по CRC-32 и размеру текстуры и сцена не обрабатываются повторно:
+    // разделы 4-7 берутся из кэша по записи сцены (раздел 6 - еще и по списку файлов), раздел 9 - по записям сцены и текстур
+
+    private final String baseName;
+    private final TextureValidator textureValidator;
+
+    private final List<String> fileNames = new ArrayList<>();
+    // Раздел 3, проверенный в checkFileNames; lowerTierFailed - ошибки в разделах 1-3
+    private ValidationResult fileNameSection;
+    private boolean lowerTierFailed;
+    private final ExecutionPolicy policy = ValidationRules.EXECUTION_POLICY;
+    private FbxScene scene;
+    private String sceneError;
+    private boolean sceneEntryFound;
+
+    // Отложенное чтение сцены из записи архива: сцена разбирается, только если ее разделов нет в кэше
+    private ArchiveEntry sceneEntry;
+    private SceneLoader sceneLoader;
+    private ValidationCache entryCache;
+    private ValidationListener listener = ValidationListener.NONE;
+    private ResourceGovernor resourceGovernor = new ResourceGovernor();
+    // Ключи кэша поставленных текстур; null, если у какой-то текстуры ключа нет
+    private List<String> textureCacheKeys = new ArrayList<>();
+
+    // Бюджет (в КБ) на байты текстур загрузки, которые уже получены, но еще не проверены.
+    // Когда он исчерпан, чтение загрузки ждет освобождения памяти
+    private final Semaphore bufferBudget;
+    private final int bufferBudgetKb;
+
+    public ArchiveValidator(String baseName, TextureValidator textureValidator) {
+        this(baseName, textureValidator, Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    public ArchiveValidator(String baseName, TextureValidator textureValidator, long bufferBudgetBytes) {
+        this.baseName = baseName;
+        this.textureValidator = textureValidator;
+        this.bufferBudgetKb = (int) Math.min(Integer.MAX_VALUE, Math.max(1024, bufferBudgetBytes / 1024));
+        this.bufferBudget = new Semaphore(bufferBudgetKb, true);
+    }
+
+    // Запись потока загрузки: content читается только во время вызова и не закрывается
+    public void acceptEntry(String name, boolean directory, InputStream content) throws IOException, InterruptedException {
+        addFileName(name);
+        if (directory) {
+            return;
+        }
+
+        String lowerName = name.toLowerCase();
+        if (lowerName.endsWith(".fbx")) {
+            // Сцена берется из первого .fbx в архиве, как и при проверке файла (FbxFileValidator.findFbxEntry);
+            // остальные .fbx не разбираются
+            if (!sceneEntryFound) {
+                sceneEntryFound = true;
+                readScene(new NonClosingInputStream(content));
+            }
+        } else if (lowerName.endsWith(".png")) {
+            // Текстура больше всего буфера загрузки не принимается: иначе она заняла бы память сверх бюджета
+            long maxBytes = Math.min(Integer.MAX_VALUE - 8, bufferBudgetKb * 1024L);
+            byte[] data = content.readNBytes((int) maxBytes + 1);
+            if (data.length > maxBytes) {
+                throw new ResourceLimitException("текстура " + name + " больше " + maxBytes / (1024 * 1024) + " MB");
+            }
+            resourceGovernor.reserve(data.length, "буфер текстуры " + name);
+            int permits = Math.min(bufferBudgetKb, Math.max(1, data.length / 1024));
+            bufferBudget.acquire(permits);
+            String fileName = name.substring(name.lastIndexOf('/') + 1);
+            submitTexture(fileName, () -> new BufferedEntryStream(data, permits));
+        }
+    }
+
+    public void addFileName(String name) {
+        fileNames.add(name);
+    }
+
+    // Сцена, прочитанная вне архива (например, .geojson из аргументов CLI)
+    public void setScene(FbxScene scene) {
+        this.scene = scene;
+        this.sceneEntryFound = true;
+    }
+
+    // Сцена из записи архива, которая читается при первой необходимости
+    public void setSceneSource(ArchiveEntry entry, SceneLoader loader) {
+        this.sceneEntry = entry;
+        this.sceneLoader = loader;
+        this.sceneEntryFound = true;
+    }
+
+    // Кэш результатов по записям архива; используется для текстур и разделов сцены
+    public void setEntryCache(ValidationCache entryCache) {
+        this.entryCache = entryCache;
+        textureValidator.setEntryCache(entryCache);
+    }
+
+    // Слушатель готовых разделов и прогресса текстур и texel density
+    public void setListener(ValidationListener listener) {
+        this.listener = listener;
+        textureValidator.setListener(listener);
+    }
+
+    // Ограничения ресурсов проверки; общие с проверкой текстур
+    public void setResourceGovernor(ResourceGovernor resourceGovernor) {
+        this.resourceGovernor = resourceGovernor;
+        textureValidator.setResourceGovernor(resourceGovernor);
+    }
+
+    public void setSceneError(String sceneError) {
+        this.sceneError = sceneError;
+        this.sceneEntryFound = true;
+    }
+
+    public void submitTexture(String fileName, TextureValidator.TextureSource source) {
+        textureCacheKeys = null;
+        textureValidator.submitTexture(fileName, source);
+    }
+
+    // Текстура из записи архива: при неизменных CRC-32 и размере результат берется из кэша
+    public void submitTexture(ArchiveEntry entry, TextureValidator.TextureSource source) {
+        String cacheKey = ValidationCache.entryKey("texture", entry);
+        if (cacheKey == null) {
+            textureCacheKeys = null;
+        } else if (textureCacheKeys != null) {
+            textureCacheKeys.add(cacheKey);
+        }
+        textureValidator.submitTexture(entry.getFileName(), source, cacheKey);
+    }
+
+    private FbxScene getScene() {
+        if (scene == null && sceneLoader != null) {
+            try {
+                scene = sceneLoader.load();
+            } catch (IOException | RuntimeException e) {
+                sceneError = "Ошибка при чтении FBX файла: " + e.getMessage();
+            }
+            sceneLoader = null;
+        }
+        return scene;
+    }
+
+    // Ключ кэша результата, который зависит от записи сцены; null, если кэша нет или сцена не из архива
+    private String sceneCacheKey(String kind, String... extra) {
+        if (entryCache == null || sceneEntry == null || extra == null) {
+            return null;
+        }
+        return ValidationCache.entryKey(kind, sceneEntry, extra);
+    }
+
+    private void readScene(InputStream content) {
+        try {
+            scene = FbxBinaryReader.read(content);
+        } catch (IOException | RuntimeException e) {
+            sceneError = "Ошибка при чтении FBX файла: " + e.getMessage();
+        }
+    }
+
+    // Уровень 1 (ExecutionPolicy): имена файлов по списку записей (раздел 3) с учетом ошибок разделов 1-2.
+    // false, если следующие уровни по порядку проверок не выполняются: тогда текстуры не нужно ставить в очередь,
+    // а сцену - читать. Без вызова раздел 3 проверяется в finish()
+    public boolean checkFileNames(ValidationResult precedingSections) {
+        fileNameSection = new ValidationResult();
+        fileNameSection.addMessage("3. Список файлов. Проверка имен. \n");  // 3.
+        FileNameValidator.validateFileNames(fileNames, baseName, fileNameSection);
+        fileNameSection.addSeparator();
+        lowerTierFailed = precedingSections.hasErrors() || fileNameSection.hasErrors();
+        return policy.runsNextTier(lowerTierFailed);
+    }
+
+    // Разделы 3-9 в порядке отчета; дожидается проверок текстур, поставленных в очередь.
+    // Зависимости: сцена -> разделы 4-6 и подсчет полигонов; подсчет -> 7 и меш; меш и разрешения UDIM (раздел 8) -> 9.
+    // При FAIL_FAST разделы 7 и 9 (уровень 3) ждут разделы 4-6 и 8 (уровень 2) и не выполняются, если в них есть ошибки
+    public void finish(ValidationResult result) {
+        if (fileNameSection == null) {
+            checkFileNames(result);
+        }
+        if (!policy.runsNextTier(lowerTierFailed)) {
+            // Уровень 1 не пройден: поставленные текстуры отменяются, сцена не читается
+            textureValidator.shutdown();
+            result.addAll(fileNameSection);
+            result.addFinding(TIER_SKIPPED, Finding.Severity.INFO, null, "Разделы 4-9 не проверялись: ошибки в разделах 1-3", null);
+            listener.onSectionCompleted(3, fileNameSection.getFindings());
+            return;
+        }
+
+        CheckScheduler scheduler = new CheckScheduler(listener);
+
+        // Уровень 2 пройден, если в разделах 4-6 и 8 нет ошибок; при FULL не проверяется
+        if (policy == ExecutionPolicy.FULL) {
+            scheduler.provide("tier2Passed", true);
+        } else {
+            scheduler.addCheck("tier2Passed", List.of("section4", "section5", "section6", "textures"), (inputs, section) -> {
+                for (String name : List.of("section4", "section5", "section6", "textures")) {
+                    if (inputs.<ValidationResult>get(name).hasErrors()) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+
+        // Сцена уже прочитана или читается из записи архива; null, если прочитать не удалось
+        scheduler.addCheck("scene", List.of(), (inputs, section) -> getScene());
+        // Полигоны считаются по сцене, без меша; при остановке подсчета (превышен лимит) меш не собирается
+        // Распакованные массивы сцены остаются в ней до конца проверки, поэтому резервируются в бюджете памяти без освобождения
+        scheduler.addCheck("polycount", List.of("scene", "tier2Passed"), (inputs, section) -> {
+            FbxScene scene = inputs.get("scene");
+            if (scene == null || !inputs.<Boolean>get("tier2Passed")) {
+                return null;
+            }
+            resourceGovernor.reserve(PolycountCalculator.estimateBytes(scene), "подсчет полигонов");
+            return new PolycountCalculator(scene, ValidationRules.MAX_POLYGON_COUNT, ValidationRules.POLYCOUNT_FAIL_FAST).calculate();
+        });
+        // Плоский меш собирается один раз и используется texel density; без подсчета полигонов (уровень 2 не пройден)
+        // или при его остановке меш не нужен
+        scheduler.addCheck("mesh", List.of("scene", "polycount"), (inputs, section) -> {
+            FbxScene scene = inputs.get("scene");
+            PolycountCalculator.PolycountResult polycount = inputs.get("polycount");
+            if (scene == null || polycount == null || polycount.isAborted()) {
+                return null;
+            }
+            resourceGovernor.reserve(MeshData.estimateBytes(scene, ValidationRules.UV_CHANNEL_NAME), "меш сцены");
+            return JsonFbxValidator.extractMesh(scene, ValidationRules.UV_CHANNEL_NAME, polycount);
+        });
+
+        scheduler.addSection(3, null, List.of(), (inputs, section) -> {
+            section.addAll(fileNameSection);
+            return null;
+        });
+
+        addSceneSection(scheduler, 4, "section4", sceneCacheKey("section-4"), List.of(), (inputs, section) -> {
+            FbxScene scene = inputs.get("scene");
+            if (scene != null) {
+                JsonFbxValidator.validateFbxVersion(scene, section);  // 4.
+            } else {
+                // Сцена не прочитана: ошибка выводится в разделе 4, чтобы она относилась к разделу, а не к списку файлов
+                String error = sceneError != null ? sceneError : "Ошибка при чтении FBX файла: В архиве отсутствует .fbx файл";
+                section.addMessage("4. Версия FBX: " + error);  // 4.
+                section.addSeparator();
+            }
+        });
+
+        addSceneSection(scheduler, 5, "section5", sceneCacheKey("section-5", baseName), List.of(), (inputs, section) -> {
+            section.addMessage("5. Проверка имен объектов \n");  // 5.
+            FbxScene scene = inputs.get("scene");
+            // Проверка имен объектов
+            if (scene != null) {
+                ObjectNameValidator objectNameValidator = new ObjectNameValidator(baseName);
+
+                // Выполняем проверки
+                objectNameValidator.checkMainObject(scene, section);
+                objectNameValidator.checkUcObjects(scene, section);
+            }
+            section.addSeparator();
+        });
+
+        // Ссылки материалов на текстуры сверяются со списком файлов, поэтому он входит в ключ раздела 6
+        String[] materialKeys = Stream.concat(Stream.of(baseName), fileNames.stream().sorted()).toArray(String[]::new);
+        addSceneSection(scheduler, 6, "section6", sceneCacheKey("section-6", materialKeys), List.of(), (inputs, section) -> {
+            section.addMessage("6. Список материалов \n");  // 6.
+            FbxScene scene = inputs.get("scene");
+            if (scene != null) {
+                JsonFbxValidator.validateMaterials(scene, baseName, section);
+                JsonFbxValidator.validateObjectMaterials(scene, section);
+                JsonFbxValidator.validateTextureReferences(scene, fileNames, section);
+            }
+            section.addSeparator();
+        });
+
+        addSceneSection(scheduler, 7, null, sceneCacheKey("section-7"), List.of("polycount", "tier2Passed"), (inputs, section) -> {
+            section.addMessage("7. Polycount \n");  // 7.
+            PolycountCalculator.PolycountResult polycount = inputs.get("polycount");
+            if (!inputs.<Boolean>get("tier2Passed")) {
+                section.addFinding(TIER_SKIPPED, Finding.Severity.INFO, null, "Не проверялся: ошибки в разделах 4-6, 8", null);
+            } else if (polycount != null) {
+                PolycountCalculator.addReport(polycount, inputs.get("scene"), section);
+            }
+            section.addSeparator();
+        });
+
+        // Проверка текстур: результаты проверок, запущенных при получении записей
+        scheduler.addSection(8, "textures", List.of(), (inputs, section) -> {
+            section.addMessage("8. Проверка текстур \n");  // 8.
+            textureValidator.collectResults(section, textureValidator.getUdimResolutionMap());
+            section.addSeparator();
+            return section;
+        });
+        scheduler.addCheck("udimResolutions", List.of("textures"), (inputs, section) -> textureValidator.getUdimResolutionMap());
+
+        // Разрешения UDIM определяются записями текстур, поэтому ключ раздела 9 строится по их ключам
+        String[] textureKeys = textureCacheKeys != null ? textureCacheKeys.stream().sorted().toArray(String[]::new) : null;
+        addSceneSection(scheduler, 9, null, sceneCacheKey("section-9", textureKeys),
+                List.of("mesh", "polycount", "udimResolutions", "tier2Passed"), (inputs, section) -> {
+            MeshData mesh = inputs.get("mesh");
+            PolycountCalculator.PolycountResult polycount = inputs.get("polycount");
+            if (!inputs.<Boolean>get("tier2Passed")) {
+                section.addSeparator();
+                section.addMessage("9. Texel Density по UDIM:");
+                section.addFinding(TIER_SKIPPED, Finding.Severity.INFO, null, "Не проверялся: ошибки в разделах 4-6, 8", null);
+            } else if (polycount != null && polycount.isAborted()) {
+                section.addSeparator();
+                section.addMessage("9. Texel Density по UDIM: не проверялся, превышен лимит полигонов");
+            } else if (mesh != null) {
+                // Создаём экземпляр TexelDensityCalculator на уже собранном меше
+                TexelDensityCalculator texelDensityCalculator = new TexelDensityCalculator(
+                        mesh,
+                        inputs.get("udimResolutions")
+                );
+                texelDensityCalculator.setListener(listener);
+
+                // Вычисляем Texel Density и добавляем результаты в ValidationResult
+                texelDensityCalculator.calculateTexelDensity(section);
+            }
+        });
+
+        scheduler.run(result);
+    }
+
+    // Раздел, зависящий от сцены. Если он есть в кэше, его входы (и сама сцена) не вычисляются;
+    // в кэш раздел попадает, только если сцена прочитана, раздел не пропущен по порядку проверок и не упал по бюджету памяти.
+    // output - имя значения с готовым разделом (ValidationResult) для других проверок, null - если не нужно
+    private void addSceneSection(CheckScheduler scheduler, int number, String output, String cacheKey, List<String> inputs,
+                                 SceneSection check) {
+        ValidationResult cached = cacheKey != null ? entryCache.get(cacheKey) : null;
+        if (cached != null) {
+            scheduler.addSection(number, output, List.of(), (ignored, section) -> {
+                section.addAll(cached);
+                return section;
+            });
+            return;
+        }
+
+        List<String> sceneInputs = new ArrayList<>(inputs);
+        sceneInputs.add("scene");
+        scheduler.addSection(number, output, sceneInputs, (sectionInputs, section) -> {
+            check.run(sectionInputs, section);
+            if (cacheKey != null && sectionInputs.get("scene") != null && section.getFindingCount(TIER_SKIPPED) == 0
+                    && section.getFindingCount(ResourceGovernor.RESOURCE_LIMIT) == 0) {
+                entryCache.put(cacheKey, section);
+            }
+            return section;
+        });
+    }
+
+    // Остановка незавершенных проверок текстур (например, если загрузка оборвалась)
+    @Override
+    public void close() {
+        textureValidator.shutdown();
+    }
+
+    // Раздел отчета по сцене
+    private interface SceneSection {
+        void run(CheckScheduler.CheckInputs inputs, ValidationResult section);
+    }
+
+    // Отложенное чтение сцены
+    public interface SceneLoader {
+        FbxScene load() throws IOException;
+    }
+
+    // Поток записи загрузки: читатели сцены закрывают свой источник, но ZipInputStream закрывать нельзя
+    private static class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Полученные байты текстуры; память возвращается в бюджет, когда проверка закрывает поток
+    private class BufferedEntryStream extends ByteArrayInputStream {
+        private int permits;
+
+        BufferedEntryStream(byte[] data, int permits) {
+            super(data);
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (permits > 0) {
+                bufferBudget.release(permits);
+                resourceGovernor.release(buf.length);
+                permits = 0;
+            }
+        }
+    }
+}
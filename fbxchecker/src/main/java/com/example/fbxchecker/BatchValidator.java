@@ -0,0 +1,217 @@
+package com.example.fbxchecker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class BatchValidator {
+    // Пакетная проверка: каталог с архивами или файл-список (одна строка - один путь к .zip).
+    // Архивы проверяются параллельно в одной JVM на пуле с перехватом работы (work-stealing),
+    // для каждого пишется свой отчет, в конце - сводная таблица ОК/Ошибка по разделам
+
+    // Разделы сводной таблицы (раздел 1 - имя проекта, ошибок в нем не бывает)
+    private static final int[] SECTIONS = {2, 3, 4, 5, 6, 7, 8, 9};
+    private static final String[] SECTION_TITLES = {
+            "2. Архив", "3. Имена", "4. Версия", "5. Объекты", "6. Материалы", "7. Polycount", "8. Текстуры", "9. TD"
+    };
+
+    private final int parallelism;
+    private final ValidationCache cache;  // null - без кэша
+
+    public BatchValidator() {
+        this(Runtime.getRuntime().availableProcessors(), ValidationCache.fromSystemProperties());
+    }
+
+    public BatchValidator(int parallelism, ValidationCache cache) {
+        this.parallelism = Math.max(1, parallelism);
+        this.cache = cache;
+    }
+
+    // Точка входа из FbxValidator: --batch <каталог | список> [каталог отчетов]
+    public static void run(String source, String outputDirectory) throws IOException {
+        List<Path> archives = resolveArchives(Path.of(source));
+        if (archives.isEmpty()) {
+            System.out.println("Архивы для проверки не найдены: " + source);
+            return;
+        }
+
+        Path outputPath = Files.createDirectories(Path.of(outputDirectory));
+        String summary = new BatchValidator().validateAll(archives, outputPath);
+        Path summaryFile = outputPath.resolve("batch_summary.txt");
+        Files.writeString(summaryFile, summary);
+        System.out.println("Проверено архивов: " + archives.size() + ". Сводка сохранена в файл: " + summaryFile);
+    }
+
+    // Архивы из каталога (все .zip, по имени) или из файла-списка (пути относительно списка; пустые строки и # пропускаются)
+    static List<Path> resolveArchives(Path source) throws IOException {
+        List<Path> archives = new ArrayList<>();
+        if (Files.isDirectory(source)) {
+            try (Stream<Path> files = Files.list(source)) {
+                files.filter(file -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(".zip"))
+                        .sorted()
+                        .forEach(archives::add);
+            }
+        } else {
+            Path baseDirectory = source.toAbsolutePath().getParent();
+            for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    archives.add(baseDirectory.resolve(trimmed));
+                }
+            }
+        }
+        return archives;
+    }
+
+    // Проверка всех архивов; отчеты пишутся в outputDirectory, возвращается текст сводной таблицы
+    public String validateAll(List<Path> archives, Path outputDirectory) {
+        // Параллелизм на уровне архивов: текстурам каждого архива достается своя доля потоков и памяти,
+        // бюджет памяти проверки (ResourceGovernor) делится так же
+        int textureThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / parallelism);
+        long textureMemory = Runtime.getRuntime().maxMemory() / 4 / parallelism;
+
+        ExecutorService pool = Executors.newWorkStealingPool(parallelism);
+        try {
+            // Крупные архивы ставятся первыми, чтобы в конце не ждать одного большого архива
+            List<Integer> submissionOrder = new ArrayList<>();
+            for (int i = 0; i < archives.size(); i++) {
+                submissionOrder.add(i);
+            }
+            submissionOrder.sort(Comparator.comparingLong((Integer i) -> sizeOf(archives.get(i))).reversed());
+
+            List<Future<BatchItem>> futures = new ArrayList<>(Collections.nCopies(archives.size(), null));
+            for (int index : submissionOrder) {
+                Path archive = archives.get(index);
+                futures.set(index, pool.submit(() ->
+                        validateOne(archive, outputDirectory, new TextureValidator(textureThreads, textureMemory))));
+            }
+
+            // Сводка в исходном порядке архивов
+            List<BatchItem> items = new ArrayList<>();
+            for (int i = 0; i < archives.size(); i++) {
+                try {
+                    items.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    items.add(BatchItem.failed(archives.get(i), cause.getMessage()));
+                }
+            }
+            return formatSummary(items);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Ошибка: пакетная проверка прервана\n";
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private BatchItem validateOne(Path archive, Path outputDirectory, TextureValidator textureValidator) {
+        try {
+            ValidationResult result = FbxValidator.validate(archive.toString(), null, textureValidator, cache,
+                    ValidationListener.NONE, ResourceGovernor.forConcurrentJobs(parallelism));
+            FileReportGenerator reportGenerator = new FileReportGenerator();
+            String reportName = reportName(archive);
+            reportGenerator.generateReportFile(result, outputDirectory.resolve(reportName + ".txt").toString());
+            reportGenerator.generateJsonLinesFile(result, outputDirectory.resolve(reportName + ".jsonl").toString());
+            return new BatchItem(archive, result.getSectionErrors(), null);
+        } catch (IOException | RuntimeException e) {
+            return BatchItem.failed(archive, e.getMessage());
+        }
+    }
+
+    // SM_Name.zip -> SM_Name_validation_report (.txt и .jsonl)
+    private static String reportName(Path archive) {
+        String fileName = archive.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + "_validation_report";
+    }
+
+    private static long sizeOf(Path archive) {
+        try {
+            return Files.size(archive);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    // Таблица: строка на архив, столбец на раздел, итог и количество архивов без ошибок по каждому разделу
+    private static String formatSummary(List<BatchItem> items) {
+        int nameLength = 45;
+        for (BatchItem item : items) {
+            nameLength = Math.max(nameLength, item.archive.getFileName().toString().length() + 2);
+        }
+        int columnLength = 14;
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%-" + nameLength + "s", "Архив"));
+        for (String title : SECTION_TITLES) {
+            summary.append(String.format("%-" + columnLength + "s", title));
+        }
+        summary.append("Итог\n");
+
+        int[] passed = new int[SECTIONS.length];
+        int passedArchives = 0;
+        for (BatchItem item : items) {
+            summary.append(String.format("%-" + nameLength + "s", item.archive.getFileName()));
+            if (item.error != null) {
+                summary.append("Ошибка: ").append(item.error).append("\n");
+                continue;
+            }
+
+            boolean archivePassed = true;
+            for (int i = 0; i < SECTIONS.length; i++) {
+                Boolean hasErrors = item.sectionErrors.get(SECTIONS[i]);
+                String cell;
+                if (hasErrors == null) {
+                    cell = "-";
+                } else if (hasErrors) {
+                    cell = "Ошибка";
+                    archivePassed = false;
+                } else {
+                    cell = "ОК";
+                    passed[i]++;
+                }
+                summary.append(String.format("%-" + columnLength + "s", cell));
+            }
+            if (archivePassed) {
+                passedArchives++;
+            }
+            summary.append(archivePassed ? "ОК" : "Ошибка").append("\n");
+        }
+
+        summary.append(String.format("%-" + nameLength + "s", "Без ошибок (из " + items.size() + ")"));
+        for (int count : passed) {
+            summary.append(String.format("%-" + columnLength + "s", count));
+        }
+        summary.append(passedArchives).append("\n");
+        return summary.toString();
+    }
+
+    // Результат проверки одного архива для сводки
+    private static class BatchItem {
+        final Path archive;
+        final Map<Integer, Boolean> sectionErrors;
+        final String error;
+
+        BatchItem(Path archive, Map<Integer, Boolean> sectionErrors, String error) {
+            this.archive = archive;
+            this.sectionErrors = sectionErrors;
+            this.error = error;
+        }
+
+        static BatchItem failed(Path archive, String error) {
+            return new BatchItem(archive, Map.of(), error);
+        }
+    }
+}
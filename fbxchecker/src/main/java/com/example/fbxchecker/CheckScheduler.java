@@ -0,0 +1,192 @@
+package com.example.fbxchecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CheckScheduler {
+    // Планировщик проверок: каждая проверка объявляет входы (имена значений) и выход.
+    // Проверка запускается в пуле, как только готовы все ее входы, поэтому независимые проверки
+    // выполняются одновременно, а общее время равно самой длинной цепочке зависимостей.
+    // Значения считаются только для тех разделов отчета, которые их используют; разделы выводятся
+    // в порядке номеров, независимо от порядка завершения. О каждом готовом разделе сразу сообщается слушателю
+
+    private final Map<String, Task> producers = new HashMap<>();
+    private final Map<String, Object> providedValues = new HashMap<>();
+    private final TreeMap<Integer, Task> sections = new TreeMap<>();
+    private final ValidationListener listener;
+
+    public CheckScheduler() {
+        this(ValidationListener.NONE);
+    }
+
+    public CheckScheduler(ValidationListener listener) {
+        this.listener = listener;
+    }
+
+    // Значение, известное до запуска проверок
+    public void provide(String name, Object value) {
+        providedValues.put(name, value);
+    }
+
+    // Проверка без раздела отчета, которая вычисляет значение output для других проверок
+    public void addCheck(String output, List<String> inputs, Check check) {
+        addProducer(output, new Task(output, inputs, check));
+    }
+
+    // Раздел отчета с номером number; output - значение для других проверок, null - если его нет
+    public void addSection(int number, String output, List<String> inputs, Check check) {
+        Task task = new Task(output, inputs, check);
+        task.section = number;
+        if (sections.put(number, task) != null) {
+            throw new IllegalStateException("Раздел " + number + " уже объявлен");
+        }
+        if (output != null) {
+            addProducer(output, task);
+        }
+    }
+
+    private void addProducer(String output, Task task) {
+        if (producers.containsKey(output) || providedValues.containsKey(output)) {
+            throw new IllegalStateException("Значение " + output + " уже объявлено");
+        }
+        producers.put(output, task);
+    }
+
+    // Запуск всех разделов и нужных им проверок; строки разделов добавляются в result по номерам
+    public void run(ValidationResult result) {
+        int threads = Math.min(sections.size() + producers.size(), Math.max(2, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "validation-check-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<CompletableFuture<Void>> completedSections = new ArrayList<>();
+            for (Task section : sections.values()) {
+                // Ошибка проверки выводится в ее разделе; зависимые проверки получают исключение
+                completedSections.add(start(section, executor, new ArrayList<>()).handle((value, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        addCheckError(section, cause);
+                    }
+                    listener.onSectionCompleted(section.section, section.result.getFindings());
+                    return null;
+                }));
+            }
+
+            int index = 0;
+            for (Task section : sections.values()) {
+                try {
+                    completedSections.get(index++).get();
+                } catch (ExecutionException e) {
+                    addCheckError(section, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.addMessage("Ошибка: проверка архива прервана");
+                    return;
+                }
+                result.addAll(section.result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Ошибка проверки в ее разделе, даже если проверка не дошла до заголовка раздела; отказ по бюджету памяти
+    // помечается отдельно, чтобы раздел и отчет не попали в кэш
+    private static void addCheckError(Task section, Throwable cause) {
+        String message = "Ошибка при выполнении проверки: " + cause.getMessage();
+        if (cause instanceof ResourceLimitException) {
+            section.result.addFinding(new Finding(section.section, ResourceGovernor.RESOURCE_LIMIT, Finding.Severity.ERROR, null, message, null));
+        } else {
+            section.result.addFinding(Finding.fromMessage(section.section, ValidationResult.sectionCheck(section.section), message));
+        }
+    }
+
+    // Запуск проверки после ее входов; path - цепочка значений для поиска циклических зависимостей
+    private CompletableFuture<Object> start(Task task, ExecutorService executor, List<String> path) {
+        if (task.future != null) {
+            return task.future;
+        }
+        if (task.output != null) {
+            if (path.contains(task.output)) {
+                throw new IllegalStateException("Циклическая зависимость проверок: " + String.join(" -> ", path) + " -> " + task.output);
+            }
+            path.add(task.output);
+        }
+
+        Map<String, CompletableFuture<Object>> inputFutures = new HashMap<>();
+        for (String input : task.inputs) {
+            if (providedValues.containsKey(input)) {
+                inputFutures.put(input, CompletableFuture.completedFuture(providedValues.get(input)));
+            } else if (producers.containsKey(input)) {
+                inputFutures.put(input, start(producers.get(input), executor, path));
+            } else {
+                throw new IllegalStateException("Нет проверки, вычисляющей значение " + input);
+            }
+        }
+        if (task.output != null) {
+            path.remove(path.size() - 1);
+        }
+
+        task.future = CompletableFuture.allOf(inputFutures.values().toArray(new CompletableFuture<?>[0]))
+                .thenApplyAsync(ignored -> {
+                    Map<String, Object> values = new HashMap<>();
+                    inputFutures.forEach((name, future) -> values.put(name, future.join()));
+                    try {
+                        return task.check.run(new CheckInputs(values), task.result);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor);
+        return task.future;
+    }
+
+    // Проверка: читает входы, пишет строки своего раздела и возвращает выход (null, если его нет)
+    public interface Check {
+        Object run(CheckInputs inputs, ValidationResult section) throws Exception;
+    }
+
+    // Готовые значения входов проверки
+    public static class CheckInputs {
+        private final Map<String, Object> values;
+
+        CheckInputs(Map<String, Object> values) {
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(String name) {
+            if (!values.containsKey(name)) {
+                throw new IllegalArgumentException("Значение " + name + " не объявлено во входах проверки");
+            }
+            return (T) values.get(name);
+        }
+    }
+
+    private static class Task {
+        final String output;
+        final List<String> inputs;
+        final Check check;
+        final ValidationResult result = new ValidationResult();
+        int section = -1;  // номер раздела; -1 - проверка без раздела
+        CompletableFuture<Object> future;
+
+        Task(String output, List<String> inputs, Check check) {
+            this.output = output;
+            this.inputs = inputs;
+            this.check = check;
+        }
+    }
+}
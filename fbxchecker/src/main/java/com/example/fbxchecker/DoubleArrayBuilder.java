@@ -0,0 +1,34 @@
+package com.example.fbxchecker;
+
+import java.util.Arrays;
+
+public class DoubleArrayBuilder {
+    // Растущий буфер double без упаковки в Double
+
+    private double[] data;
+    private int size;
+
+    public DoubleArrayBuilder() {
+        this(1024);
+    }
+
+    public DoubleArrayBuilder(int initialCapacity) {
+        data = new double[Math.max(initialCapacity, 16)];
+    }
+
+    public void add(double value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length + (data.length >> 1));
+        }
+        data[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Массив ровно нужной длины
+    public double[] toArray() {
+        return size == data.length ? data : Arrays.copyOf(data, size);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.fbxchecker;
+
+public enum ExecutionPolicy {
+    // Порядок выполнения проверок по уровням стоимости:
+    // 1 - имя проекта, размер архива, имена файлов по центральному каталогу (разделы 1-3);
+    // 2 - заголовки и метаданные: версия FBX, имена объектов, материалы, текстуры (разделы 4-6, 8);
+    //     пиксели текстуры (заглушка, использование альфы) сканируются в разделе 8, при FAIL_FAST - только если
+    //     ее заголовок прошел проверку размера и глубины цвета (TextureValidator);
+    // 3 - дорогие проверки сцены: подсчет полигонов, texel density (разделы 7, 9).
+    // FULL выполняет все уровни независимо от ошибок (прежнее поведение).
+    // FAIL_FAST не запускает следующий уровень, если на предыдущем есть ошибки: отклоненный архив
+    // не распаковывается и не декодируется
+
+    FULL,
+    FAIL_FAST;
+
+    // Значение свойства fbxchecker.execution-policy: full (по умолчанию) или fail-fast
+    public static ExecutionPolicy fromSystemProperties() {
+        return parse(System.getProperty("fbxchecker.execution-policy", "full"));
+    }
+
+    public static ExecutionPolicy parse(String value) {
+        return switch (value.trim().toLowerCase()) {
+            case "full" -> FULL;
+            case "fail-fast" -> FAIL_FAST;
+            default -> throw new IllegalArgumentException("Неизвестный порядок проверок: " + value + " (допустимо: full, fail-fast)");
+        };
+    }
+
+    // Запускать ли следующий уровень, если на предыдущих уровнях есть ошибки (lowerTierFailed)
+    public boolean runsNextTier(boolean lowerTierFailed) {
+        return this == FULL || !lowerTierFailed;
+    }
+}
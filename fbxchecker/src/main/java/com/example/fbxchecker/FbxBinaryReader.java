@@ -0,0 +1,193 @@
+package com.example.fbxchecker;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class FbxBinaryReader {
+    // Чтение бинарного FBX 7.x напрямую из потока (например, из записи ZIP-архива).
+    // Узлы, не нужные проверкам (см. FbxSceneProjection), пропускаются по EndOffset без разбора,
+    // массивы свойств сохраняются сжатыми и распаковываются только при обращении
+
+    private static final byte[] MAGIC = "Kaydara FBX Binary  \0".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final InputStream in;
+    private long position;
+    private boolean wideOffsets;  // с версии 7.5 смещения и счетчики 64-битные
+
+    private FbxBinaryReader(InputStream in) {
+        this.in = new BufferedInputStream(in, 64 * 1024);
+    }
+
+    public static FbxScene read(InputStream inputStream) throws IOException {
+        return new FbxBinaryReader(inputStream).readScene();
+    }
+
+    private FbxScene readScene() throws IOException {
+        byte[] magic = readBytes(MAGIC.length);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException("Файл не является бинарным FBX (ASCII FBX не поддерживается)");
+            }
+        }
+        readBytes(2);  // 0x1A 0x00
+        int version = readInt();
+        wideOffsets = version >= 7500;
+
+        FbxNode root = new FbxNode("");
+        readNodeList(root, "", Long.MAX_VALUE);
+        return new FbxScene(version, root);
+    }
+
+    // Чтение списка узлов до нулевой записи или до конца родительского узла
+    private void readNodeList(FbxNode parent, String parentPath, long parentEnd) throws IOException {
+        while (position < parentEnd) {
+            long endOffset = readOffset();
+            long propertyCount = readOffset();
+            readOffset();  // длина списка свойств в байтах
+            int nameLength = readUnsignedByte();
+
+            if (endOffset == 0) {
+                // Нулевая запись: конец вложенного списка
+                return;
+            }
+
+            String name = new String(readBytes(nameLength), StandardCharsets.UTF_8);
+            String path = FbxSceneProjection.childPath(parentPath, name);
+            if (endOffset < position || endOffset > parentEnd) {
+                throw new IOException("Некорректное смещение конца узла " + name + ": " + endOffset);
+            }
+            if (!FbxSceneProjection.isKept(path)) {
+                skipTo(endOffset);
+                continue;
+            }
+
+            FbxNode node = new FbxNode(name);
+            for (long i = 0; i < propertyCount; i++) {
+                node.addProperty(readProperty(endOffset));
+            }
+            if (position < endOffset) {
+                readNodeList(node, path, endOffset);
+            }
+            skipTo(endOffset);
+            parent.addChild(node);
+        }
+    }
+
+    // Свойство узла, который заканчивается на nodeEnd: данные свойства не могут выходить за его пределы
+    private FbxProperty readProperty(long nodeEnd) throws IOException {
+        char type = (char) readUnsignedByte();
+        switch (type) {
+            case 'Y':
+                return new FbxProperty(type, (long) (short) (readUnsignedByte() | (readUnsignedByte() << 8)));
+            case 'C':
+                return new FbxProperty(type, readUnsignedByte() != 0);
+            case 'I':
+                return new FbxProperty(type, (long) readInt());
+            case 'F':
+                return new FbxProperty(type, (double) Float.intBitsToFloat(readInt()));
+            case 'D':
+                return new FbxProperty(type, Double.longBitsToDouble(readLong()));
+            case 'L':
+                return new FbxProperty(type, readLong());
+            case 'S':
+                return new FbxProperty(type, new String(readBytes(readLength()), StandardCharsets.UTF_8));
+            case 'R':
+                skip(readLength());  // сырые данные проверкам не нужны
+                return new FbxProperty(type, null);
+            case 'd':
+            case 'f':
+            case 'l':
+            case 'i':
+            case 'b':
+                return new FbxProperty(type, readArray(type, nodeEnd));
+            default:
+                throw new IOException("Неизвестный тип свойства FBX: '" + type + "' на позиции " + (position - 1));
+        }
+    }
+
+    // Массив: длина, кодировка, размер данных и сами данные (zlib при кодировке 1).
+    // Длина берется из файла, поэтому размер распакованного массива проверяется здесь, до выделения памяти:
+    // не больше бюджета памяти проверки, а данные - не дальше конца узла
+    private FbxProperty.EncodedArray readArray(char type, long nodeEnd) throws IOException {
+        int length = readLength();
+        int encoding = readInt();
+        int byteLength = readLength();
+        long decodedLength = (long) length * FbxProperty.EncodedArray.elementSize(type);
+        if (decodedLength > Math.min(Integer.MAX_VALUE - 8, ValidationRules.JOB_HEAP_BUDGET_MB * 1024 * 1024)) {
+            throw new IOException("Массив FBX типа '" + type + "' из " + length + " элементов превышает бюджет памяти проверки");
+        }
+        if (encoding != 0 && encoding != 1) {
+            throw new IOException("Неизвестная кодировка массива FBX: " + encoding);
+        }
+        if (encoding == 0 && byteLength != decodedLength) {
+            throw new IOException("Некорректный размер массива FBX типа '" + type + "': " + byteLength + " байт");
+        }
+        if (byteLength > nodeEnd - position) {
+            throw new IOException("Массив FBX типа '" + type + "' выходит за конец узла: " + byteLength + " байт");
+        }
+        return new FbxProperty.EncodedArray(type, length, encoding, readBytes(byteLength));
+    }
+
+    private long readOffset() throws IOException {
+        return wideOffsets ? readLong() : readInt() & 0xFFFFFFFFL;
+    }
+
+    private int readLength() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            throw new IOException("Некорректная длина данных FBX: " + (length & 0xFFFFFFFFL));
+        }
+        return length;
+    }
+
+    private int readUnsignedByte() throws IOException {
+        int value = in.read();
+        if (value < 0) {
+            throw new EOFException("Неожиданный конец FBX файла");
+        }
+        position++;
+        return value;
+    }
+
+    private int readInt() throws IOException {
+        byte[] bytes = readBytes(4);
+        return (bytes[0] & 0xFF) | (bytes[1] & 0xFF) << 8 | (bytes[2] & 0xFF) << 16 | (bytes[3] & 0xFF) << 24;
+    }
+
+    private long readLong() throws IOException {
+        return (readInt() & 0xFFFFFFFFL) | ((long) readInt() << 32);
+    }
+
+    private byte[] readBytes(int count) throws IOException {
+        byte[] bytes = in.readNBytes(count);
+        if (bytes.length < count) {
+            throw new EOFException("Неожиданный конец FBX файла");
+        }
+        position += count;
+        return bytes;
+    }
+
+    private void skipTo(long offset) throws IOException {
+        if (offset > position) {
+            skip(offset - position);
+        }
+    }
+
+    private void skip(long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Неожиданный конец FBX файла");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+        position += count;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.fbxchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FbxConnectionIndex {
+    // Граф связей сцены (раздел Connections), построенный один раз при загрузке.
+    // Объекты из Objects (Model, Geometry, Material, Texture, Video) нумеруются по порядку, id -> номер
+    // ищется в LongIntHashMap. Связи OO/OP хранятся списками смежности в плоских массивах:
+    // потомки объекта i - childIndexes[childOffsets[i] .. childOffsets[i + 1]), родители - так же в parent*.
+    // Связи с корнем сцены (id 0) и с объектами, которых нет в Objects, пропускаются
+
+    // Типы объектов, которые попадают в индекс (остальные узлы Objects сцене не нужны и не читаются)
+    static final String[] OBJECT_TYPES = {"Model", "Geometry", "Material", "Texture", "Video"};
+
+    private final long[] ids;
+    private final String[] types;
+    private final String[] names;
+    private final FbxNode[] nodes;
+    private final LongIntHashMap indexById;
+
+    private final int[] childOffsets;
+    private final int[] childIndexes;
+    private final int[] parentOffsets;
+    private final int[] parentIndexes;
+
+    private FbxConnectionIndex(long[] ids, String[] types, String[] names, FbxNode[] nodes, LongIntHashMap indexById,
+                               int[] childOffsets, int[] childIndexes, int[] parentOffsets, int[] parentIndexes) {
+        this.ids = ids;
+        this.types = types;
+        this.names = names;
+        this.nodes = nodes;
+        this.indexById = indexById;
+        this.childOffsets = childOffsets;
+        this.childIndexes = childIndexes;
+        this.parentOffsets = parentOffsets;
+        this.parentIndexes = parentIndexes;
+    }
+
+    private static FbxConnectionIndex build(List<FbxNode> objectNodes, List<FbxNode> connectionNodes) {
+        int objectCount = objectNodes.size();
+        long[] ids = new long[objectCount];
+        String[] types = new String[objectCount];
+        String[] names = new String[objectCount];
+        FbxNode[] nodes = objectNodes.toArray(new FbxNode[0]);
+        LongIntHashMap indexById = new LongIntHashMap(objectCount);
+        for (int i = 0; i < objectCount; i++) {
+            ids[i] = nodes[i].findProperty('L').asLong();
+            types[i] = nodes[i].getName();
+            FbxProperty nameProperty = nodes[i].findProperty('S');
+            names[i] = nameProperty != null ? nameProperty.asString().split("\u0000")[0] : "";
+            // При повторе id остается первый объект
+            if (!indexById.containsKey(ids[i])) {
+                indexById.put(ids[i], i);
+            }
+        }
+
+        // Связи: пары (потомок, родитель) между известными объектами
+        IntArrayBuilder edgeChildren = new IntArrayBuilder(64);
+        IntArrayBuilder edgeParents = new IntArrayBuilder(64);
+        for (FbxNode connectionNode : connectionNodes) {
+            List<FbxProperty> properties = connectionNode.getProperties();
+            if (properties.size() < 3) {
+                continue;
+            }
+            String connectionType = properties.get(0).asString();
+            if (!"OO".equals(connectionType) && !"OP".equals(connectionType)) {
+                continue;
+            }
+            int child = indexById.get(properties.get(1).asLong());
+            int parent = indexById.get(properties.get(2).asLong());
+            if (child >= 0 && parent >= 0) {
+                edgeChildren.add(child);
+                edgeParents.add(parent);
+            }
+        }
+
+        int[] children = edgeChildren.toArray();
+        int[] parents = edgeParents.toArray();
+        int[] childOffsets = new int[objectCount + 1];
+        int[] parentOffsets = new int[objectCount + 1];
+        int[] childIndexes = new int[children.length];
+        int[] parentIndexes = new int[children.length];
+        fillAdjacency(parents, children, childOffsets, childIndexes);
+        fillAdjacency(children, parents, parentOffsets, parentIndexes);
+
+        return new FbxConnectionIndex(ids, types, names, nodes, indexById,
+                childOffsets, childIndexes, parentOffsets, parentIndexes);
+    }
+
+    // Сбор объектов и связей при общем обходе дерева (FbxTreeWalker); порядок Objects и Connections в файле не важен,
+    // связи разрешаются в build()
+    static class Builder {
+        private final List<FbxNode> objectNodes = new ArrayList<>();
+        private final List<FbxNode> connectionNodes = new ArrayList<>();
+
+        void register(FbxTreeWalker walker) {
+            for (String type : OBJECT_TYPES) {
+                walker.on(type, (node, parent) -> {
+                    if ("Objects".equals(parent.getName()) && node.findProperty('L') != null) {
+                        objectNodes.add(node);
+                    }
+                });
+            }
+            walker.on("C", (node, parent) -> {
+                if ("Connections".equals(parent.getName())) {
+                    connectionNodes.add(node);
+                }
+            });
+        }
+
+        FbxConnectionIndex build() {
+            return FbxConnectionIndex.build(objectNodes, connectionNodes);
+        }
+    }
+
+    // Списки смежности from -> to: подсчет, префиксные суммы, заполнение в порядке связей
+    private static void fillAdjacency(int[] from, int[] to, int[] offsets, int[] targets) {
+        for (int source : from) {
+            offsets[source + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] positions = new int[offsets.length - 1];
+        System.arraycopy(offsets, 0, positions, 0, positions.length);
+        for (int edge = 0; edge < from.length; edge++) {
+            targets[positions[from[edge]]++] = to[edge];
+        }
+    }
+
+    public boolean contains(long id) {
+        return indexById.containsKey(id);
+    }
+
+    // Тип объекта (имя узла в Objects) или null, если объекта нет
+    public String getType(long id) {
+        int index = indexById.get(id);
+        return index >= 0 ? types[index] : null;
+    }
+
+    // Имя объекта до первого символа \u0000 или null, если объекта нет
+    public String getName(long id) {
+        int index = indexById.get(id);
+        return index >= 0 ? names[index] : null;
+    }
+
+    public FbxNode getNode(long id) {
+        int index = indexById.get(id);
+        return index >= 0 ? nodes[index] : null;
+    }
+
+    // id объектов указанного типа в порядке Objects
+    public long[] getObjectIds(String type) {
+        return select(0, ids.length, null, type);
+    }
+
+    // Дочерние объекты указанного типа (null - любого) в порядке связей
+    public long[] getChildren(long parentId, String type) {
+        int index = indexById.get(parentId);
+        return index >= 0 ? select(childOffsets[index], childOffsets[index + 1], childIndexes, type) : new long[0];
+    }
+
+    // Родительские объекты указанного типа (null - любого) в порядке связей
+    public long[] getParents(long childId, String type) {
+        int index = indexById.get(childId);
+        return index >= 0 ? select(parentOffsets[index], parentOffsets[index + 1], parentIndexes, type) : new long[0];
+    }
+
+    // id объектов из диапазона [from, to) списка indexes (null - номера по порядку) с отбором по типу
+    private long[] select(int from, int to, int[] indexes, String type) {
+        long[] selected = new long[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int index = indexes != null ? indexes[i] : i;
+            if (type == null || type.equals(types[index])) {
+                selected[count++] = ids[index];
+            }
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+}
@@ -2,15 +2,12 @@ package com.example.fbxchecker;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.ZipFile;
 
 public class FbxFileValidator {
     //проверяем файлы на соответствие
-    private static final long MAX_SIZE_MB = 500 * 1024 * 1024;
 
     public FbxFileValidator() {
     }
@@ -24,11 +21,16 @@ public class FbxFileValidator {
             return false;
         }
 
+        return validateArchiveSize(filepath, file.length(), result);
+    }
+
+    // Проверка размера и расширения архива (для файла на диске и для загрузки, размер которой известен после приема)
+    public boolean validateArchiveSize(String filepath, long sizeInBytes, ValidationResult result) {
         // Проверка размера файла
-        double fileSizeInMB = file.length() / (1024.0 * 1024.0);
+        double fileSizeInMB = sizeInBytes / (1024.0 * 1024.0);
 
-        if (fileSizeInMB > 500) {
-            result.addMessage("2. Размер архива: " + String.format("%.2f", fileSizeInMB) + " MB. Ошибка: размер файла превышает 500 MB.");
+        if (fileSizeInMB > ValidationRules.MAX_ARCHIVE_SIZE_MB) {
+            result.addMessage("2. Размер архива: " + String.format("%.2f", fileSizeInMB) + " MB. Ошибка: размер файла превышает " + ValidationRules.MAX_ARCHIVE_SIZE_MB + " MB.");
             result.addSeparator();
         } else {
             result.addMessage("2. Размер архива: " + String.format("%.2f", fileSizeInMB) + " MB.");
@@ -44,59 +46,39 @@ public class FbxFileValidator {
         return true;
     }
 
-    // Метод для извлечения списка всех файлов в архиве
-    public List<String> listFilesInZip(String zipFilePath) throws IOException {
+    // Открытие архива один раз на всю проверку: дальше записи читаются из него без распаковки на диск
+    public ZipArchive openArchive(String zipFilePath) throws IOException {
+        return ZipArchive.open(zipFilePath);
+    }
+
+    // Метод для извлечения списка всех файлов в архиве (из центрального каталога)
+    public List<String> listFilesInZip(ZipArchive archive) {
         List<String> fileList = new ArrayList<>();
-        try (ZipFile zipFile = new ZipFile(zipFilePath)) {
-            zipFile.stream().forEach(entry -> fileList.add(entry.getName()));
+        for (ArchiveEntry entry : archive.getEntries()) {
+            fileList.add(entry.getName());
         }
         return fileList;
     }
 
-    public Path extractZipFile(String zipFilePath) throws IOException {
-        // Создаем временную директорию для разархивирования
-        Path tempDir = Files.createTempDirectory("tempDir_");
-
-        try (ZipFile zipFile = new ZipFile(zipFilePath)) {
-            zipFile.stream().forEach(entry -> {
-                try {
-                    Path path = tempDir.resolve(entry.getName());
-                    if (entry.isDirectory()) {
-                        Files.createDirectories(path);
-                    } else {
-                        Files.createDirectories(path.getParent());
-                        Files.copy(zipFile.getInputStream(entry), path);
-                    }
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            });
+    // Чтение сцены из .fbx файла внутри архива, без распаковки на диск и без конвертации в JSON
+    public FbxScene readFbxScene(ZipArchive archive) throws IOException {
+        ArchiveEntry fbxEntry = findFbxEntry(archive);
+        if (fbxEntry == null) {
+            throw new IOException("В архиве отсутствует .fbx файл");
+        }
+        try (InputStream inputStream = archive.openStream(fbxEntry)) {
+            return FbxBinaryReader.read(inputStream);
         }
-
-        // Возвращаем путь к временной директории с разархивированными файлами
-        return tempDir;
     }
 
-    public void deleteTempDirectory(Path tempDir) throws IOException {
-        // Удаляем все файлы и директории во временной папке
-        Files.walk(tempDir)
-                .sorted((a, b) -> b.compareTo(a)) // Сортируем для удаления вложенных файлов сначала
-                .map(Path::toFile)
-                .forEach(File::delete);
+    // Запись сцены: первый .fbx в архиве, null - если его нет
+    public ArchiveEntry findFbxEntry(ZipArchive archive) {
+        List<ArchiveEntry> fbxEntries = archive.findByExtension(".fbx");
+        return fbxEntries.isEmpty() ? null : fbxEntries.get(0);
     }
 
-    // метод для фильтрации текстур (.png файлы) и возврата полных путей
-    public List<String> extractTextureFiles(String zipFilePath, Path tempDir) throws IOException {
-        List<String> textureFiles = new ArrayList<>();
-        try (ZipFile zipFile = new ZipFile(zipFilePath)) {
-            zipFile.stream().forEach(entry -> {
-                if (entry.getName().endsWith(".png")) {
-                    textureFiles.add(tempDir.resolve(entry.getName()).toString());  // полный путь к файлу
-                }
-            });
-        }
-        return textureFiles;
+    // метод для фильтрации текстур (.png файлы): записи архива, которые читаются потоком при проверке
+    public List<ArchiveEntry> extractTextureFiles(ZipArchive archive) {
+        return archive.findByExtension(".png");
     }
-
-
 }
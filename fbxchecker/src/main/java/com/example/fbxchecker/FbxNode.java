@@ -0,0 +1,72 @@
+package com.example.fbxchecker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FbxNode {
+    // Узел сцены FBX (Objects, Model, Geometry, Vertices ...).
+    // Содержит только те свойства и дочерние узлы, которые нужны проверкам
+
+    private String name;
+    private final List<FbxProperty> properties = new ArrayList<>();
+    private final List<FbxNode> children = new ArrayList<>();
+
+    public FbxNode(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void setName(String name) {
+        this.name = name;
+    }
+
+    public List<FbxProperty> getProperties() {
+        return properties;
+    }
+
+    public List<FbxNode> getChildren() {
+        return children;
+    }
+
+    public void addProperty(FbxProperty property) {
+        properties.add(property);
+    }
+
+    public void addChild(FbxNode child) {
+        children.add(child);
+    }
+
+    // Первый дочерний узел с указанным именем
+    public FbxNode getChild(String childName) {
+        for (FbxNode child : children) {
+            if (childName.equals(child.getName())) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    // Все дочерние узлы с указанным именем
+    public List<FbxNode> getChildren(String childName) {
+        List<FbxNode> result = new ArrayList<>();
+        for (FbxNode child : children) {
+            if (childName.equals(child.getName())) {
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
+    // Первое свойство указанного типа
+    public FbxProperty findProperty(char type) {
+        for (FbxProperty property : properties) {
+            if (property.getType() == type) {
+                return property;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.fbxchecker;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class FbxProperty {
+    // Свойство узла FBX: тип (S, L, I, d, i ...) и значение.
+    // Числовые массивы хранятся в примитивных буферах, без JsonNode на каждый элемент.
+    // Массивы из бинарного FBX хранятся в исходном (сжатом) виде и распаковываются при первом обращении,
+    // массивы отображенного в память .geojson - границами в файле и разбираются так же, при первом обращении.
+    // Разобранный массив заменяет исходный и остается в свойстве до конца проверки (повторного разбора нет,
+    // но и пиковую память это не снижает). Сцену читают проверки из разных потоков, поэтому value - volatile,
+    // а распаковка выполняется под блокировкой свойства
+
+    private char type;
+    private volatile Object value;
+
+    public FbxProperty(char type, Object value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    public char getType() {
+        return type;
+    }
+
+    void setType(char type) {
+        this.type = type;
+        // Если массив был прочитан до поля type, приводим буфер к нужному виду
+        if (value instanceof double[] doubles && (type == 'i' || type == 'b')) {
+            int[] ints = new int[doubles.length];
+            for (int i = 0; i < doubles.length; i++) {
+                ints[i] = (int) doubles[i];
+            }
+            value = ints;
+        }
+    }
+
+    public Object getValue() {
+        Object current = value;
+        if (current instanceof EncodedArray || current instanceof GeoJsonSceneReader.MappedArray) {
+            synchronized (this) {
+                current = value;
+                if (current instanceof EncodedArray encodedArray) {
+                    current = encodedArray.decode();
+                    value = current;
+                } else if (current instanceof GeoJsonSceneReader.MappedArray mappedArray) {
+                    current = mappedArray.decode(type);
+                    value = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    void setValue(Object value) {
+        this.value = value;
+    }
+
+    // Длина массива без распаковки (для бинарного FBX длина известна из заголовка массива,
+    // для отображенного .geojson - по разделителям, без разбора чисел)
+    public int getArrayLength() {
+        Object value = this.value;
+        if (value instanceof EncodedArray encodedArray) {
+            return encodedArray.length;
+        }
+        if (value instanceof GeoJsonSceneReader.MappedArray mappedArray) {
+            return mappedArray.length();
+        }
+        if (value instanceof double[] doubles) {
+            return doubles.length;
+        }
+        if (value instanceof int[] ints) {
+            return ints.length;
+        }
+        return 0;
+    }
+
+    public boolean isArray() {
+        Object value = this.value;
+        return value instanceof double[] || value instanceof int[] || value instanceof EncodedArray
+                || value instanceof GeoJsonSceneReader.MappedArray;
+    }
+
+    public String asString() {
+        Object value = this.value;
+        return value == null ? "" : value.toString();
+    }
+
+    public long asLong() {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    public int asInt() {
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    // Массив вещественных чисел (Vertices, UV)
+    public double[] getDoubleArray() {
+        Object value = getValue();
+        if (value instanceof double[] doubles) {
+            return doubles;
+        }
+        if (value instanceof int[] ints) {
+            double[] doubles = new double[ints.length];
+            for (int i = 0; i < ints.length; i++) {
+                doubles[i] = ints[i];
+            }
+            return doubles;
+        }
+        return new double[0];
+    }
+
+    // Массив целых чисел (PolygonVertexIndex, UVIndex)
+    public int[] getIntArray() {
+        Object value = getValue();
+        if (value instanceof int[] ints) {
+            return ints;
+        }
+        if (value instanceof double[] doubles) {
+            int[] ints = new int[doubles.length];
+            for (int i = 0; i < doubles.length; i++) {
+                ints[i] = (int) doubles[i];
+            }
+            return ints;
+        }
+        return new int[0];
+    }
+
+    // Массив бинарного FBX: длина, кодировка (0 - без сжатия, 1 - zlib) и исходные байты
+    static class EncodedArray {
+        private final char type;
+        private final int length;
+        private final int encoding;
+        private final byte[] data;
+
+        EncodedArray(char type, int length, int encoding, byte[] data) {
+            this.type = type;
+            this.length = length;
+            this.encoding = encoding;
+            this.data = data;
+        }
+
+        // Распаковка в double[] (d, f, l) или int[] (i, b)
+        Object decode() {
+            ByteBuffer buffer = ByteBuffer.wrap(inflate()).order(ByteOrder.LITTLE_ENDIAN);
+            switch (type) {
+                case 'd': {
+                    double[] result = new double[length];
+                    buffer.asDoubleBuffer().get(result);
+                    return result;
+                }
+                case 'f': {
+                    double[] result = new double[length];
+                    for (int i = 0; i < length; i++) {
+                        result[i] = buffer.getFloat();
+                    }
+                    return result;
+                }
+                case 'l': {
+                    double[] result = new double[length];
+                    for (int i = 0; i < length; i++) {
+                        result[i] = buffer.getLong();
+                    }
+                    return result;
+                }
+                case 'i': {
+                    int[] result = new int[length];
+                    buffer.asIntBuffer().get(result);
+                    return result;
+                }
+                default: {
+                    int[] result = new int[length];
+                    for (int i = 0; i < length; i++) {
+                        result[i] = buffer.get();
+                    }
+                    return result;
+                }
+            }
+        }
+
+        private byte[] inflate() {
+            if (encoding != 1) {
+                return data;
+            }
+            // Длина проверена при чтении (FbxBinaryReader.readArray), поэтому размер помещается в int
+            byte[] result = new byte[Math.toIntExact((long) length * elementSize(type))];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data);
+                int offset = 0;
+                while (offset < result.length && !inflater.finished()) {
+                    int count = inflater.inflate(result, offset, result.length - offset);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    offset += count;
+                }
+                if (offset < result.length) {
+                    throw new IllegalStateException("Массив FBX поврежден: распаковано " + offset + " из " + result.length + " байт");
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Ошибка распаковки массива FBX: " + e.getMessage(), e);
+            } finally {
+                inflater.end();
+            }
+            return result;
+        }
+
+        static int elementSize(char type) {
+            switch (type) {
+                case 'd':
+                case 'l':
+                    return 8;
+                case 'f':
+                case 'i':
+                    return 4;
+                default:
+                    return 1;
+            }
+        }
+    }
+}
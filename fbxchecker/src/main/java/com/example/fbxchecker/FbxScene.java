@@ -0,0 +1,114 @@
+package com.example.fbxchecker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FbxScene {
+    // Загруженная сцена: .geojson разбирается один раз, все проверки работают с этим объектом.
+    // Дерево содержит только нужные проверкам узлы (см. FbxSceneProjection)
+
+    private final FbxNode rootNode;
+    private final int version;
+    private final List<String> modelNames;
+    private final Map<Long, String> relevantModelIdNameMap;
+    private final Map<Long, FbxNode> geometryIdNodeMap;
+    private final Map<Long, List<String>> uvChannelNames;
+    private final FbxConnectionIndex connections;
+    private final List<String> materialNames;
+    private final int layerCount;
+
+    public FbxScene(int version, FbxNode rootNode) {
+        this.rootNode = rootNode;
+        this.version = version;
+
+        // Все сведения о сцене собираются за один обход дерева
+        List<String> modelNames = new ArrayList<>();
+        Map<Long, String> relevantModelIdNameMap = new LinkedHashMap<>();
+        Map<Long, FbxNode> geometryIdNodeMap = new LinkedHashMap<>();
+        Map<Long, List<String>> uvChannelNames = new HashMap<>();
+        int[] layerCount = new int[1];
+        FbxConnectionIndex.Builder connectionsBuilder = new FbxConnectionIndex.Builder();
+
+        FbxTreeWalker walker = new FbxTreeWalker();
+        walker.on("Model", (node, parent) -> {
+            if ("Objects".equals(parent.getName())) {
+                JsonFbxValidator.collectModel(node, modelNames, relevantModelIdNameMap);
+            }
+        });
+        walker.on("Geometry", (node, parent) -> {
+            FbxProperty idProperty = node.findProperty('L');
+            if ("Objects".equals(parent.getName()) && idProperty != null) {
+                geometryIdNodeMap.put(idProperty.asLong(), node);
+            }
+        });
+        walker.on("LayerElementUV", (node, parent) -> {
+            FbxProperty idProperty = parent.findProperty('L');
+            String channelName = JsonFbxValidator.getLayerElementUVName(node);
+            if ("Geometry".equals(parent.getName()) && idProperty != null && channelName != null) {
+                uvChannelNames.computeIfAbsent(idProperty.asLong(), id -> new ArrayList<>()).add(channelName);
+            }
+        });
+        walker.on("Layer", (node, parent) -> layerCount[0]++);
+        connectionsBuilder.register(walker);
+        walker.walk(rootNode);
+
+        this.modelNames = modelNames;
+        this.relevantModelIdNameMap = relevantModelIdNameMap;
+        this.geometryIdNodeMap = geometryIdNodeMap;
+        this.uvChannelNames = uvChannelNames;
+        this.layerCount = layerCount[0];
+        this.connections = connectionsBuilder.build();
+        this.materialNames = JsonFbxValidator.findMaterials(connections);
+    }
+
+    // Единственное чтение файла за проверку
+    public static FbxScene load(String jsonFilePath) throws IOException {
+        return GeoJsonSceneReader.read(new File(jsonFilePath));
+    }
+
+    public FbxNode getRootNode() {
+        return rootNode;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // Имена всех моделей (включая UCX)
+    public List<String> getModelNames() {
+        return modelNames;
+    }
+
+    // Модели id -> имя без UCX
+    public Map<Long, String> getRelevantModelIdNameMap() {
+        return relevantModelIdNameMap;
+    }
+
+    // Геометрии id -> узел Geometry
+    public Map<Long, FbxNode> getGeometryIdNodeMap() {
+        return geometryIdNodeMap;
+    }
+
+    // Имена UV-каналов геометрии в порядке LayerElementUV
+    public List<String> getUvChannelNames(long geometryId) {
+        return uvChannelNames.getOrDefault(geometryId, List.of());
+    }
+
+    // Объекты сцены и связи между ними (раздел Connections)
+    public FbxConnectionIndex getConnections() {
+        return connections;
+    }
+
+    public List<String> getMaterialNames() {
+        return materialNames;
+    }
+
+    public int getLayerCount() {
+        return layerCount;
+    }
+}
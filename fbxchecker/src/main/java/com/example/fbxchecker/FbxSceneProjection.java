@@ -0,0 +1,52 @@
+package com.example.fbxchecker;
+
+import java.util.Set;
+
+public class FbxSceneProjection {
+    // Список путей узлов, которые нужны проверкам. Все остальные поддеревья
+    // (Normals, Binormals, Tangents, Colors, Takes ...) пропускаются при чтении
+
+    private static final Set<String> KEPT_PATHS = Set.of(
+            "Objects",
+            "Objects/Model",
+            "Objects/Material",
+            "Objects/Texture",
+            "Objects/Texture/RelativeFilename",
+            "Objects/Texture/FileName",
+            "Objects/Video",
+            "Objects/Video/RelativeFilename",
+            "Objects/Video/FileName",
+            "Objects/Geometry",
+            "Objects/Geometry/Vertices",
+            "Objects/Geometry/PolygonVertexIndex",
+            "Objects/Geometry/Layer",
+            "Objects/Geometry/LayerElementUV",
+            "Objects/Geometry/LayerElementUV/Name",
+            "Objects/Geometry/LayerElementUV/MappingInformationType",
+            "Objects/Geometry/LayerElementUV/ReferenceInformationType",
+            "Objects/Geometry/LayerElementUV/UV",
+            "Objects/Geometry/LayerElementUV/UVIndex",
+            "Connections",
+            "Connections/C"
+    );
+
+    private FbxSceneProjection() {
+    }
+
+    // Путь дочернего узла: "Objects/Geometry/Vertices"
+    public static String childPath(String parentPath, String name) {
+        return parentPath.isEmpty() ? name : parentPath + "/" + name;
+    }
+
+    public static boolean isKept(String path) {
+        return KEPT_PATHS.contains(path);
+    }
+
+    // Удаление лишних узлов, если имя узла стало известно уже после чтения его содержимого
+    static void prune(FbxNode node, String path) {
+        node.getChildren().removeIf(child -> !isKept(childPath(path, child.getName())));
+        for (FbxNode child : node.getChildren()) {
+            prune(child, childPath(path, child.getName()));
+        }
+    }
+}
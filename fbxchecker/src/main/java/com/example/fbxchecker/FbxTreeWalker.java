@@ -0,0 +1,41 @@
+package com.example.fbxchecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FbxTreeWalker {
+    // Один обход дерева сцены для всех проверок: проверка подписывается на имена узлов
+    // (Model, Geometry, Material, Layer, LayerElementUV ...), и каждый узел передается всем подписчикам его имени.
+    // Новая проверка добавляет подписку, а не еще один рекурсивный обход
+
+    private final Map<String, List<NodeVisitor>> visitors = new HashMap<>();
+
+    public FbxTreeWalker on(String nodeName, NodeVisitor visitor) {
+        visitors.computeIfAbsent(nodeName, name -> new ArrayList<>()).add(visitor);
+        return this;
+    }
+
+    // Обход в порядке узлов файла (родитель раньше потомков)
+    public void walk(FbxNode rootNode) {
+        visitChildren(rootNode);
+    }
+
+    private void visitChildren(FbxNode parent) {
+        for (FbxNode node : parent.getChildren()) {
+            List<NodeVisitor> nodeVisitors = visitors.get(node.getName());
+            if (nodeVisitors != null) {
+                for (NodeVisitor visitor : nodeVisitors) {
+                    visitor.visit(node, parent);
+                }
+            }
+            visitChildren(node);
+        }
+    }
+
+    // Подписчик на узлы с определенным именем; parent - узел, в котором он находится
+    public interface NodeVisitor {
+        void visit(FbxNode node, FbxNode parent);
+    }
+}
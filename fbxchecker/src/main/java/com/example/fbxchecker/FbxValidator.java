@@ -3,8 +3,10 @@ package com.example.fbxchecker;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 public class FbxValidator {
     public static void main(String[] args) throws IOException {
@@ -13,164 +15,202 @@ public class FbxValidator {
             return;
         }
 
-        String zipFilePath = args[0];
-        String jsonFilePath = args[1];
-        FbxFileValidator validator = new FbxFileValidator();
-        ValidationResult result = new ValidationResult();
-        TextureValidator textureValidator = new TextureValidator();
-
-        // Извлекаем базовое имя из пути к архиву
-        String baseName = extractBaseName(zipFilePath);
-        result.addMessage("1. Имя проекта: " + baseName);  // 1.
-        result.addSeparator();
-
-        // Проверка ZIP файла
-        if (validator.validateZipFile(zipFilePath, result)) {  // 2.
-            System.out.println("ZIP файл проверен.");
+        // Пакетный режим: --batch <каталог с архивами | файл-список> [каталог отчетов]
+        if (args[0].equals("--batch")) {
+            if (args.length < 2) {
+                System.out.println("Пожалуйста, укажите каталог с архивами или файл-список.");
+                return;
+            }
+            BatchValidator.run(args[1], args.length > 2 ? args[2] : "validation_reports");
+            return;
         }
 
-        result.addSeparator();
-
-        // Разархивирование ZIP-файла
-        Path tempDir = null;
+        String zipFilePath = args[0];
+        // Путь к .geojson необязателен: без него сцена читается из .fbx внутри архива
+        String jsonFilePath = args.length > 1 ? args[1] : null;
+        // Готовые разделы выводятся сразу, не дожидаясь texel density
+        ValidationListener consoleListener = new ValidationListener() {
+            @Override
+            public void onSectionCompleted(int section, List<Finding> findings) {
+                boolean hasErrors = findings.stream().anyMatch(Finding::isError);
+                System.out.println("Раздел " + section + " проверен: " + (hasErrors ? "Ошибка" : "ОК"));
+            }
+
+            @Override
+            public void onCacheHit() {
+                System.out.println("Результат проверки взят из кэша.");
+            }
+        };
+        ValidationResult result = validate(zipFilePath, jsonFilePath, new TextureValidator(),
+                ValidationCache.fromSystemProperties(), consoleListener);
+
+        // Сохранение результатов проверки в файл: текстовый отчет и находки в JSON Lines
         try {
-            tempDir = validator.extractZipFile(zipFilePath);
+            FileReportGenerator reportGenerator = new FileReportGenerator();
+            reportGenerator.generateReportFile(result, "validation_report.txt");
+            reportGenerator.generateJsonLinesFile(result, "validation_report.jsonl");
+            System.out.println("Результаты проверки сохранены в файл: validation_report.txt");
         } catch (IOException e) {
-            result.addMessage("Ошибка при разархивировании файла: " + e.getMessage());
-        }
-
-        if (tempDir == null) {
-            result.addMessage("Ошибка: Временная директория не создана.");
-            return;
+            e.printStackTrace();
         }
+    }
 
-        result.addMessage("3. Список файлов. Проверка имен. \n");  // 3.
-
-        FileNameValidator.validateFileNames(validator.listFilesInZip(zipFilePath), baseName, result);
+    // Проверка с кэшем результатов: повторная проверка того же архива по тем же правилам берется из кэша.
+    // Проверка с отдельным .geojson целиком не кэшируется - ключ строится только по архиву.
+    // Если архив изменился, повторно проверяются только записи с другими CRC-32 или размером
+    public static ValidationResult validate(String zipFilePath, String jsonFilePath, TextureValidator textureValidator,
+                                            ValidationCache cache) throws IOException {
+        return validate(zipFilePath, jsonFilePath, textureValidator, cache, ValidationListener.NONE);
+    }
 
-        result.addSeparator();
+    // listener получает разделы по мере готовности и счетчики прогресса
+    public static ValidationResult validate(String zipFilePath, String jsonFilePath, TextureValidator textureValidator,
+                                            ValidationCache cache, ValidationListener listener) throws IOException {
+        return validate(zipFilePath, jsonFilePath, textureValidator, cache, listener, new ResourceGovernor());
+    }
 
-        // Проверка JSON файла
-        try {
-            JsonFbxValidator.validateFbxVersion(jsonFilePath, result);  // 4.
-        } catch (IOException e) {
-            result.addMessage("Ошибка при чтении JSON файла: " + e.getMessage());
+    // resourceGovernor - ограничения ресурсов этой проверки; при одновременных проверках бюджет памяти
+    // делится между ними (ResourceGovernor.forConcurrentJobs), как и бюджет памяти текстур
+    public static ValidationResult validate(String zipFilePath, String jsonFilePath, TextureValidator textureValidator,
+                                            ValidationCache cache, ValidationListener listener,
+                                            ResourceGovernor resourceGovernor) throws IOException {
+        if (cache == null || jsonFilePath != null || !Files.isRegularFile(Path.of(zipFilePath))) {
+            return runChecks(zipFilePath, jsonFilePath, textureValidator, cache, listener, resourceGovernor);
         }
 
-        result.addMessage("5. Проверка имен объектов \n");  // 5.
-        // Извлечение и проверка имен объектов
-        try {
-            List<String> modelNames = JsonFbxValidator.extractModelNames(jsonFilePath);
-            ObjectNameValidator objectNameValidator = new ObjectNameValidator(baseName);
-
-            // Выполняем проверки
-            objectNameValidator.checkMainObject(modelNames, result);
-            objectNameValidator.checkUcObjects(modelNames, result);
-
-        } catch (IOException e) {
-            result.addMessage("Ошибка при извлечении имен моделей: " + e.getMessage());
+        String key = ValidationCache.key(Path.of(zipFilePath));
+        ValidationResult cached = cache.get(key);
+        if (cached != null) {
+            listener.onCacheHit();
+            publishSections(cached, listener);
+            return cached;
         }
 
-        result.addSeparator();
+        ValidationResult result = runChecks(zipFilePath, null, textureValidator, cache, listener, resourceGovernor);
+        // Отказ по бюджету памяти зависит от машины (JOB_HEAP_BUDGET_MB не входит в отпечаток правил) и не кэшируется
+        if (result.getFindingCount(ResourceGovernor.RESOURCE_LIMIT) == 0) {
+            cache.put(key, result);
+        }
+        return result;
+    }
 
-        result.addMessage("6. Список материалов \n");  // 6.
+    // Полная проверка архива (разделы 1-9). Отчет возвращается, а не пишется в файл,
+    // поэтому несколько проверок могут выполняться одновременно (см. ValidationJobService)
+    public static ValidationResult validate(String zipFilePath, String jsonFilePath, TextureValidator textureValidator) throws IOException {
+        return runChecks(zipFilePath, jsonFilePath, textureValidator, null, ValidationListener.NONE, new ResourceGovernor());
+    }
 
-        JsonFbxValidator.validateMaterials(jsonFilePath, baseName, result);
+    // entryCache - кэш результатов по записям архива, null - без него
+    private static ValidationResult runChecks(String zipFilePath, String jsonFilePath, TextureValidator textureValidator,
+                                              ValidationCache entryCache, ValidationListener listener,
+                                              ResourceGovernor resourceGovernor) throws IOException {
+        FbxFileValidator validator = new FbxFileValidator();
+        ValidationResult result = new ValidationResult();
 
+        // Извлекаем базовое имя из пути к архиву
+        String baseName = extractBaseName(zipFilePath);
+        result.addMessage("1. Имя проекта: " + baseName);  // 1.
         result.addSeparator();
 
-        result.addMessage("7. Polycount \n");  // 7.
-
-        int polyCount = JsonFbxValidator.calculatePolygonCountWithValidation(jsonFilePath);
-        if (polyCount < 2000000) {
-            result.addMessage("Количество полигонов в сцене: " + polyCount + "   OK");
-        } else {
-            result.addMessage("Количество полигонов в сцене: " + polyCount + " Ошибка: количество полигонов не должно превышать 2 млн.");
+        // Проверка ZIP файла
+        if (validator.validateZipFile(zipFilePath, result)) {  // 2.
+            System.out.println("ZIP файл проверен.");
         }
 
-        result.addSeparator();
-
-        // Проверка текстур
-        result.addMessage("8. Проверка текстур \n");  // 8.
-
-        try {
-            // Передаем временную директорию в метод extractTextureFiles
-            List<String> textureFiles = validator.extractTextureFiles(zipFilePath, tempDir);
-            textureValidator.validateTextures(textureFiles, result, textureValidator.getUdimResolutionMap());
-        } catch (IOException e) {
-            result.addMessage("Ошибка при извлечении текстур из архива: " + e.getMessage());
+        // Ошибки разделов 1-2 при FAIL_FAST: архив не открывается, записи не читаются
+        if (!ValidationRules.EXECUTION_POLICY.runsNextTier(result.hasErrors())) {
+            result.addSeparator();
+            result.addFinding(ArchiveValidator.TIER_SKIPPED, Finding.Severity.INFO, null,
+                    "Разделы 3-9 не проверялись: ошибки в разделах 1-2", null);
+            publishSections(result, listener);
+            return result;
         }
 
-        result.addSeparator();
-
-        List<double[]> vertices = null;
-
-        List<int[]> triangleIndices = null;
-
-        List<double[]> uvCoords = null;
-
-        List<int[]> uvIndices = null;
-
+        // Архив открывается один раз: записи читаются из него потоком, без распаковки на диск
+        ZipArchive archive;
         try {
-            // Указываем имя UV-канала, который хотите использовать
-            String uvChannelName = "UVChannel_1";  // Замените на имя вашего UV-канала
-
-            // Извлекаем вершины
-            vertices = JsonFbxValidator.extractVertices(jsonFilePath);
-
-            // Извлекаем индексы треугольников
-            triangleIndices = JsonFbxValidator.extractPolygonVertexIndices(jsonFilePath);
-
-            // Извлекаем UV координаты
-            uvCoords = JsonFbxValidator.extractUVCoords(jsonFilePath, uvChannelName);
-
-            // Извлекаем UV индексы
-            uvIndices = JsonFbxValidator.extractUVIndices(jsonFilePath, uvChannelName);
-
-
-
-            // Для проверки можно вывести размеры списков
-            System.out.println("Количество вершин: " + vertices.size());
-            System.out.println("Количество треугольников: " + triangleIndices.size());
-            System.out.println("Количество UV координат: " + uvCoords.size());
-            System.out.println("Количество UV индексов: " + uvIndices.size());
-
+            archive = validator.openArchive(zipFilePath);
         } catch (IOException e) {
-            e.printStackTrace();
+            result.addSeparator();
+            result.addMessage("Ошибка при открытии архива: " + e.getMessage());
+            publishSections(result, listener);
+            return result;
         }
 
-        // Создаём экземпляр TexelDensityCalculator
-        TexelDensityCalculator texelDensityCalculator = new TexelDensityCalculator(
-                vertices,
-                triangleIndices,
-                uvCoords,
-                uvIndices,
-                textureValidator.getUdimResolutionMap()
-        );
-
-        // Вычисляем Texel Density и добавляем результаты в ValidationResult
-        texelDensityCalculator.calculateTexelDensity(result);
-
+        try (archive) {
+            // Ограничения распаковки по центральному каталогу (раздел 2): архив сверх них не читается
+            boolean withinLimits = resourceGovernor.checkArchive(archive.getEntries(), result);
+            result.addSeparator();
+            if (!withinLimits) {
+                result.addFinding(ResourceGovernor.RESOURCE_LIMIT, Finding.Severity.INFO, null,
+                        "Разделы 3-9 не проверялись: архив превышает ограничения распаковки", null);
+                publishSections(result, listener);
+                return result;
+            }
+            publishSections(result, listener);
+
+            validateArchive(archive, jsonFilePath, baseName, validator, textureValidator, resourceGovernor, entryCache, listener, result);
+        }
+        return result;
+    }
 
-        // Сохранение результатов проверки в файл
-        try {
-            Files.writeString(Path.of("validation_report.txt"), result.generateReport());
-            System.out.println("Результаты проверки сохранены в файл: validation_report.txt");
-        } catch (IOException e) {
-            e.printStackTrace();
+    // Проверки 3-9 по открытому архиву: записи передаются в ArchiveValidator, текстуры читаются потоком из архива
+    private static void validateArchive(ZipArchive archive, String jsonFilePath, String baseName,
+                                        FbxFileValidator validator, TextureValidator textureValidator, ResourceGovernor resourceGovernor,
+                                        ValidationCache entryCache, ValidationListener listener, ValidationResult result) {
+        try (ArchiveValidator archiveValidator = new ArchiveValidator(baseName, textureValidator)) {
+            archiveValidator.setListener(listener);
+            archiveValidator.setResourceGovernor(resourceGovernor);
+            if (entryCache != null) {
+                archiveValidator.setEntryCache(entryCache);
+            }
+            validator.listFilesInZip(archive).forEach(archiveValidator::addFileName);
+
+            // Имена файлов известны по центральному каталогу; при их ошибках (FAIL_FAST) записи не читаются
+            if (!archiveValidator.checkFileNames(result)) {
+                archiveValidator.finish(result);
+                return;
+            }
+
+            // Текстуры читаются потоком прямо из записей архива и проверяются в пуле, пока разбирается сцена
+            for (ArchiveEntry textureFile : validator.extractTextureFiles(archive)) {
+                archiveValidator.submitTexture(textureFile, () -> archive.openStream(textureFile));
+            }
+
+            // Чтение сцены: разбирается один раз и используется всеми проверками
+            if (jsonFilePath != null) {
+                try {
+                    archiveValidator.setScene(FbxScene.load(jsonFilePath));
+                } catch (IOException e) {
+                    archiveValidator.setSceneError("Ошибка при чтении JSON файла: " + e.getMessage());
+                }
+            } else {
+                // Сцена из .fbx читается при первой необходимости: если ее разделы есть в кэше, она не разбирается
+                ArchiveEntry fbxEntry = validator.findFbxEntry(archive);
+                if (fbxEntry != null) {
+                    archiveValidator.setSceneSource(fbxEntry, () -> validator.readFbxScene(archive));
+                } else {
+                    archiveValidator.setSceneError("Ошибка при чтении FBX файла: В архиве отсутствует .fbx файл");
+                }
+            }
+
+            archiveValidator.finish(result);
         }
+    }
 
-        // Удаление временной директории после всех проверок
-        try {
-            validator.deleteTempDirectory(tempDir);
-            System.out.println("Временные файлы удалены.");
-        } catch (IOException e) {
-            System.out.println("Ошибка при удалении временных файлов: " + e.getMessage());
+    // Разделы уже собранного результата (1-2 или весь отчет из кэша) передаются слушателю по номерам
+    static void publishSections(ValidationResult result, ValidationListener listener) {
+        Map<Integer, List<Finding>> sections = new LinkedHashMap<>();
+        for (Finding finding : result.getFindings()) {
+            if (finding.getSection() > 0) {
+                sections.computeIfAbsent(finding.getSection(), section -> new ArrayList<>()).add(finding);
+            }
         }
+        sections.forEach(listener::onSectionCompleted);
     }
 
     // Метод для извлечения базового имени из пути к архиву или файлу FBX
-    private static String extractBaseName(String filePath) {
+    static String extractBaseName(String filePath) {
         int start = filePath.indexOf("SM_");
         int end = filePath.lastIndexOf('.');
         if (start != -1 && end != -1) {
@@ -1,12 +1,24 @@
 package com.example.fbxchecker;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 public class FileReportGenerator {
+    // Отчеты пишутся в файл потоком, без сборки всего текста в памяти
+
     public void generateReportFile(ValidationResult result, String outputPath) throws IOException {
-        Path file = Path.of(outputPath);
-        Files.writeString(file, result.generateReport());
+        try (Writer writer = Files.newBufferedWriter(Path.of(outputPath), StandardCharsets.UTF_8)) {
+            result.writeReport(writer);
+        }
+    }
+
+    // Находки в формате JSON Lines для конвейера
+    public void generateJsonLinesFile(ValidationResult result, String outputPath) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(Path.of(outputPath), StandardCharsets.UTF_8)) {
+            result.writeJsonLines(writer);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.example.fbxchecker;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Finding {
+    // Результат одной проверки: раздел отчета, идентификатор проверки, серьезность,
+    // объект проверки (файл, объект сцены, UDIM) и числовые показатели.
+    // Строка текстового отчета хранится готовой, остальные поля - для счетчиков и машиночитаемого вывода
+
+    public enum Severity {
+        INFO, ERROR
+    }
+
+    private int section;
+    private String check;
+    private Severity severity;
+    private String subject;
+    private String message;
+    private Map<String, Number> metrics;
+
+    // Для чтения из кэша
+    private Finding() {
+    }
+
+    public Finding(int section, String check, Severity severity, String subject, String message, Map<String, Number> metrics) {
+        this.section = section;
+        this.check = check;
+        this.severity = severity;
+        this.subject = subject;
+        this.message = message;
+        this.metrics = metrics == null || metrics.isEmpty() ? null : new LinkedHashMap<>(metrics);
+    }
+
+    // Строка отчета без типизации: серьезность определяется по слову "Ошибка"
+    public static Finding fromMessage(int section, String check, String message) {
+        Severity severity = message.contains("Ошибка") ? Severity.ERROR : Severity.INFO;
+        return new Finding(section, check, severity, null, message, null);
+    }
+
+    public int getSection() {
+        return section;
+    }
+
+    public String getCheck() {
+        return check;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    public boolean isError() {
+        return severity == Severity.ERROR;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Map<String, Number> getMetrics() {
+        return metrics == null ? Collections.emptyMap() : Collections.unmodifiableMap(metrics);
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.fbxchecker;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class GeoJsonSceneReader {
+    // Потоковое чтение .geojson через JsonParser: дерево JsonNode не строится,
+    // ненужные поддеревья пропускаются, числовые массивы читаются сразу в примитивные буферы.
+    // По свойству -Dfbxchecker.geojson-input=mapped файл на диске отображается в память (FileChannel.map),
+    // и парсер читает прямо из отображения; числовые массивы тогда не разбираются при чтении сцены, а запоминаются границами в байтах (MappedArray)
+    // и разбираются из отображения при первом обращении - массивы, которые проверкам не понадобились
+    // (геометрии после остановки подсчета полигонов, UV других каналов), не разбираются вовсе
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Чтение файла через отображение в память (-Dfbxchecker.geojson-input=mapped); по умолчанию - обычное потоковое чтение.
+    // Отображение не освобождается явно, а только сборщиком мусора вместе со сценой, и до этого
+    // файл остается занятым (в Windows его нельзя удалить или перезаписать), поэтому режим включается явно
+    private static final boolean MEMORY_MAPPED = "mapped".equals(System.getProperty("fbxchecker.geojson-input", "stream"));
+
+    // Отображение файла, из которого читается сцена; null - массивы читаются сразу
+    private final ByteBuffer mapping;
+
+    private GeoJsonSceneReader(ByteBuffer mapping) {
+        this.mapping = mapping;
+    }
+
+    public static FbxScene read(File file) throws IOException {
+        return read(file, MEMORY_MAPPED);
+    }
+
+    // mapped - чтение через отображение в память независимо от системного свойства (файлы больше 2 ГБ читаются потоком)
+    static FbxScene read(File file, boolean mapped) throws IOException {
+        if (!mapped || file.length() > Integer.MAX_VALUE) {
+            try (JsonParser parser = JSON_FACTORY.createParser(file)) {
+                return new GeoJsonSceneReader(null).readRoot(parser);
+            }
+        }
+
+        // Отображение остается доступным после закрытия файла, пока на него ссылаются массивы сцены
+        ByteBuffer mapping;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(new ByteBufferInputStream(mapping.duplicate()))) {
+            return new GeoJsonSceneReader(mapping).readRoot(parser);
+        }
+    }
+
+    public static FbxScene read(InputStream inputStream) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            return new GeoJsonSceneReader(null).readRoot(parser);
+        }
+    }
+
+    // Корень: поле version и массив children с узлами верхнего уровня
+    private FbxScene readRoot(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Некорректный формат JSON: ожидался объект в корне файла");
+        }
+
+        int version = 0;
+        FbxNode root = new FbxNode("");
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (field.equals("version") && token.isNumeric()) {
+                version = parser.getIntValue();
+            } else if (field.equals("children") && token == JsonToken.START_ARRAY) {
+                readChildren(parser, root, "");
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return new FbxScene(version, root);
+    }
+
+    private void readChildren(JsonParser parser, FbxNode parent, String parentPath) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            FbxNode child = readNode(parser, parentPath);
+            if (child != null) {
+                parent.addChild(child);
+            }
+        }
+    }
+
+    // Чтение одного узла. Возвращает null, если узел не нужен проверкам
+    private FbxNode readNode(JsonParser parser, String parentPath) throws IOException {
+        FbxNode node = new FbxNode(null);
+        String path = null;
+        // parentPath == null означает, что имя предка еще неизвестно: читаем все, фильтруем позже
+        boolean filterLater = parentPath == null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+
+            if (field.equals("name") && token == JsonToken.VALUE_STRING) {
+                node.setName(parser.getText());
+                if (!filterLater) {
+                    path = FbxSceneProjection.childPath(parentPath, node.getName());
+                    if (!FbxSceneProjection.isKept(path)) {
+                        skipRemainingFields(parser);
+                        return null;
+                    }
+                }
+            } else if (field.equals("properties") && token == JsonToken.START_ARRAY) {
+                readProperties(parser, node);
+            } else if (field.equals("children") && token == JsonToken.START_ARRAY) {
+                // Если имя узла еще не прочитано, путь детей неизвестен
+                readChildren(parser, node, path);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (node.getName() == null) {
+            return null;
+        }
+        if (!filterLater && path == null) {
+            // Имя пришло после properties/children: проверяем узел и чистим детей
+            path = FbxSceneProjection.childPath(parentPath, node.getName());
+            if (!FbxSceneProjection.isKept(path)) {
+                return null;
+            }
+            FbxSceneProjection.prune(node, path);
+        }
+        return node;
+    }
+
+    private void skipRemainingFields(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    private void readProperties(JsonParser parser, FbxNode node) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            node.addProperty(readProperty(parser));
+        }
+    }
+
+    // Свойство {"type": "d", "value": [...]}
+    private FbxProperty readProperty(JsonParser parser) throws IOException {
+        FbxProperty property = new FbxProperty('?', null);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+
+            if (field.equals("type") && token == JsonToken.VALUE_STRING) {
+                String type = parser.getText();
+                property.setType(type.isEmpty() ? '?' : type.charAt(0));
+            } else if (field.equals("value")) {
+                property.setValue(readValue(parser, token, property.getType()));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return property;
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token, char type) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                // Идентификаторы FBX 64-битные, поэтому читаем как long
+                return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                        ? parser.getBigIntegerValue().longValue()
+                        : parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case START_ARRAY:
+                if (mapping != null) {
+                    // Границы массива в файле: от '[' до позиции после ']'
+                    long start = parser.currentTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    return new MappedArray(mapping, (int) start, (int) parser.currentLocation().getByteOffset());
+                }
+                return (type == 'i' || type == 'b') ? readIntArray(parser) : readDoubleArray(parser);
+            default:
+                parser.skipChildren();
+                return null;
+        }
+    }
+
+    private static int[] readIntArray(JsonParser parser) throws IOException {
+        IntArrayBuilder builder = new IntArrayBuilder();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token.isNumeric()) {
+                builder.add(parser.getIntValue());
+            } else if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+                builder.add(token == JsonToken.VALUE_TRUE ? 1 : 0);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return builder.toArray();
+    }
+
+    private static double[] readDoubleArray(JsonParser parser) throws IOException {
+        DoubleArrayBuilder builder = new DoubleArrayBuilder();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token.isNumeric()) {
+                builder.add(parser.getDoubleValue());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return builder.toArray();
+    }
+
+    // Числовой массив в отображении файла: байты [start, end) от '[' до ']' включительно.
+    // Тип элементов известен только свойству (type может идти после value), поэтому он передается при разборе
+    static class MappedArray {
+        private final ByteBuffer mapping;
+        private final int start;
+        private final int end;
+        private int length = -1;
+
+        MappedArray(ByteBuffer mapping, int start, int end) {
+            this.mapping = mapping;
+            this.start = start;
+            this.end = end;
+        }
+
+        // Разбор в int[] (i, b) или double[] (остальные типы) тем же кодом, что и при потоковом чтении
+        Object decode(char type) {
+            try (JsonParser parser = JSON_FACTORY.createParser(new ByteBufferInputStream(region()))) {
+                parser.nextToken();
+                return (type == 'i' || type == 'b') ? readIntArray(parser) : readDoubleArray(parser);
+            } catch (IOException e) {
+                throw new IllegalStateException("Ошибка разбора массива JSON (байты " + start + "-" + end + "): " + e.getMessage(), e);
+            }
+        }
+
+        // Количество элементов без разбора чисел: запятые верхнего уровня массива
+        int length() {
+            if (length < 0) {
+                ByteBuffer bytes = region();
+                int count = 0;
+                int depth = 0;
+                boolean empty = true;
+                while (bytes.hasRemaining()) {
+                    byte b = bytes.get();
+                    if (b == '[') {
+                        depth++;
+                    } else if (b == ']') {
+                        depth--;
+                    } else if (b == ',' && depth == 1) {
+                        count++;
+                    } else if (depth == 1 && b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                        empty = false;
+                    }
+                }
+                length = empty ? 0 : count + 1;
+            }
+            return length;
+        }
+
+        // Собственная копия позиции и границ: массивы разных геометрий разбираются из разных потоков
+        private ByteBuffer region() {
+            return mapping.duplicate().position(start).limit(end);
+        }
+    }
+
+    // Чтение ByteBuffer как InputStream для JsonParser, без копирования файла в кучу
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
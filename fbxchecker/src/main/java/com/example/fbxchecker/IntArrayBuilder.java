@@ -0,0 +1,34 @@
+package com.example.fbxchecker;
+
+import java.util.Arrays;
+
+public class IntArrayBuilder {
+    // Растущий буфер int без упаковки в Integer
+
+    private int[] data;
+    private int size;
+
+    public IntArrayBuilder() {
+        this(1024);
+    }
+
+    public IntArrayBuilder(int initialCapacity) {
+        data = new int[Math.max(initialCapacity, 16)];
+    }
+
+    public void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length + (data.length >> 1));
+        }
+        data[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Массив ровно нужной длины
+    public int[] toArray() {
+        return size == data.length ? data : Arrays.copyOf(data, size);
+    }
+}
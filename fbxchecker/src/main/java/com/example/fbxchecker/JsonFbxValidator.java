@@ -1,332 +1,136 @@
 package com.example.fbxchecker;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 
 public class JsonFbxValidator {
 
     // Метод для проверки версии FBX и добавления сообщения в результаты
-    public static void validateFbxVersion(String jsonFilePath, ValidationResult result) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode rootNode = objectMapper.readTree(new File(jsonFilePath));
-
+    public static void validateFbxVersion(FbxScene scene, ValidationResult result) {
         // Проверка версии FBX
-        int version = rootNode.get("version").asInt();
+        int version = scene.getVersion();
         String versionString = (version / 1000) + "." + (version / 100 % 10) + "." + (version % 10);
         result.addMessage("4. Версия FBX: " + versionString);
         result.addSeparator();
     }
 
     // Статический метод для извлечения имен объектов моделей
-    public static List<String> extractModelNames(String jsonFilePath) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode rootNode = objectMapper.readTree(new File(jsonFilePath));
-
-        List<String> modelNames = new ArrayList<>();
-
-        // Поиск узла Objects
-        JsonNode objectsNode = findNodeByName(rootNode, "Objects");
-        if (objectsNode != null && objectsNode.has("children")) {
-            for (JsonNode modelNode : objectsNode.get("children")) {
-                if (modelNode.get("name").asText().equals("Model")) {
-                    JsonNode properties = modelNode.get("properties");
-                    if (properties != null && properties.isArray() && properties.size() > 1) {
-                        // Извлекаем имя модели до первого символа \u0000
-                        String modelName = properties.get(1).get("value").asText().split("\u0000")[0];
-                        modelNames.add(modelName);  // Добавляем имя в список
-                    }
-                }
-            }
-        }
-
-        return modelNames;  // Возвращаем список имен моделей
+    public static List<String> extractModelNames(FbxScene scene) {
+        return scene.getModelNames();
     }
 
-    // Обновленный метод для получения релевантных моделей и их идентификаторов
-    public static Map<Long, String> getRelevantModelIdNameMap(String jsonFilePath) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode rootNode = objectMapper.readTree(new File(jsonFilePath));
-
-        Map<Long, String> modelIdNameMap = new LinkedHashMap<>();
-        JsonNode objectsNode = findNodeByName(rootNode, "Objects");
-        if (objectsNode != null && objectsNode.has("children")) {
-            for (JsonNode objectNode : objectsNode.get("children")) {
-                if (objectNode.get("name").asText().equals("Model")) {
-                    JsonNode properties = objectNode.get("properties");
-                    if (properties != null && properties.isArray()) {
-                        Long modelId = null;
-                        String modelName = null;
-                        for (JsonNode property : properties) {
-                            String type = property.get("type").asText();
-                            if (type.equals("L") && modelId == null) {
-                                modelId = property.get("value").asLong();
-                            } else if (type.equals("S") && modelName == null) {
-                                modelName = property.get("value").asText().split("\u0000")[0];
-                            }
-                            if (modelId != null && modelName != null) {
-                                break;
-                            }
-                        }
-                        if (modelId != null && modelName != null && !modelName.startsWith("UCX")) {
-                            modelIdNameMap.put(modelId, modelName);
-                        }
-                    }
-                }
-            }
+    // Модель из Objects (вызывается при обходе дерева один раз при загрузке сцены): имя - во все модели,
+    // id и имя - в релевантные, если это не UCX
+    static void collectModel(FbxNode modelNode, List<String> modelNames, Map<Long, String> relevantModelIdNameMap) {
+        List<FbxProperty> properties = modelNode.getProperties();
+        if (properties.size() > 1) {
+            // Извлекаем имя модели до первого символа \u0000
+            modelNames.add(properties.get(1).asString().split("\u0000")[0]);
         }
-        return modelIdNameMap;
-    }
 
-    // Обновленный метод для получения геометрий и их идентификаторов
-    public static Map<Long, JsonNode> getGeometryIdNodeMap(String jsonFilePath) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode rootNode = objectMapper.readTree(new File(jsonFilePath));
-
-        Map<Long, JsonNode> geometryIdNodeMap = new LinkedHashMap<>();
-        JsonNode objectsNode = findNodeByName(rootNode, "Objects");
-        if (objectsNode != null && objectsNode.has("children")) {
-            for (JsonNode objectNode : objectsNode.get("children")) {
-                if (objectNode.get("name").asText().equals("Geometry")) {
-                    JsonNode properties = objectNode.get("properties");
-                    if (properties != null && properties.isArray()) {
-                        Long geometryId = null;
-                        for (JsonNode property : properties) {
-                            String type = property.get("type").asText();
-                            if (type.equals("L") && geometryId == null) {
-                                geometryId = property.get("value").asLong();
-                                break;
-                            }
-                        }
-                        if (geometryId != null) {
-                            geometryIdNodeMap.put(geometryId, objectNode);
-                        }
-                    }
-                }
+        FbxProperty idProperty = modelNode.findProperty('L');
+        FbxProperty nameProperty = modelNode.findProperty('S');
+        if (idProperty != null && nameProperty != null) {
+            String modelName = nameProperty.asString().split("\u0000")[0];
+            if (!modelName.startsWith("UCX")) {
+                relevantModelIdNameMap.put(idProperty.asLong(), modelName);
             }
         }
-        return geometryIdNodeMap;
     }
 
-    // Обновленный метод для извлечения вершин
-    public static List<double[]> extractVertices(String jsonFilePath) throws IOException {
-        Map<Long, JsonNode> geometryIdNodeMap = getGeometryIdNodeMap(jsonFilePath);
-        List<double[]> vertices = new ArrayList<>();
-
-        for (JsonNode geometryNode : geometryIdNodeMap.values()) {
-            List<double[]> modelVertices = extractVerticesFromGeometry(geometryNode);
-            vertices.addAll(modelVertices);
-        }
-
-        return vertices;
+    // Обновленный метод для получения релевантных моделей и их идентификаторов
+    public static Map<Long, String> getRelevantModelIdNameMap(FbxScene scene) {
+        return scene.getRelevantModelIdNameMap();
     }
 
-    // Обновленный метод для извлечения индексов полигонов
-    public static List<int[]> extractPolygonVertexIndices(String jsonFilePath) throws IOException {
-        Map<Long, JsonNode> geometryIdNodeMap = getGeometryIdNodeMap(jsonFilePath);
-        List<int[]> triangleIndices = new ArrayList<>();
-        int vertexOffset = 0;
-
-        for (JsonNode geometryNode : geometryIdNodeMap.values()) {
-            List<double[]> modelVertices = extractVerticesFromGeometry(geometryNode);
-            List<int[]> modelTriangleIndices = extractPolygonVertexIndicesFromGeometry(geometryNode, vertexOffset);
-            triangleIndices.addAll(modelTriangleIndices);
-            vertexOffset += modelVertices.size();
-        }
-
-        return triangleIndices;
+    // Обновленный метод для получения геометрий и их идентификаторов
+    public static Map<Long, FbxNode> getGeometryIdNodeMap(FbxScene scene) {
+        return scene.getGeometryIdNodeMap();
     }
 
-    // Обновленный метод для извлечения UV координат
-    public static List<double[]> extractUVCoords(String jsonFilePath, String uvChannelName) throws IOException {
-        Map<Long, JsonNode> geometryIdNodeMap = getGeometryIdNodeMap(jsonFilePath);
-        List<double[]> uvCoords = new ArrayList<>();
+    // Сборка плоского меша всей сцены для проверок геометрии (polycount, texel density)
+    public static MeshData extractMesh(FbxScene scene, String uvChannelName) {
+        return MeshData.build(scene, uvChannelName);
+    }
 
-        for (JsonNode geometryNode : geometryIdNodeMap.values()) {
-            List<double[]> modelUVCoords = extractUVCoordsFromGeometry(geometryNode, uvChannelName);
-            uvCoords.addAll(modelUVCoords);
-        }
+    // То же, с треугольниками геометрий из подсчета полигонов: индексы полигонов не распаковываются ради размеров
+    public static MeshData extractMesh(FbxScene scene, String uvChannelName, PolycountCalculator.PolycountResult polycount) {
+        return MeshData.build(scene, uvChannelName, polycount);
+    }
 
-        return uvCoords;
+    // Метод для извлечения вершин из геометрии (x,y,z подряд)
+    public static double[] extractVerticesFromGeometry(FbxNode geometryNode) {
+        return getArray(geometryNode, "Vertices", 'd').getDoubleArray();
     }
 
-    // Обновленный метод для извлечения индексов UV
-    public static List<int[]> extractUVIndices(String jsonFilePath, String uvChannelName) throws IOException {
-        Map<Long, JsonNode> geometryIdNodeMap = getGeometryIdNodeMap(jsonFilePath);
-        List<int[]> uvIndices = new ArrayList<>();
-        int uvOffset = 0;
-
-        for (JsonNode geometryNode : geometryIdNodeMap.values()) {
-            List<double[]> modelUVCoords = extractUVCoordsFromGeometry(geometryNode, uvChannelName);
-            List<int[]> modelUVIndices = extractUVIndicesFromGeometry(geometryNode, uvOffset, uvChannelName);
-            uvIndices.addAll(modelUVIndices);
-            uvOffset += modelUVCoords.size();
-        }
+    // Количество вершин геометрии без распаковки массива Vertices
+    public static int countVerticesInGeometry(FbxNode geometryNode) {
+        return getArray(geometryNode, "Vertices", 'd').getArrayLength() / 3;
+    }
 
-        return uvIndices;
+    // Метод для извлечения индексов полигонов из геометрии (конец полигона закодирован отрицательным индексом)
+    public static int[] extractPolygonVertexIndicesFromGeometry(FbxNode geometryNode) {
+        return getArray(geometryNode, "PolygonVertexIndex", 'i').getIntArray();
     }
 
-    // Метод для извлечения вершин из геометрии
-    public static List<double[]> extractVerticesFromGeometry(JsonNode geometryNode) {
-        List<double[]> vertices = new ArrayList<>();
-        JsonNode verticesNode = findNodeByName(geometryNode, "Vertices");
-        if (verticesNode != null && verticesNode.has("properties")) {
-            for (JsonNode property : verticesNode.get("properties")) {
-                if (property.get("type").asText().equals("d")) {
-                    JsonNode valueNode = property.get("value");
-                    if (valueNode.isArray()) {
-                        for (int i = 0; i < valueNode.size(); i += 3) {
-                            double x = valueNode.get(i).asDouble();
-                            double y = valueNode.get(i + 1).asDouble();
-                            double z = valueNode.get(i + 2).asDouble();
-                            vertices.add(new double[]{x, y, z});
-                        }
-                    }
-                }
-            }
+    // Метод для извлечения UV координат из геометрии (u,v подряд)
+    public static double[] extractUVCoordsFromGeometry(FbxNode geometryNode, String uvChannelName) {
+        FbxNode layerElementUVNode = findLayerElementUVByName(geometryNode, uvChannelName);
+        if (layerElementUVNode != null) {
+            return getArray(layerElementUVNode, "UV", 'd').getDoubleArray();
         }
-        return vertices;
+        return new double[0];
     }
 
-    // Метод для извлечения индексов полигонов из геометрии
-    public static List<int[]> extractPolygonVertexIndicesFromGeometry(JsonNode geometryNode, int vertexOffset) {
-        List<int[]> triangleIndices = new ArrayList<>();
-        JsonNode polygonVertexIndexNode = findNodeByName(geometryNode, "PolygonVertexIndex");
-        if (polygonVertexIndexNode != null && polygonVertexIndexNode.has("properties")) {
-            for (JsonNode property : polygonVertexIndexNode.get("properties")) {
-                if (property.get("type").asText().equals("i")) {
-                    JsonNode valueNode = property.get("value");
-                    if (valueNode.isArray()) {
-                        List<Integer> indices = new ArrayList<>();
-                        for (JsonNode indexNode : valueNode) {
-                            indices.add(indexNode.asInt());
-                        }
-                        // Обработка индексов для извлечения треугольников
-                        List<Integer> faceIndices = new ArrayList<>();
-                        for (int indexValue : indices) {
-                            int correctedIndex = (indexValue < 0) ? -indexValue - 1 : indexValue;
-                            faceIndices.add(correctedIndex + vertexOffset);
-                            if (indexValue < 0) {
-                                // Конец полигона
-                                if (faceIndices.size() == 3) {
-                                    triangleIndices.add(new int[]{
-                                            faceIndices.get(0),
-                                            faceIndices.get(1),
-                                            faceIndices.get(2)
-                                    });
-                                } else if (faceIndices.size() > 3) {
-                                    // Триангуляция многоугольника
-                                    for (int j = 1; j < faceIndices.size() - 1; j++) {
-                                        triangleIndices.add(new int[]{
-                                                faceIndices.get(0),
-                                                faceIndices.get(j),
-                                                faceIndices.get(j + 1)
-                                        });
-                                    }
-                                }
-                                faceIndices.clear();
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return triangleIndices;
+    // Количество UV координат канала без распаковки массива UV
+    public static int countUVCoordsInGeometry(FbxNode geometryNode, String uvChannelName) {
+        FbxNode layerElementUVNode = findLayerElementUVByName(geometryNode, uvChannelName);
+        return layerElementUVNode != null ? getArray(layerElementUVNode, "UV", 'd').getArrayLength() / 2 : 0;
     }
 
-    // Метод для извлечения UV координат из геометрии
-    public static List<double[]> extractUVCoordsFromGeometry(JsonNode geometryNode, String uvChannelName) {
-        List<double[]> uvCoords = new ArrayList<>();
-        JsonNode layerElementUVNode = findLayerElementUVByName(geometryNode, uvChannelName);
-        if (layerElementUVNode != null) {
-            JsonNode uvNode = findNodeByName(layerElementUVNode, "UV");
-            if (uvNode != null && uvNode.has("properties")) {
-                for (JsonNode property : uvNode.get("properties")) {
-                    if (property.get("type").asText().equals("d")) {
-                        JsonNode valueNode = property.get("value");
-                        if (valueNode.isArray()) {
-                            for (int i = 0; i < valueNode.size(); i += 2) {
-                                double u = valueNode.get(i).asDouble();
-                                double v = valueNode.get(i + 1).asDouble();
-                                uvCoords.add(new double[]{u, v});
-                            }
-                        }
-                    }
-                }
-            }
+    // Метод для извлечения UV индексов из геометрии (пустой массив при ReferenceInformationType = Direct)
+    public static int[] extractUVIndicesFromGeometry(FbxNode geometryNode, String uvChannelName) {
+        FbxNode layerElementUVNode = findLayerElementUVByName(geometryNode, uvChannelName);
+        if (layerElementUVNode != null && !"Direct".equals(getStringChild(layerElementUVNode, "ReferenceInformationType"))) {
+            return getArray(layerElementUVNode, "UVIndex", 'i').getIntArray();
         }
-        return uvCoords;
+        return new int[0];
     }
 
-    // Метод для извлечения UV индексов из геометрии
-    public static List<int[]> extractUVIndicesFromGeometry(JsonNode geometryNode, int uvOffset, String uvChannelName) {
-        List<int[]> uvIndices = new ArrayList<>();
-        JsonNode layerElementUVNode = findLayerElementUVByName(geometryNode, uvChannelName);
-        if (layerElementUVNode != null) {
-            JsonNode uvIndexNode = findNodeByName(layerElementUVNode, "UVIndex");
-            if (uvIndexNode != null && uvIndexNode.has("properties")) {
-                for (JsonNode property : uvIndexNode.get("properties")) {
-                    if (property.get("type").asText().equals("i")) {
-                        JsonNode valueNode = property.get("value");
-                        if (valueNode.isArray()) {
-                            List<Integer> indices = new ArrayList<>();
-                            for (JsonNode indexNode : valueNode) {
-                                indices.add(indexNode.asInt() + uvOffset);
-                            }
-                            // Группируем индексы по треугольникам
-                            List<Integer> faceIndices = new ArrayList<>();
-                            for (int index : indices) {
-                                faceIndices.add(index);
-                                if (faceIndices.size() == 3) {
-                                    uvIndices.add(new int[]{
-                                            faceIndices.get(0),
-                                            faceIndices.get(1),
-                                            faceIndices.get(2)
-                                    });
-                                    faceIndices.clear();
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+    // UV задан на вершину (ByControlPoint / ByVertice), а не на вершину полигона
+    public static boolean isUVMappedByControlPoint(FbxNode geometryNode, String uvChannelName) {
+        FbxNode layerElementUVNode = findLayerElementUVByName(geometryNode, uvChannelName);
+        if (layerElementUVNode == null) {
+            return false;
         }
-        return uvIndices;
+        String mappingType = getStringChild(layerElementUVNode, "MappingInformationType");
+        return "ByControlPoint".equals(mappingType) || "ByVertice".equals(mappingType) || "ByVertex".equals(mappingType);
     }
 
-    // Метод для поиска LayerElementUV по имени UV-канала
-    private static JsonNode findLayerElementUVByName(JsonNode geometryNode, String uvChannelName) {
-        List<JsonNode> layerElementUVNodes = findNodesByName(geometryNode, "LayerElementUV");
-        for (JsonNode layerElementUVNode : layerElementUVNodes) {
-            String name = getLayerElementUVName(layerElementUVNode);
-            if (uvChannelName.equals(name)) {
-                return layerElementUVNode;
+    // Метод для поиска LayerElementUV по имени UV-канала (среди дочерних узлов геометрии, без рекурсии и списков)
+    static FbxNode findLayerElementUVByName(FbxNode geometryNode, String uvChannelName) {
+        for (FbxNode childNode : geometryNode.getChildren()) {
+            if ("LayerElementUV".equals(childNode.getName()) && uvChannelName.equals(getLayerElementUVName(childNode))) {
+                return childNode;
             }
         }
         return null;
     }
 
     // Метод для получения имени LayerElementUV
-    private static String getLayerElementUVName(JsonNode layerElementUVNode) {
-        JsonNode nameNode = findNodeByName(layerElementUVNode, "Name");
-        if (nameNode != null && nameNode.has("properties") && nameNode.get("properties").size() > 0) {
-            JsonNode property = nameNode.get("properties").get(0);
-            if (property.has("type") && property.get("type").asText().equals("S")) {
-                return property.get("value").asText();
+    static String getLayerElementUVName(FbxNode layerElementUVNode) {
+        FbxNode nameNode = layerElementUVNode.getChild("Name");
+        if (nameNode != null && !nameNode.getProperties().isEmpty()) {
+            FbxProperty property = nameNode.getProperties().get(0);
+            if (property.getType() == 'S') {
+                return property.asString();
             }
         }
         return null;
     }
 
-    // Метод для проверки материалов (без изменений)
-    public static void validateMaterials(String jsonFilePath, String baseName, ValidationResult result) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode rootNode = objectMapper.readTree(new File(jsonFilePath));
-
-        List<String> foundMaterialNames = findMaterials(rootNode);
+    // Метод для проверки материалов
+    public static void validateMaterials(FbxScene scene, String baseName, ValidationResult result) {
+        List<String> foundMaterialNames = scene.getMaterialNames();
 
         // Определяем начальные имена материалов в зависимости от базового имени
         if (baseName.contains("_Ground")) {
@@ -337,41 +141,114 @@ public class JsonFbxValidator {
         }
     }
 
-    // Метод для поиска материалов в JSON (без изменений)
-    private static List<String> findMaterials(JsonNode rootNode) {
-        List<String> materialNames = new ArrayList<>();
-
-        // Рекурсивно ищем узлы "Material" и извлекаем имена
-        if (rootNode.isObject() && rootNode.has("name") && rootNode.get("name").asText().equals("Material")) {
-            String materialName = getMaterialName(rootNode);
-            if (materialName != null) {
-                materialNames.add(materialName);
+    // Материалы каждого объекта сцены по связям Material -> Model: у объекта без материала - ошибка.
+    // Материал, не назначенный ни одному объекту, выводится для сведения
+    public static void validateObjectMaterials(FbxScene scene, ValidationResult result) {
+        FbxConnectionIndex connections = scene.getConnections();
+        for (Map.Entry<Long, String> model : scene.getRelevantModelIdNameMap().entrySet()) {
+            String objectName = model.getValue();
+            List<String> materialNames = new ArrayList<>();
+            for (long materialId : connections.getChildren(model.getKey(), "Material")) {
+                materialNames.add(connections.getName(materialId));
+            }
+            Map<String, Number> metrics = Map.of("materials", materialNames.size());
+            if (materialNames.isEmpty()) {
+                result.addFinding("object-materials", Finding.Severity.ERROR, objectName,
+                        "Материалы объекта " + objectName + ": Ошибка: материал не назначен", metrics);
+            } else {
+                result.addFinding("object-materials", Finding.Severity.INFO, objectName,
+                        "Материалы объекта " + objectName + ": " + String.join(", ", materialNames) + " ОК", metrics);
             }
         }
 
-        if (rootNode.has("children")) {
-            for (JsonNode childNode : rootNode.get("children")) {
-                materialNames.addAll(findMaterials(childNode));
+        for (long materialId : connections.getObjectIds("Material")) {
+            if (connections.getParents(materialId, "Model").length == 0) {
+                String materialName = connections.getName(materialId);
+                result.addFinding("material-usage", Finding.Severity.INFO, materialName,
+                        "Материал " + materialName + " не назначен ни одному объекту", null);
             }
         }
+    }
 
-        return materialNames;
+    // Текстуры, подключенные к материалам: файл из RelativeFilename/FileName (текстуры или ее Video)
+    // должен быть в архиве
+    public static void validateTextureReferences(FbxScene scene, List<String> archiveFileNames, ValidationResult result) {
+        FbxConnectionIndex connections = scene.getConnections();
+        Set<String> archiveBaseNames = new HashSet<>();
+        for (String fileName : archiveFileNames) {
+            archiveBaseNames.add(baseFileName(fileName));
+        }
+
+        for (long materialId : connections.getObjectIds("Material")) {
+            String materialName = connections.getName(materialId);
+            for (long textureId : connections.getChildren(materialId, "Texture")) {
+                String fileName = getTextureFileName(connections, textureId);
+                if (fileName == null) {
+                    result.addFinding("texture-reference", Finding.Severity.ERROR, materialName,
+                            "Текстура " + connections.getName(textureId) + " материала " + materialName +
+                            ": Ошибка: не указан файл", null);
+                } else if (archiveBaseNames.contains(fileName)) {
+                    result.addFinding("texture-reference", Finding.Severity.INFO, materialName,
+                            "Текстура материала " + materialName + ": " + fileName + " ОК", null);
+                } else {
+                    result.addFinding("texture-reference", Finding.Severity.ERROR, materialName,
+                            "Текстура материала " + materialName + ": " + fileName + " Ошибка: файл отсутствует в архиве", null);
+                }
+            }
+        }
     }
 
-    // Извлекаем имя материала (без изменений)
-    private static String getMaterialName(JsonNode materialNode) {
-        if (materialNode.has("properties")) {
-            for (JsonNode property : materialNode.get("properties")) {
-                if (property.has("value") && property.get("type").asText().equals("S")) {
-                    String materialName = property.get("value").asText().split("\u0000")[0];
-                    return materialName.isEmpty() ? null : materialName;
+    // Имя файла текстуры без пути; если у текстуры его нет - из подключенного к ней Video
+    private static String getTextureFileName(FbxConnectionIndex connections, long textureId) {
+        String fileName = getFileNameChild(connections.getNode(textureId));
+        if (fileName == null) {
+            for (long videoId : connections.getChildren(textureId, "Video")) {
+                fileName = getFileNameChild(connections.getNode(videoId));
+                if (fileName != null) {
+                    break;
                 }
             }
         }
+        return fileName;
+    }
+
+    private static String getFileNameChild(FbxNode node) {
+        for (String childName : new String[]{"RelativeFilename", "FileName"}) {
+            String path = getStringChild(node, childName);
+            if (path != null && !path.isEmpty()) {
+                return baseFileName(path);
+            }
+        }
+        return null;
+    }
+
+    private static String baseFileName(String path) {
+        return path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+    }
+
+    // Имена материалов в порядке Objects (по индексу объектов сцены, без обхода дерева)
+    static List<String> findMaterials(FbxConnectionIndex connections) {
+        List<String> materialNames = new ArrayList<>();
+        for (long materialId : connections.getObjectIds("Material")) {
+            String materialName = getMaterialName(connections.getNode(materialId));
+            if (materialName != null) {
+                materialNames.add(materialName);
+            }
+        }
+        return materialNames;
+    }
+
+    // Извлекаем имя материала
+    private static String getMaterialName(FbxNode materialNode) {
+        FbxProperty property = materialNode.findProperty('S');
+        if (property != null && property.getValue() != null) {
+            String materialName = property.asString().split("\u0000")[0];
+            return materialName.isEmpty() ? null : materialName;
+        }
         return null;
     }
 
-    // Метод для проверки последовательных материалов с записью индекса в файл (без изменений)
+    // Метод для проверки последовательных материалов с записью индекса в файл
     private static void checkSequentialMaterials(String materialBaseName, List<String> foundMaterialNames, ValidationResult result) {
         int index = 1;  // Начинаем с _1
 
@@ -386,12 +263,9 @@ public class JsonFbxValidator {
         }
     }
 
-    // Метод для проверки количества слоев (без изменений)
-    public static void checkLayers(String jsonFilePath, ValidationResult result) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode rootNode = objectMapper.readTree(new File(jsonFilePath));
-
-        int layerCount = countLayers(rootNode);
+    // Метод для проверки количества слоев
+    public static void checkLayers(FbxScene scene, ValidationResult result) {
+        int layerCount = scene.getLayerCount();
 
         // Запись результата
         if (layerCount == 1) {
@@ -401,123 +275,27 @@ public class JsonFbxValidator {
         }
     }
 
-    // Вспомогательный метод для рекурсивного подсчета слоев (без изменений)
-    private static int countLayers(JsonNode node) {
-        int count = 0;
-
-        if (node.isObject() && node.has("name") && node.get("name").asText().equals("Layer")) {
-            count++;
-        }
-
-        if (node.has("children")) {
-            for (JsonNode childNode : node.get("children")) {
-                count += countLayers(childNode);
-            }
-        }
-
-        return count;
-    }
-
-    // Метод для вычисления количества полигонов с проверкой индексов и дубликатов (без изменений)
-    public static int calculatePolygonCountWithValidation(String jsonFilePath) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode rootNode = objectMapper.readTree(new File(jsonFilePath));
-
-        int polygonCount = 0;
-        Set<Integer> usedVertices = new HashSet<>();   // Для проверки индексов
-
-        // Поиск узлов Geometry
-        JsonNode objectsNode = findNodeByName(rootNode, "Objects");
-        if (objectsNode != null && objectsNode.has("children")) {
-            for (JsonNode geometryNode : objectsNode.get("children")) {
-                if (geometryNode.get("name").asText().equals("Geometry")) {
-                    // Извлекаем индексы полигонов
-                    JsonNode polygonVertexIndexNode = findNodeByName(geometryNode, "PolygonVertexIndex");
-                    if (polygonVertexIndexNode != null && polygonVertexIndexNode.has("properties")) {
-                        for (JsonNode property : polygonVertexIndexNode.get("properties")) {
-                            if (property.get("type").asText().equals("i")) {
-                                JsonNode indicesArray = property.get("value");
-
-                                List<Integer> indices = new ArrayList<>();
-                                for (JsonNode indexNode : indicesArray) {
-                                    indices.add(indexNode.asInt());
-                                }
-
-                                int vertexCounter = 0; // Счетчик вершин между отрицательными значениями
-
-                                for (int indexValue : indices) {
-                                    int correctedIndex = (indexValue < 0) ? -indexValue - 1 : indexValue;
-                                    vertexCounter++;
-
-                                    // Добавляем индекс в набор использованных вершин
-                                    usedVertices.add(correctedIndex);
-
-                                    if (indexValue < 0) {
-                                        if (vertexCounter > 3) {
-                                            // Если это многоугольник (больше 3 вершин), разбиваем его на треугольники
-                                            polygonCount += (vertexCounter - 2); // (n-2) треугольника для многоугольника с n вершинами
-                                        } else {
-                                            // Если это треугольник
-                                            polygonCount++;
-                                        }
-                                        vertexCounter = 0; // Сбрасываем счетчик вершин для следующего полигона
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+    // Вспомогательный метод для получения массива из дочернего узла (Vertices, UV, UVIndex ...)
+    static FbxProperty getArray(FbxNode parentNode, String childName, char type) {
+        FbxNode arrayNode = parentNode.getChild(childName);
+        if (arrayNode != null) {
+            FbxProperty property = arrayNode.findProperty(type);
+            if (property != null) {
+                return property;
             }
         }
-
-        System.out.println("Использовано вершин: " + usedVertices.size());
-        return polygonCount;  // Возвращаем количество треугольников
+        return new FbxProperty(type, null);
     }
 
-    // Вспомогательный метод для поиска узла по имени
-    private static JsonNode findNodeByName(JsonNode rootNode, String name) {
-        if (rootNode.isObject() && rootNode.has("name") && rootNode.get("name").asText().equals(name)) {
-            return rootNode;
-        }
-
-        if (rootNode.has("children")) {
-            for (JsonNode childNode : rootNode.get("children")) {
-                JsonNode foundNode = findNodeByName(childNode, name);
-                if (foundNode != null) {
-                    return foundNode;
-                }
-            }
-        }
-        return null;
-    }
-
-    // Вспомогательный метод для поиска всех узлов по имени
-    private static List<JsonNode> findNodesByName(JsonNode rootNode, String name) {
-        List<JsonNode> nodes = new ArrayList<>();
-        if (rootNode.isObject() && rootNode.has("name") && rootNode.get("name").asText().equals(name)) {
-            nodes.add(rootNode);
-        }
-
-        if (rootNode.has("children")) {
-            for (JsonNode childNode : rootNode.get("children")) {
-                nodes.addAll(findNodesByName(childNode, name));
-            }
-        }
-        return nodes;
-    }
-
-    // Вспомогательный метод для получения имени модели
-    private static String getModelName(JsonNode modelNode) {
-        if (modelNode.has("properties") && modelNode.get("properties").isArray()) {
-            JsonNode properties = modelNode.get("properties");
-            for (JsonNode property : properties) {
-                if (property.has("type") && property.get("type").asText().equals("S")) {
-                    String value = property.get("value").asText();
-                    String modelName = value.split("\u0000")[0];
-                    return modelName;
-                }
+    // Вспомогательный метод для получения строкового значения дочернего узла (MappingInformationType ...)
+    private static String getStringChild(FbxNode parentNode, String childName) {
+        FbxNode childNode = parentNode.getChild(childName);
+        if (childNode != null) {
+            FbxProperty property = childNode.findProperty('S');
+            if (property != null) {
+                return property.asString();
             }
         }
         return null;
     }
-}
\ No newline at end of file
+}
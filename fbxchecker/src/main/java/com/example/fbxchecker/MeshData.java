@@ -0,0 +1,266 @@
+package com.example.fbxchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class MeshData {
+    // Геометрия всей сцены в плоских примитивных массивах:
+    // positions - x,y,z подряд, triangles - по 3 индекса вершин на треугольник,
+    // uvs - u,v подряд, uvTriangles - по 3 UV индекса на треугольник (-1, если UV-канала нет).
+    // Смещения каждой геометрии хранятся в массивах *Offsets (длина = число геометрий + 1).
+    // Объекты (модели без UCX) ссылаются на свои геометрии по индексам; геометрии без модели входят только в итоги сцены
+
+    private final double[] positions;
+    private final int[] triangles;
+    private final double[] uvs;
+    private final int[] uvTriangles;
+    private final long[] geometryIds;
+    private final int[] vertexOffsets;
+    private final int[] triangleOffsets;
+    private final int[] uvOffsets;
+    private final String[] objectNames;
+    private final int[][] objectGeometries;
+
+    private MeshData(double[] positions, int[] triangles, double[] uvs, int[] uvTriangles,
+                     long[] geometryIds, int[] vertexOffsets, int[] triangleOffsets, int[] uvOffsets,
+                     String[] objectNames, int[][] objectGeometries) {
+        this.positions = positions;
+        this.triangles = triangles;
+        this.uvs = uvs;
+        this.uvTriangles = uvTriangles;
+        this.geometryIds = geometryIds;
+        this.vertexOffsets = vertexOffsets;
+        this.triangleOffsets = triangleOffsets;
+        this.uvOffsets = uvOffsets;
+        this.objectNames = objectNames;
+        this.objectGeometries = objectGeometries;
+    }
+
+    // Сборка меша из сцены. Сначала считаются размеры, затем массивы заполняются без перевыделений
+    public static MeshData build(FbxScene scene, String uvChannelName) {
+        return build(scene, uvChannelName, null);
+    }
+
+    // polycount - полный подсчет полигонов той же сцены (раздел 7): треугольники геометрий берутся из него,
+    // и на первом проходе ни один массив не распаковывается - размеры известны по длинам массивов.
+    // null - треугольники считаются по индексам полигонов
+    public static MeshData build(FbxScene scene, String uvChannelName, PolycountCalculator.PolycountResult polycount) {
+        Map<Long, FbxNode> geometryIdNodeMap = scene.getGeometryIdNodeMap();
+        int geometryCount = geometryIdNodeMap.size();
+
+        long[] geometryIds = new long[geometryCount];
+        int[] vertexOffsets = new int[geometryCount + 1];
+        int[] triangleOffsets = new int[geometryCount + 1];
+        int[] uvOffsets = new int[geometryCount + 1];
+        LongIntHashMap geometryIndexes = new LongIntHashMap(geometryCount);
+
+        // Первый проход: размеры
+        int g = 0;
+        for (Map.Entry<Long, FbxNode> entry : geometryIdNodeMap.entrySet()) {
+            FbxNode geometryNode = entry.getValue();
+            geometryIds[g] = entry.getKey();
+            geometryIndexes.put(entry.getKey(), g);
+            vertexOffsets[g + 1] = vertexOffsets[g] + JsonFbxValidator.countVerticesInGeometry(geometryNode);
+            int triangleCount = polycount != null
+                    ? polycount.getTriangleCount(polycount.indexOf(entry.getKey()))
+                    : countTriangles(JsonFbxValidator.extractPolygonVertexIndicesFromGeometry(geometryNode));
+            triangleOffsets[g + 1] = triangleOffsets[g] + triangleCount;
+            uvOffsets[g + 1] = uvOffsets[g] + JsonFbxValidator.countUVCoordsInGeometry(geometryNode, uvChannelName);
+            g++;
+        }
+
+        double[] positions = new double[vertexOffsets[geometryCount] * 3];
+        int[] triangles = new int[triangleOffsets[geometryCount] * 3];
+        double[] uvs = new double[uvOffsets[geometryCount] * 2];
+        int[] uvTriangles = new int[triangleOffsets[geometryCount] * 3];
+
+        // Второй проход: копирование и триангуляция
+        g = 0;
+        for (FbxNode geometryNode : geometryIdNodeMap.values()) {
+            double[] vertices = JsonFbxValidator.extractVerticesFromGeometry(geometryNode);
+            System.arraycopy(vertices, 0, positions, vertexOffsets[g] * 3, (vertexOffsets[g + 1] - vertexOffsets[g]) * 3);
+
+            double[] uvCoords = JsonFbxValidator.extractUVCoordsFromGeometry(geometryNode, uvChannelName);
+            System.arraycopy(uvCoords, 0, uvs, uvOffsets[g] * 2, (uvOffsets[g + 1] - uvOffsets[g]) * 2);
+
+            triangulate(geometryNode, uvChannelName, triangles, uvTriangles,
+                    triangleOffsets[g] * 3, vertexOffsets[g], uvOffsets[g], uvOffsets[g + 1] - uvOffsets[g]);
+            g++;
+        }
+
+        // Объекты сцены (модели без UCX, у которых есть геометрия) и индексы их геометрий по связям Connections.
+        // Геометрия, связанная с несколькими моделями, входит в каждую из них
+        FbxConnectionIndex connections = scene.getConnections();
+        List<String> objectNames = new ArrayList<>();
+        List<int[]> objectGeometries = new ArrayList<>();
+        for (Map.Entry<Long, String> model : scene.getRelevantModelIdNameMap().entrySet()) {
+            long[] linkedGeometryIds = connections.getChildren(model.getKey(), "Geometry");
+            if (linkedGeometryIds.length > 0) {
+                objectNames.add(model.getValue());
+                objectGeometries.add(Arrays.stream(linkedGeometryIds).mapToInt(geometryIndexes::get).toArray());
+            }
+        }
+
+        return new MeshData(positions, triangles, uvs, uvTriangles, geometryIds, vertexOffsets, triangleOffsets, uvOffsets,
+                objectNames.toArray(new String[0]), objectGeometries.toArray(new int[0][]));
+    }
+
+    // Память под меш (байт) по длинам массивов сцены, без распаковки: распакованные Vertices, UV и UVIndex
+    // и плоские массивы меша (треугольников не больше, чем индексов полигонов). Индексы полигонов учитывает PolycountCalculator
+    public static long estimateBytes(FbxScene scene, String uvChannelName) {
+        long bytes = 0;
+        for (FbxNode geometryNode : scene.getGeometryIdNodeMap().values()) {
+            long vertexValues = JsonFbxValidator.getArray(geometryNode, "Vertices", 'd').getArrayLength();
+            long polygonIndexes = JsonFbxValidator.getArray(geometryNode, "PolygonVertexIndex", 'i').getArrayLength();
+            long uvValues = 0;
+            long uvIndexes = 0;
+            FbxNode layerElementUVNode = JsonFbxValidator.findLayerElementUVByName(geometryNode, uvChannelName);
+            if (layerElementUVNode != null) {
+                uvValues = JsonFbxValidator.getArray(layerElementUVNode, "UV", 'd').getArrayLength();
+                uvIndexes = JsonFbxValidator.getArray(layerElementUVNode, "UVIndex", 'i').getArrayLength();
+            }
+            bytes += 2 * 8 * (vertexValues + uvValues) + 4 * uvIndexes + 2 * 3 * 4 * polygonIndexes;
+        }
+        return bytes;
+    }
+
+    // Треугольники полигона из vertexCount вершин - общее правило подсчета полигонов (раздел 7) и меша:
+    // многоугольник - n-2 треугольника веерной триангуляции; треугольник и вырожденный полигон (1-2 вершины) - один
+    static int polygonTriangles(int vertexCount) {
+        return vertexCount > 3 ? vertexCount - 2 : 1;
+    }
+
+    // Количество треугольников геометрии по индексам полигонов (конец полигона - отрицательный индекс)
+    static int countTriangles(int[] polygonVertexIndex) {
+        int count = 0;
+        int vertexCounter = 0;
+        for (int indexValue : polygonVertexIndex) {
+            vertexCounter++;
+            if (indexValue < 0) {
+                count += polygonTriangles(vertexCounter);
+                vertexCounter = 0;
+            }
+        }
+        return count;
+    }
+
+    // Веерная триангуляция полигонов геометрии. UV индексы берутся с учетом
+    // MappingInformationType/ReferenceInformationType, а не группировкой UVIndex по три.
+    // Вырожденный полигон (1-2 вершины) занимает один треугольник из своих вершин без UV,
+    // чтобы смещения совпадали с подсчетом полигонов; texel density такие треугольники пропускает
+    private static void triangulate(FbxNode geometryNode, String uvChannelName, int[] triangles, int[] uvTriangles,
+                                    int writePosition, int vertexOffset, int uvOffset, int uvCount) {
+        int[] polygonVertexIndex = JsonFbxValidator.extractPolygonVertexIndicesFromGeometry(geometryNode);
+        int[] uvIndex = JsonFbxValidator.extractUVIndicesFromGeometry(geometryNode, uvChannelName);
+        boolean hasUv = uvCount > 0;
+        boolean byControlPoint = JsonFbxValidator.isUVMappedByControlPoint(geometryNode, uvChannelName);
+        boolean indexed = uvIndex.length > 0;
+
+        int polygonStart = 0;
+        for (int i = 0; i < polygonVertexIndex.length; i++) {
+            if (polygonVertexIndex[i] >= 0) {
+                continue;
+            }
+            // Полигон занимает позиции polygonStart..i
+            if (i - polygonStart < 2) {
+                triangles[writePosition] = vertexIndex(polygonVertexIndex[polygonStart]) + vertexOffset;
+                triangles[writePosition + 1] = vertexIndex(polygonVertexIndex[i]) + vertexOffset;
+                triangles[writePosition + 2] = vertexIndex(polygonVertexIndex[i]) + vertexOffset;
+                Arrays.fill(uvTriangles, writePosition, writePosition + 3, -1);
+                writePosition += 3;
+                polygonStart = i + 1;
+                continue;
+            }
+            for (int j = polygonStart + 1; j < i; j++) {
+                for (int k = 0; k < 3; k++) {
+                    int corner = (k == 0) ? polygonStart : j + k - 1;
+                    int vertexIndex = vertexIndex(polygonVertexIndex[corner]);
+                    triangles[writePosition] = vertexIndex + vertexOffset;
+
+                    int uv = -1;
+                    if (hasUv) {
+                        int uvSource = byControlPoint ? vertexIndex : corner;
+                        uv = indexed ? (uvSource < uvIndex.length ? uvIndex[uvSource] : -1) : uvSource;
+                        uv = (uv >= 0 && uv < uvCount) ? uv + uvOffset : -1;
+                    }
+                    uvTriangles[writePosition] = uv;
+                    writePosition++;
+                }
+            }
+            polygonStart = i + 1;
+        }
+    }
+
+    // Индекс вершины без отметки конца полигона
+    private static int vertexIndex(int rawIndex) {
+        return rawIndex < 0 ? -rawIndex - 1 : rawIndex;
+    }
+
+    public double[] getPositions() {
+        return positions;
+    }
+
+    public int[] getTriangles() {
+        return triangles;
+    }
+
+    public double[] getUvs() {
+        return uvs;
+    }
+
+    public int[] getUvTriangles() {
+        return uvTriangles;
+    }
+
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    public int getTriangleCount() {
+        return triangles.length / 3;
+    }
+
+    public int getUvCount() {
+        return uvs.length / 2;
+    }
+
+    public int getGeometryCount() {
+        return geometryIds.length;
+    }
+
+    public long getGeometryId(int geometry) {
+        return geometryIds[geometry];
+    }
+
+    public int getVertexOffset(int geometry) {
+        return vertexOffsets[geometry];
+    }
+
+    public int getTriangleOffset(int geometry) {
+        return triangleOffsets[geometry];
+    }
+
+    public int getUvOffset(int geometry) {
+        return uvOffsets[geometry];
+    }
+
+    // Количество треугольников геометрии
+    public int getGeometryTriangleCount(int geometry) {
+        return triangleOffsets[geometry + 1] - triangleOffsets[geometry];
+    }
+
+    public int getObjectCount() {
+        return objectNames.length;
+    }
+
+    public String getObjectName(int object) {
+        return objectNames[object];
+    }
+
+    // Индексы геометрий объекта
+    public int[] getObjectGeometries(int object) {
+        return objectGeometries[object];
+    }
+}
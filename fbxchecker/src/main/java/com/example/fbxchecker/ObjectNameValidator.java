@@ -12,7 +12,8 @@ public class ObjectNameValidator {
     }
 
     // Проверка имени объекта SM_ + baseName + _Main
-    public void checkMainObject(List<String> modelNames, ValidationResult result) {
+    public void checkMainObject(FbxScene scene, ValidationResult result) {
+        List<String> modelNames = scene.getModelNames();
         if (!baseName.contains("_Ground")) {
             String expectedName = "SM_" + baseName + "_Main";
             if (modelNames.contains(expectedName)) {
@@ -40,7 +41,8 @@ public class ObjectNameValidator {
     }
 
     // Проверка наличия объектов UCX_SM_ + baseName + _Main + номер (или _Ground + номер, если это Ground)
-    public void checkUcObjects(List<String> modelNames, ValidationResult result) {
+    public void checkUcObjects(FbxScene scene, ValidationResult result) {
+        List<String> modelNames = scene.getModelNames();
         int index = 1;
         boolean isGround = baseName.contains("_Ground");
 
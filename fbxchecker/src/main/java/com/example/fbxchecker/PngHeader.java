@@ -0,0 +1,174 @@
+package com.example.fbxchecker;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class PngHeader {
+    // Метаданные PNG из заголовка: IHDR (размер, битность, тип цвета) и наличие tRNS.
+    // Чтение останавливается на первом IDAT, пиксели не декодируются
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    public static final int COLOR_GRAYSCALE = 0;
+    public static final int COLOR_RGB = 2;
+    public static final int COLOR_PALETTE = 3;
+    public static final int COLOR_GRAYSCALE_ALPHA = 4;
+    public static final int COLOR_RGBA = 6;
+
+    private int width;
+    private int height;
+    private int bitDepth;
+    private int colorType;
+    private int interlaceMethod;
+    private boolean hasTransparencyChunk;
+    private byte[] palette = new byte[0];
+    private byte[] transparency = new byte[0];
+    private int firstDataChunkLength = -1;  // длина первого IDAT, поток остановлен на его данных
+
+    private PngHeader() {
+    }
+
+    // Проверка сигнатуры PNG по первым байтам файла
+    public static boolean isPng(byte[] firstBytes) {
+        return firstBytes.length >= SIGNATURE.length
+                && Arrays.equals(Arrays.copyOf(firstBytes, SIGNATURE.length), SIGNATURE);
+    }
+
+    public static PngHeader read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        byte[] signature = new byte[SIGNATURE.length];
+        in.readFully(signature);
+        if (!isPng(signature)) {
+            throw new IOException("Файл не является PNG");
+        }
+
+        PngHeader header = new PngHeader();
+        boolean ihdrFound = false;
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                break;
+            }
+            int type = in.readInt();
+            if (length < 0) {
+                throw new IOException("Некорректная длина блока PNG");
+            }
+
+            if (type == chunkType("IHDR")) {
+                header.width = in.readInt();
+                header.height = in.readInt();
+                header.bitDepth = in.readUnsignedByte();
+                header.colorType = in.readUnsignedByte();
+                in.readUnsignedByte();  // метод сжатия
+                in.readUnsignedByte();  // метод фильтрации
+                header.interlaceMethod = in.readUnsignedByte();
+                in.skipNBytes(length - 13L);
+                ihdrFound = true;
+            } else if (type == chunkType("tRNS")) {
+                header.hasTransparencyChunk = true;
+                header.transparency = in.readNBytes(Math.min(length, 256 * 2));
+                in.skipNBytes(length - header.transparency.length);
+            } else if (type == chunkType("PLTE")) {
+                header.palette = in.readNBytes(Math.min(length, 256 * 3));
+                in.skipNBytes(length - header.palette.length);
+            } else if (type == chunkType("IDAT")) {
+                // Дальше идут пиксельные данные: для метаданных они не нужны
+                header.firstDataChunkLength = length;
+                break;
+            } else if (type == chunkType("IEND")) {
+                break;
+            } else {
+                in.skipNBytes(length);
+            }
+            in.skipNBytes(4);  // CRC
+        }
+
+        if (!ihdrFound) {
+            throw new IOException("В PNG отсутствует блок IHDR");
+        }
+        return header;
+    }
+
+    static int chunkType(String name) {
+        return name.charAt(0) << 24 | name.charAt(1) << 16 | name.charAt(2) << 8 | name.charAt(3);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getBitDepth() {
+        return bitDepth;
+    }
+
+    public int getColorType() {
+        return colorType;
+    }
+
+    public boolean isInterlaced() {
+        return interlaceMethod != 0;
+    }
+
+    public boolean hasTransparencyChunk() {
+        return hasTransparencyChunk;
+    }
+
+    // Палитра (PLTE) и прозрачность (tRNS) нужны построчному анализу пикселей
+    byte[] getPalette() {
+        return palette;
+    }
+
+    byte[] getTransparency() {
+        return transparency;
+    }
+
+    int getFirstDataChunkLength() {
+        return firstDataChunkLength;
+    }
+
+    // Альфа есть при типах цвета с альфой или при наличии блока tRNS
+    public boolean hasAlpha() {
+        return colorType == COLOR_GRAYSCALE_ALPHA || colorType == COLOR_RGBA || hasTransparencyChunk;
+    }
+
+    // Количество каналов в пикселе файла
+    public int getChannelCount() {
+        switch (colorType) {
+            case COLOR_RGB:
+                return 3;
+            case COLOR_GRAYSCALE_ALPHA:
+                return 2;
+            case COLOR_RGBA:
+                return 4;
+            default:
+                return 1;
+        }
+    }
+
+    // Размер пикселя в битах так же, как его считает ColorModel.getPixelSize() после ImageIO.read:
+    // палитра остается индексной, а серый/RGB с tRNS получают дополнительный альфа-канал
+    public int getPixelSize() {
+        if (colorType == COLOR_PALETTE) {
+            return bitDepth;
+        }
+        int channels = getChannelCount();
+        if (hasTransparencyChunk && (colorType == COLOR_GRAYSCALE || colorType == COLOR_RGB)) {
+            channels++;
+        }
+        return channels * bitDepth;
+    }
+
+    // Объем памяти под декодированное изображение в формате ARGB
+    public long getDecodedSize() {
+        return (long) width * height * 4;
+    }
+}
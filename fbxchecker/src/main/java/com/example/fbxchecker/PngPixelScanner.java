@@ -0,0 +1,293 @@
+package com.example.fbxchecker;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+
+public class PngPixelScanner {
+    // Построчный анализ пикселей PNG без декодирования всего растра:
+    // IDAT распаковывается потоком, строки восстанавливаются по фильтрам по одной,
+    // в памяти держатся только текущая и предыдущая строки.
+    // Отвечает на два вопроса: вся ли текстура одного цвета и используется ли альфа-канал
+
+    // Проходы Adam7: начальная строка/столбец и шаг
+    private static final int[] ADAM7_ROW_START = {0, 0, 4, 0, 2, 0, 1};
+    private static final int[] ADAM7_COL_START = {0, 4, 0, 2, 0, 1, 0};
+    private static final int[] ADAM7_ROW_STEP = {8, 8, 8, 4, 4, 2, 2};
+    private static final int[] ADAM7_COL_STEP = {8, 8, 4, 4, 2, 2, 1};
+
+    private final PngHeader header;
+    private final boolean checkSingleColor;
+    private final boolean checkAlphaUsage;
+
+    private boolean singleColor = true;
+    private boolean alphaUsed;
+    private boolean firstPixelSeen;
+    private int firstPixel;
+
+    private PngPixelScanner(PngHeader header, boolean checkSingleColor, boolean checkAlphaUsage) {
+        this.header = header;
+        this.checkSingleColor = checkSingleColor;
+        this.checkAlphaUsage = checkAlphaUsage && header.hasAlpha();
+    }
+
+    // Сканирование PNG из потока с начала файла
+    public static PngPixelScanner scan(InputStream inputStream, boolean checkSingleColor, boolean checkAlphaUsage) throws IOException {
+        return scan(PngHeader.read(inputStream), inputStream, checkSingleColor, checkAlphaUsage);
+    }
+
+    // Сканирование пикселей после уже прочитанного заголовка: поток должен стоять там, где остановился PngHeader.read.
+    // Чтение прекращается, как только ответы на запрошенные вопросы известны
+    public static PngPixelScanner scan(PngHeader header, InputStream inputStream, boolean checkSingleColor, boolean checkAlphaUsage) throws IOException {
+        PngPixelScanner scanner = new PngPixelScanner(header, checkSingleColor, checkAlphaUsage);
+        if (header.getFirstDataChunkLength() < 0) {
+            throw new IOException("В PNG отсутствуют данные изображения (IDAT)");
+        }
+        InputStream pixelData = new InflaterInputStream(new DataChunkInputStream(inputStream, header.getFirstDataChunkLength()));
+        scanner.scanPixels(new DataInputStream(pixelData));
+        return scanner;
+    }
+
+    // Все пиксели одного цвета (сравнение в ARGB, как у BufferedImage.getRGB)
+    public boolean isSingleColor() {
+        return singleColor;
+    }
+
+    // Хотя бы один пиксель не полностью непрозрачен
+    public boolean isAlphaUsed() {
+        return alphaUsed;
+    }
+
+    private boolean isDone() {
+        return (!checkSingleColor || !singleColor) && (!checkAlphaUsage || alphaUsed);
+    }
+
+    private void scanPixels(DataInputStream in) throws IOException {
+        int width = header.getWidth();
+        int height = header.getHeight();
+        if (!header.isInterlaced()) {
+            scanPass(in, width, height);
+            return;
+        }
+
+        // Порядок пикселей для обеих проверок не важен, поэтому проходы Adam7 сканируются как отдельные изображения
+        for (int pass = 0; pass < 7 && !isDone(); pass++) {
+            int passWidth = (width - ADAM7_COL_START[pass] + ADAM7_COL_STEP[pass] - 1) / ADAM7_COL_STEP[pass];
+            int passHeight = (height - ADAM7_ROW_START[pass] + ADAM7_ROW_STEP[pass] - 1) / ADAM7_ROW_STEP[pass];
+            if (passWidth > 0 && passHeight > 0) {
+                scanPass(in, passWidth, passHeight);
+            }
+        }
+    }
+
+    private void scanPass(DataInputStream in, int width, int height) throws IOException {
+        int bitsPerPixel = header.getChannelCount() * header.getBitDepth();
+        int bytesPerPixel = Math.max(1, bitsPerPixel / 8);
+        long rowLength = ((long) width * bitsPerPixel + 7) / 8;
+        if (rowLength > Integer.MAX_VALUE - 8) {
+            throw new IOException("Слишком длинная строка PNG: " + rowLength + " байт");
+        }
+
+        byte[] previousRow = new byte[(int) rowLength];
+        byte[] currentRow = new byte[(int) rowLength];
+        for (int y = 0; y < height; y++) {
+            int filterType;
+            try {
+                filterType = in.readUnsignedByte();
+                in.readFully(currentRow);
+            } catch (EOFException e) {
+                throw new IOException("Данные PNG обрываются на строке " + y);
+            }
+            unfilter(filterType, currentRow, previousRow, bytesPerPixel);
+            scanRow(currentRow, width);
+            if (isDone()) {
+                return;
+            }
+
+            byte[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+    }
+
+    // Восстановление строки по типу фильтра (None, Sub, Up, Average, Paeth)
+    private static void unfilter(int filterType, byte[] row, byte[] previousRow, int bytesPerPixel) throws IOException {
+        switch (filterType) {
+            case 0:
+                break;
+            case 1:
+                for (int i = bytesPerPixel; i < row.length; i++) {
+                    row[i] += row[i - bytesPerPixel];
+                }
+                break;
+            case 2:
+                for (int i = 0; i < row.length; i++) {
+                    row[i] += previousRow[i];
+                }
+                break;
+            case 3:
+                for (int i = 0; i < row.length; i++) {
+                    int left = i >= bytesPerPixel ? row[i - bytesPerPixel] & 0xFF : 0;
+                    row[i] += (byte) ((left + (previousRow[i] & 0xFF)) >>> 1);
+                }
+                break;
+            case 4:
+                for (int i = 0; i < row.length; i++) {
+                    int left = i >= bytesPerPixel ? row[i - bytesPerPixel] & 0xFF : 0;
+                    int up = previousRow[i] & 0xFF;
+                    int upLeft = i >= bytesPerPixel ? previousRow[i - bytesPerPixel] & 0xFF : 0;
+                    row[i] += (byte) paeth(left, up, upLeft);
+                }
+                break;
+            default:
+                throw new IOException("Неизвестный тип фильтра строки PNG: " + filterType);
+        }
+    }
+
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int distanceLeft = Math.abs(estimate - left);
+        int distanceUp = Math.abs(estimate - up);
+        int distanceUpLeft = Math.abs(estimate - upLeft);
+        if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft) {
+            return left;
+        }
+        return distanceUp <= distanceUpLeft ? up : upLeft;
+    }
+
+    // Проверка пикселей одной восстановленной строки
+    private void scanRow(byte[] row, int width) {
+        for (int x = 0; x < width; x++) {
+            int pixel = toArgb(row, x);
+            if (!firstPixelSeen) {
+                firstPixel = pixel;
+                firstPixelSeen = true;
+            } else if (pixel != firstPixel) {
+                singleColor = false;
+            }
+            if ((pixel >>> 24) != 0xFF) {
+                alphaUsed = true;
+            }
+            if (isDone()) {
+                return;
+            }
+        }
+    }
+
+    // Пиксель строки в ARGB (8 бит на канал) с учетом палитры и tRNS
+    private int toArgb(byte[] row, int x) {
+        int bitDepth = header.getBitDepth();
+        byte[] transparency = header.getTransparency();
+        boolean hasTransparencyChunk = header.hasTransparencyChunk();
+
+        switch (header.getColorType()) {
+            case PngHeader.COLOR_GRAYSCALE: {
+                int sample = sample(row, x, bitDepth);
+                int gray = bitDepth == 16 ? sample >> 8 : sample * 255 / ((1 << bitDepth) - 1);
+                int alpha = hasTransparencyChunk && transparency.length >= 2 && sample == readUnsignedShort(transparency, 0) ? 0 : 0xFF;
+                return alpha << 24 | gray << 16 | gray << 8 | gray;
+            }
+            case PngHeader.COLOR_RGB: {
+                int red = sample(row, x * 3, bitDepth);
+                int green = sample(row, x * 3 + 1, bitDepth);
+                int blue = sample(row, x * 3 + 2, bitDepth);
+                int alpha = hasTransparencyChunk && transparency.length >= 6
+                        && red == readUnsignedShort(transparency, 0)
+                        && green == readUnsignedShort(transparency, 2)
+                        && blue == readUnsignedShort(transparency, 4) ? 0 : 0xFF;
+                int shift = bitDepth == 16 ? 8 : 0;
+                return alpha << 24 | (red >> shift) << 16 | (green >> shift) << 8 | (blue >> shift);
+            }
+            case PngHeader.COLOR_PALETTE: {
+                int index = sample(row, x, bitDepth);
+                byte[] palette = header.getPalette();
+                int rgb = index * 3 + 2 < palette.length
+                        ? (palette[index * 3] & 0xFF) << 16 | (palette[index * 3 + 1] & 0xFF) << 8 | (palette[index * 3 + 2] & 0xFF)
+                        : 0;
+                int alpha = index < transparency.length ? transparency[index] & 0xFF : 0xFF;
+                return alpha << 24 | rgb;
+            }
+            case PngHeader.COLOR_GRAYSCALE_ALPHA: {
+                int shift = bitDepth == 16 ? 8 : 0;
+                int gray = sample(row, x * 2, bitDepth) >> shift;
+                int alpha = sample(row, x * 2 + 1, bitDepth) >> shift;
+                return alpha << 24 | gray << 16 | gray << 8 | gray;
+            }
+            default: {
+                int shift = bitDepth == 16 ? 8 : 0;
+                int red = sample(row, x * 4, bitDepth) >> shift;
+                int green = sample(row, x * 4 + 1, bitDepth) >> shift;
+                int blue = sample(row, x * 4 + 2, bitDepth) >> shift;
+                int alpha = sample(row, x * 4 + 3, bitDepth) >> shift;
+                return alpha << 24 | red << 16 | green << 8 | blue;
+            }
+        }
+    }
+
+    // Значение отсчета с номером index в строке при битности 1, 2, 4, 8 или 16
+    private static int sample(byte[] row, int index, int bitDepth) {
+        switch (bitDepth) {
+            case 8:
+                return row[index] & 0xFF;
+            case 16:
+                return readUnsignedShort(row, index * 2);
+            default: {
+                int bitOffset = index * bitDepth;
+                int shift = 8 - bitDepth - (bitOffset & 7);
+                return (row[bitOffset >> 3] >> shift) & ((1 << bitDepth) - 1);
+            }
+        }
+    }
+
+    private static int readUnsignedShort(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 8 | (bytes[offset + 1] & 0xFF);
+    }
+
+    // Поток данных из последовательных блоков IDAT (заголовки блоков и CRC пропускаются)
+    private static class DataChunkInputStream extends InputStream {
+        private final DataInputStream in;
+        private int remaining;
+        private boolean finished;
+
+        DataChunkInputStream(InputStream in, int firstChunkLength) {
+            this.in = new DataInputStream(in);
+            this.remaining = firstChunkLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            while (remaining == 0) {
+                if (finished || !nextChunk()) {
+                    return -1;
+                }
+            }
+            int count = in.read(buffer, offset, Math.min(length, remaining));
+            if (count < 0) {
+                throw new EOFException("Неожиданный конец PNG файла");
+            }
+            remaining -= count;
+            return count;
+        }
+
+        // Переход к следующему блоку; false, если он уже не IDAT
+        private boolean nextChunk() throws IOException {
+            in.skipNBytes(4);  // CRC
+            int length = in.readInt();
+            int type = in.readInt();
+            if (type != PngHeader.chunkType("IDAT") || length < 0) {
+                finished = true;
+                return false;
+            }
+            remaining = length;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.fbxchecker;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PolycountCalculator {
+    // Подсчет треугольников по сцене, без сборки плоского меша: по каждой геометрии - треугольники
+    // (n-2 на многоугольник; треугольник и вырожденный полигон из 1-2 вершин - один), вершины
+    // и вершины, на которые не ссылается ни один полигон (отметки в BitSet). В режиме failFast подсчет останавливается на геометрии, после которой сцена
+    // превысила лимит: остальные геометрии не распаковываются и не просматриваются
+
+    private final FbxScene scene;
+    private final int limit;
+    private final boolean failFast;
+
+    public PolycountCalculator(FbxScene scene, int limit, boolean failFast) {
+        this.scene = scene;
+        this.limit = limit;
+        this.failFast = failFast;
+    }
+
+    public PolycountResult calculate() {
+        Map<Long, FbxNode> geometryIdNodeMap = scene.getGeometryIdNodeMap();
+        int geometryCount = geometryIdNodeMap.size();
+        PolycountResult result = new PolycountResult(geometryCount);
+        BitSet usedVertices = new BitSet();
+
+        for (Map.Entry<Long, FbxNode> entry : geometryIdNodeMap.entrySet()) {
+            FbxNode geometryNode = entry.getValue();
+            int vertexCount = JsonFbxValidator.countVerticesInGeometry(geometryNode);
+            int[] polygonVertexIndex = JsonFbxValidator.extractPolygonVertexIndicesFromGeometry(geometryNode);
+
+            usedVertices.clear();
+            int triangleCount = 0;
+            int vertexCounter = 0;
+            for (int indexValue : polygonVertexIndex) {
+                int vertexIndex = indexValue < 0 ? -indexValue - 1 : indexValue;
+                if (vertexIndex < vertexCount) {
+                    usedVertices.set(vertexIndex);
+                }
+                vertexCounter++;
+                if (indexValue < 0) {
+                    triangleCount += MeshData.polygonTriangles(vertexCounter);
+                    vertexCounter = 0;
+                }
+            }
+
+            result.addGeometry(entry.getKey(), triangleCount, vertexCount, vertexCount - usedVertices.cardinality());
+            if (failFast && result.getTriangleCount() >= limit && result.getGeometryCount() < geometryCount) {
+                result.aborted = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    // Память под распакованные индексы полигонов всех геометрий (байт) по длинам массивов, без распаковки
+    public static long estimateBytes(FbxScene scene) {
+        long bytes = 0;
+        for (FbxNode geometryNode : scene.getGeometryIdNodeMap().values()) {
+            bytes += 4L * JsonFbxValidator.getArray(geometryNode, "PolygonVertexIndex", 'i').getArrayLength();
+        }
+        return bytes;
+    }
+
+    // Раздел 7: итог сцены, неиспользуемые вершины и треугольники по объектам (и по геометриям, если их несколько)
+    public static void addReport(PolycountResult polycount, FbxScene scene, ValidationResult result) {
+        long polyCount = polycount.getTriangleCount();
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("polygons", polyCount);
+        metrics.put("limit", ValidationRules.MAX_POLYGON_COUNT);
+        if (polycount.isAborted()) {
+            metrics.put("geometriesCounted", polycount.getGeometryCount());
+            result.addFinding("polycount", Finding.Severity.ERROR, null,
+                    "Количество полигонов в сцене: не менее " + polyCount +
+                    " Ошибка: количество полигонов не должно превышать 2 млн. (подсчет остановлен после " +
+                    polycount.getGeometryCount() + " из " + scene.getGeometryIdNodeMap().size() + " геометрий)", metrics);
+            return;
+        }
+        if (polyCount < ValidationRules.MAX_POLYGON_COUNT) {
+            result.addFinding("polycount", Finding.Severity.INFO, null,
+                    "Количество полигонов в сцене: " + polyCount + "   OK", metrics);
+        } else {
+            result.addFinding("polycount", Finding.Severity.ERROR, null,
+                    "Количество полигонов в сцене: " + polyCount + " Ошибка: количество полигонов не должно превышать 2 млн.", metrics);
+        }
+
+        long unusedVertices = 0;
+        for (int g = 0; g < polycount.getGeometryCount(); g++) {
+            unusedVertices += polycount.getUnusedVertexCount(g);
+        }
+        result.addFinding("polycount-unused-vertices", Finding.Severity.INFO, null,
+                "Неиспользуемых вершин в сцене: " + unusedVertices, Map.of("unusedVertices", unusedVertices));
+
+        // Объекты - модели без UCX с геометриями по связям Connections
+        FbxConnectionIndex connections = scene.getConnections();
+        for (Map.Entry<Long, String> model : scene.getRelevantModelIdNameMap().entrySet()) {
+            long[] geometryIds = connections.getChildren(model.getKey(), "Geometry");
+            if (geometryIds.length == 0) {
+                continue;
+            }
+            String objectName = model.getValue();
+            long triangleCount = 0;
+            long objectUnusedVertices = 0;
+            List<String> uvChannels = new ArrayList<>();
+            for (long geometryId : geometryIds) {
+                int g = polycount.indexOf(geometryId);
+                triangleCount += polycount.getTriangleCount(g);
+                objectUnusedVertices += polycount.getUnusedVertexCount(g);
+                for (String channel : scene.getUvChannelNames(geometryId)) {
+                    if (!uvChannels.contains(channel)) {
+                        uvChannels.add(channel);
+                    }
+                }
+            }
+
+            Map<String, Number> objectMetrics = new LinkedHashMap<>();
+            objectMetrics.put("triangles", triangleCount);
+            objectMetrics.put("geometries", geometryIds.length);
+            objectMetrics.put("unusedVertices", objectUnusedVertices);
+            objectMetrics.put("uvChannels", uvChannels.size());
+            result.addFinding("polycount-object", Finding.Severity.INFO, objectName,
+                    "    " + objectName + ": треугольников " + triangleCount +
+                    ", неиспользуемых вершин " + objectUnusedVertices +
+                    ", UV-каналы: " + (uvChannels.isEmpty() ? "нет" : String.join(", ", uvChannels)), objectMetrics);
+
+            if (geometryIds.length > 1) {
+                for (long geometryId : geometryIds) {
+                    int g = polycount.indexOf(geometryId);
+                    Map<String, Number> geometryMetrics = new LinkedHashMap<>();
+                    geometryMetrics.put("geometryId", geometryId);
+                    geometryMetrics.put("triangles", polycount.getTriangleCount(g));
+                    geometryMetrics.put("vertices", polycount.getVertexCount(g));
+                    geometryMetrics.put("unusedVertices", polycount.getUnusedVertexCount(g));
+                    result.addFinding("polycount-geometry", Finding.Severity.INFO, objectName,
+                            "        Геометрия " + geometryId + ": треугольников " + polycount.getTriangleCount(g) +
+                            ", вершин " + polycount.getVertexCount(g) +
+                            ", неиспользуемых вершин " + polycount.getUnusedVertexCount(g), geometryMetrics);
+                }
+            }
+        }
+    }
+
+    // Результат подсчета: показатели геометрий в порядке Objects (при остановке - только просмотренных)
+    public static class PolycountResult {
+        private final long[] geometryIds;
+        private final int[] triangles;
+        private final int[] vertices;
+        private final int[] unusedVertices;
+        private final LongIntHashMap indexById;
+        private int size;
+        private long triangleCount;
+        private boolean aborted;
+
+        PolycountResult(int geometryCount) {
+            geometryIds = new long[geometryCount];
+            triangles = new int[geometryCount];
+            vertices = new int[geometryCount];
+            unusedVertices = new int[geometryCount];
+            indexById = new LongIntHashMap(geometryCount);
+        }
+
+        void addGeometry(long geometryId, int triangleCount, int vertexCount, int unusedVertexCount) {
+            geometryIds[size] = geometryId;
+            triangles[size] = triangleCount;
+            vertices[size] = vertexCount;
+            unusedVertices[size] = unusedVertexCount;
+            indexById.put(geometryId, size);
+            size++;
+            this.triangleCount += triangleCount;
+        }
+
+        // Подсчет остановлен после превышения лимита; просмотрены не все геометрии
+        public boolean isAborted() {
+            return aborted;
+        }
+
+        public long getTriangleCount() {
+            return triangleCount;
+        }
+
+        public int getGeometryCount() {
+            return size;
+        }
+
+        // Номер геометрии по id или -1, если она не просмотрена
+        public int indexOf(long geometryId) {
+            return indexById.get(geometryId);
+        }
+
+        public long getGeometryId(int geometry) {
+            return geometryIds[geometry];
+        }
+
+        public int getTriangleCount(int geometry) {
+            return triangles[geometry];
+        }
+
+        public int getVertexCount(int geometry) {
+            return vertices[geometry];
+        }
+
+        public int getUnusedVertexCount(int geometry) {
+            return unusedVertices[geometry];
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.fbxchecker;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+public class ResourceGovernor {
+    // Ограничения ресурсов одной проверки архива. Создается на каждую проверку, поэтому враждебный
+    // или поврежденный архив отклоняется сам, не забирая диск и память у остальных проверок:
+    // - записи центрального каталога: число записей, суммарный размер после распаковки, степень сжатия, пути;
+    // - загрузка потоком (каталога еще нет): те же ограничения по мере чтения записей;
+    // - бюджет памяти: декодированные изображения, буферы текстур и массивы меша резервируются до выделения.
+    // Превышение - ResourceLimitException с сообщением для отчета
+
+    // Идентификатор находок об ограничениях ресурсов (такие результаты не кэшируются)
+    static final String RESOURCE_LIMIT = "resource-limit";
+
+    private static final long MB = 1024 * 1024;
+
+    private final long heapBudgetBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    // Загрузка потоком: принятые записи и байты после распаковки
+    private int streamedEntryCount;
+    private long streamedBytes;
+
+    public ResourceGovernor() {
+        this(ValidationRules.JOB_HEAP_BUDGET_MB * MB);
+    }
+
+    public ResourceGovernor(long heapBudgetBytes) {
+        this.heapBudgetBytes = heapBudgetBytes;
+    }
+
+    // Проверка, которая выполняется одновременно с другими (пакет, задания, загрузки): JOB_HEAP_BUDGET_MB
+    // делится поровну между concurrentJobs, чтобы вместе проверки не зарезервировали больше него
+    public static ResourceGovernor forConcurrentJobs(int concurrentJobs) {
+        return new ResourceGovernor(ValidationRules.JOB_HEAP_BUDGET_MB * MB / Math.max(1, concurrentJobs));
+    }
+
+    // Раздел 2: ограничения распаковки по центральному каталогу, без чтения записей.
+    // false - архив отклонен, ошибки записаны в result
+    public boolean checkArchive(List<ArchiveEntry> entries, ValidationResult result) {
+        boolean withinLimits = true;
+        if (entries.size() > ValidationRules.MAX_ENTRY_COUNT) {
+            addError(result, "Ошибка: в архиве " + entries.size() + " записей, допустимо не более " + ValidationRules.MAX_ENTRY_COUNT,
+                    Map.of("entries", entries.size(), "limit", ValidationRules.MAX_ENTRY_COUNT));
+            withinLimits = false;
+        }
+
+        long uncompressedBytes = 0;
+        for (ArchiveEntry entry : entries) {
+            if (!isSafePath(entry.getName())) {
+                addError(result, "Ошибка: недопустимый путь записи - " + entry.getName(), null);
+                withinLimits = false;
+            }
+            if (entry.getSize() > 0) {
+                uncompressedBytes += entry.getSize();
+                if (exceedsCompressionRatio(entry.getSize(), entry.getCompressedSize())) {
+                    addError(result, "Ошибка: степень сжатия записи " + entry.getName() + " - "
+                                    + entry.getSize() / Math.max(1, entry.getCompressedSize()) + ":1, допустимо не более "
+                                    + ValidationRules.MAX_COMPRESSION_RATIO + ":1",
+                            Map.of("size", entry.getSize(), "compressedSize", entry.getCompressedSize()));
+                    withinLimits = false;
+                }
+            }
+        }
+        if (uncompressedBytes > ValidationRules.MAX_UNCOMPRESSED_SIZE_MB * MB) {
+            addError(result, "Ошибка: размер после распаковки " + String.format("%.2f", uncompressedBytes / (double) MB)
+                            + " MB превышает " + ValidationRules.MAX_UNCOMPRESSED_SIZE_MB + " MB",
+                    Map.of("uncompressedBytes", uncompressedBytes, "limitMb", ValidationRules.MAX_UNCOMPRESSED_SIZE_MB));
+            withinLimits = false;
+        }
+        return withinLimits;
+    }
+
+    // Запись загрузки потоком: путь и число записей проверяются до чтения ее содержимого
+    public synchronized void checkStreamedEntry(String name) throws ResourceLimitException {
+        if (!isSafePath(name)) {
+            throw new ResourceLimitException("недопустимый путь записи - " + name);
+        }
+        if (++streamedEntryCount > ValidationRules.MAX_ENTRY_COUNT) {
+            throw new ResourceLimitException("в архиве больше " + ValidationRules.MAX_ENTRY_COUNT + " записей");
+        }
+    }
+
+    // Содержимое записи загрузки потоком: распакованные байты суммируются по всем записям и сверяются
+    // с MAX_UNCOMPRESSED_SIZE_MB и со степенью сжатия относительно принятых байт (compressedBytes)
+    public InputStream limitStreamedEntry(InputStream content, LongSupplier compressedBytes) {
+        return new FilterInputStream(content) {
+            @Override
+            public int read() throws IOException {
+                int value = super.read();
+                if (value >= 0) {
+                    countStreamed(1, compressedBytes.getAsLong());
+                }
+                return value;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int count = super.read(buffer, offset, length);
+                if (count > 0) {
+                    countStreamed(count, compressedBytes.getAsLong());
+                }
+                return count;
+            }
+
+            @Override
+            public void close() {
+                // Поток записи принадлежит ZipInputStream и закрывается вместе с ним
+            }
+        };
+    }
+
+    private synchronized void countStreamed(long bytes, long compressedBytes) throws ResourceLimitException {
+        streamedBytes += bytes;
+        if (streamedBytes > ValidationRules.MAX_UNCOMPRESSED_SIZE_MB * MB) {
+            throw new ResourceLimitException("размер после распаковки превышает " + ValidationRules.MAX_UNCOMPRESSED_SIZE_MB + " MB");
+        }
+        if (exceedsCompressionRatio(streamedBytes, compressedBytes)) {
+            throw new ResourceLimitException("степень сжатия архива больше " + ValidationRules.MAX_COMPRESSION_RATIO + ":1");
+        }
+    }
+
+    // Резервирование памяти до выделения (what - что выделяется, для сообщения); освобождается release
+    public void reserve(long bytes, String what) throws ResourceLimitException {
+        long reserved = reservedBytes.addAndGet(bytes);
+        if (reserved > heapBudgetBytes) {
+            reservedBytes.addAndGet(-bytes);
+            throw new ResourceLimitException("превышен бюджет памяти проверки (" + heapBudgetBytes / MB + " MB): "
+                    + what + " требует " + Math.max(1, bytes / MB) + " MB");
+        }
+    }
+
+    public void release(long bytes) {
+        reservedBytes.addAndGet(-bytes);
+    }
+
+    // Степень сжатия проверяется только у записей от 1 MB: мелкие текстовые файлы сжимаются сильнее без угрозы
+    private static boolean exceedsCompressionRatio(long size, long compressedSize) {
+        return size >= MB && size > ValidationRules.MAX_COMPRESSION_RATIO * Math.max(1, compressedSize);
+    }
+
+    // Путь записи без абсолютного начала, буквы диска и переходов "..": запись не выходит за пределы архива
+    static boolean isSafePath(String name) {
+        String path = name.replace('\\', '/');
+        if (path.startsWith("/") || (path.length() > 1 && path.charAt(1) == ':')) {
+            return false;
+        }
+        for (String segment : path.split("/")) {
+            if (segment.equals("..")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addError(ValidationResult result, String message, Map<String, Number> metrics) {
+        result.addFinding(RESOURCE_LIMIT, Finding.Severity.ERROR, null, message, metrics);
+    }
+}
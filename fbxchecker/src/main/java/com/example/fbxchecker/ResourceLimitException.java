@@ -0,0 +1,14 @@
+package com.example.fbxchecker;
+
+import java.io.IOException;
+
+public class ResourceLimitException extends IOException {
+    // Проверка превысила ограничение ResourceGovernor: размер распаковки, число записей или бюджет памяти.
+    // Наследует IOException, поэтому чтение записи или текстуры завершается обычной ошибкой чтения
+
+    private static final long serialVersionUID = 1L;
+
+    public ResourceLimitException(String message) {
+        super(message);
+    }
+}
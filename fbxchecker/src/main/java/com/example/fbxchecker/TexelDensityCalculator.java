@@ -1,94 +1,308 @@
 package com.example.fbxchecker;
 
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TexelDensityCalculator {
 
-    private List<double[]> vertices;
-    private List<int[]> triangleIndices;
-    private List<double[]> uvCoords;
-    private List<int[]> uvIndices;
+    // Шаг, с которым слушателю сообщается о количестве обработанных треугольников
+    private static final int PROGRESS_STEP = 1 << 16;
+    // Размер диапазона треугольников для одной задачи fork-join; меньшие меши считаются в текущем потоке
+    private static final int PARALLEL_CHUNK = 1 << 15;
+
+    private MeshData mesh;
     private Map<Integer, Integer> udimResolutionMap;
+    private ValidationListener listener = ValidationListener.NONE;
 
-    public TexelDensityCalculator(List<double[]> vertices, List<int[]> triangleIndices,
-                                  List<double[]> uvCoords, List<int[]> uvIndices,
-                                  Map<Integer, Integer> udimResolutionMap) {
-        this.vertices = vertices;
-        this.triangleIndices = triangleIndices;
-        this.uvCoords = uvCoords;
-        this.uvIndices = uvIndices;
+    public TexelDensityCalculator(MeshData mesh, Map<Integer, Integer> udimResolutionMap) {
+        this.mesh = mesh;
         this.udimResolutionMap = udimResolutionMap;
     }
 
+    // Геометрия берется из уже загруженной сцены, без повторного чтения файла
+    public TexelDensityCalculator(FbxScene scene, String uvChannelName, Map<Integer, Integer> udimResolutionMap) {
+        this(JsonFbxValidator.extractMesh(scene, uvChannelName), udimResolutionMap);
+    }
+
+    public void setListener(ValidationListener listener) {
+        this.listener = listener;
+    }
+
     public void calculateTexelDensity(ValidationResult result) {
-        // Карта для хранения данных по каждому UDIM
-        Map<Integer, UdimData> udimDataMap = new HashMap<>();
+        int triangleCount = mesh.getTriangleCount();
+        int geometryCount = mesh.getGeometryCount();
+
+        // Каждая геометрия - отдельная задача fork-join (крупные делятся на диапазоны), у каждой свои накопители по UDIM.
+        // Разбиение не зависит от числа потоков, поэтому суммы складываются в одном порядке и результат детерминирован
+        AtomicLong processed = new AtomicLong();
+        UdimAccumulator[] geometryTotals = new UdimAccumulator[geometryCount];
+        if (triangleCount <= PARALLEL_CHUNK) {
+            for (int g = 0; g < geometryCount; g++) {
+                geometryTotals[g] = accumulate(mesh.getTriangleOffset(g), mesh.getTriangleOffset(g + 1), processed);
+            }
+        } else {
+            ForkJoinPool.commonPool().invoke(new GeometriesTask(geometryTotals, processed));
+        }
+
+        listener.onProgress(ValidationListener.TRIANGLES, triangleCount, triangleCount);
+
+        // Итог сцены - сумма геометрий в порядке их следования
+        UdimAccumulator total = new UdimAccumulator();
+        for (UdimAccumulator geometryTotal : geometryTotals) {
+            total.merge(geometryTotal);
+        }
+
+        // UDIM выводятся в порядке HashMap, как и раньше; UDIM без разрешения текстуры не попадают в отчет
+        Map<Integer, Integer> udimSlots = new HashMap<>();
+        for (int slot = 0; slot < total.size; slot++) {
+            if (total.stats[slot].getCount() > 0) {
+                udimSlots.put(total.udims[slot], slot);
+            }
+        }
+
+        // Выводим результаты
+        result.addSeparator();
+        result.addMessage("9. Texel Density по UDIM:");
+        for (Map.Entry<Integer, Integer> udimSlot : udimSlots.entrySet()) {
+            int udim = udimSlot.getKey();
+            int slot = udimSlot.getValue();
+            if (udimResolutionMap.get(udim) == ValidationRules.STUB_TEXTURE_SIZE) {
+                // Пропускаем UDIM с заглушкой
+                continue;
+            }
+            TexelDensityStats stats = total.stats[slot];
+            double averageTexelDensity = stats.getMean();
+            long errorTriangles = stats.getOutOfRange();
 
-        // Проходим по всем треугольникам
-        for (int i = 0; i < triangleIndices.size(); i++) {
-            int[] triIndices = triangleIndices.get(i);
-            int[] uvTriIndices = uvIndices.get(i);
+            String status = (errorTriangles == 0) ? "ОК" : "Ошибка";
+            String subject = "UDIM " + udim;
+            Map<String, Number> metrics = new LinkedHashMap<>();
+            metrics.put("triangles", stats.getCount());
+            metrics.put("mean", averageTexelDensity);
+            metrics.put("outOfRange", errorTriangles);
+            result.addFinding("texel-density", errorTriangles == 0 ? Finding.Severity.INFO : Finding.Severity.ERROR, subject,
+                    "UDIM: " + udim +
+                    ", Средний Texel Density: " + String.format("%.2f", averageTexelDensity) +
+                    ", " + status + ", Полигонов вне диапазона: " + errorTriangles, metrics);
+            addDistribution(result, subject, stats);
+        }
 
-            // Координаты вершин в мировом пространстве
-            double[] vertexA = vertices.get(triIndices[0]);
-            double[] vertexB = vertices.get(triIndices[1]);
-            double[] vertexC = vertices.get(triIndices[2]);
+        addObjects(result, geometryTotals);
+    }
 
-            // Координаты в UV-пространстве
-            double[] uvA = uvCoords.get(uvTriIndices[0]);
-            double[] uvB = uvCoords.get(uvTriIndices[1]);
-            double[] uvC = uvCoords.get(uvTriIndices[2]);
+    // Texel density по объектам сцены: сумма накопителей геометрий объекта, UDIM по возрастанию.
+    // Объект с треугольниками вне диапазона выводится с ошибкой, чтобы было видно, какой объект исправлять.
+    // Геометрии UCX и геометрии без модели выводятся одной строкой после объектов
+    private void addObjects(ValidationResult result, UdimAccumulator[] geometryTotals) {
+        if (mesh.getObjectCount() == 0) {
+            return;
+        }
+        result.addMessage("Texel Density по объектам:");
+        boolean[] assigned = new boolean[geometryTotals.length];
+        for (int object = 0; object < mesh.getObjectCount(); object++) {
+            UdimAccumulator objectTotal = new UdimAccumulator();
+            for (int geometry : mesh.getObjectGeometries(object)) {
+                objectTotal.merge(geometryTotals[geometry]);
+                assigned[geometry] = true;
+            }
+            addObjectLines(result, mesh.getObjectName(object), objectTotal);
+        }
+
+        UdimAccumulator otherTotal = new UdimAccumulator();
+        for (int geometry = 0; geometry < geometryTotals.length; geometry++) {
+            if (!assigned[geometry]) {
+                otherTotal.merge(geometryTotals[geometry]);
+            }
+        }
+        addObjectLines(result, "UCX и геометрии без модели", otherTotal);
+    }
+
+    private void addObjectLines(ValidationResult result, String objectName, UdimAccumulator objectTotal) {
+        Map<Integer, Integer> udimSlots = new TreeMap<>();
+        for (int slot = 0; slot < objectTotal.size; slot++) {
+            udimSlots.put(objectTotal.udims[slot], slot);
+        }
+
+        for (Map.Entry<Integer, Integer> udimSlot : udimSlots.entrySet()) {
+            int udim = udimSlot.getKey();
+            if (udimResolutionMap.get(udim) == ValidationRules.STUB_TEXTURE_SIZE) {
+                continue;
+            }
+            TexelDensityStats stats = objectTotal.stats[udimSlot.getValue()];
+            long errorTriangles = stats.getOutOfRange();
+
+            Map<String, Number> metrics = new LinkedHashMap<>();
+            metrics.put("udim", udim);
+            metrics.put("triangles", stats.getCount());
+            metrics.put("mean", stats.getMean());
+            metrics.put("outOfRange", errorTriangles);
+            result.addFinding("texel-density-object", errorTriangles == 0 ? Finding.Severity.INFO : Finding.Severity.ERROR, objectName,
+                    "    " + objectName + ", UDIM: " + udim +
+                    ", Средний Texel Density: " + String.format("%.2f", stats.getMean()) +
+                    ", " + (errorTriangles == 0 ? "ОК" : "Ошибка") +
+                    ", Полигонов вне диапазона: " + errorTriangles + " из " + stats.getCount(), metrics);
+        }
+    }
+
+    // Распределение texel density по UDIM: разброс, среднее по площади, перцентили и гистограмма
+    private void addDistribution(ValidationResult result, String subject, TexelDensityStats stats) {
+        if (stats.getFiniteCount() == 0) {
+            return;
+        }
+        double p5 = stats.getPercentile(0.05);
+        double p50 = stats.getPercentile(0.5);
+        double p95 = stats.getPercentile(0.95);
+
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("min", stats.getMin());
+        metrics.put("max", stats.getMax());
+        metrics.put("areaWeightedMean", stats.getAreaWeightedMean());
+        metrics.put("p5", p5);
+        metrics.put("p50", p50);
+        metrics.put("p95", p95);
+        result.addFinding("texel-density-distribution", Finding.Severity.INFO, subject,
+                "    Мин: " + String.format("%.2f", stats.getMin()) +
+                ", Макс: " + String.format("%.2f", stats.getMax()) +
+                ", Средний по площади: " + String.format("%.2f", stats.getAreaWeightedMean()) +
+                ", P5: " + String.format("%.2f", p5) +
+                ", P50: " + String.format("%.2f", p50) +
+                ", P95: " + String.format("%.2f", p95), metrics);
+
+        long[] histogram = stats.getHistogram();
+        String[] labels = TexelDensityStats.getHistogramLabels();
+        Map<String, Number> histogramMetrics = new LinkedHashMap<>();
+        StringBuilder line = new StringBuilder("    Распределение:");
+        for (int bin = 0; bin < histogram.length; bin++) {
+            histogramMetrics.put(labels[bin], histogram[bin]);
+            line.append(bin == 0 ? " " : ", ").append(labels[bin]).append(": ")
+                    .append(String.format("%.1f%%", 100.0 * histogram[bin] / stats.getFiniteCount()));
+        }
+        result.addFinding("texel-density-histogram", Finding.Severity.INFO, subject, line.toString(), histogramMetrics);
+    }
+
+    // Texel density треугольников [from, to) без выделения памяти на треугольник
+    private UdimAccumulator accumulate(int from, int to, AtomicLong processed) {
+        // Плоские массивы меша: индексы умножаются на 3 (x,y,z) и на 2 (u,v)
+        double[] positions = mesh.getPositions();
+        int[] triangles = mesh.getTriangles();
+        double[] uvs = mesh.getUvs();
+        int[] uvTriangles = mesh.getUvTriangles();
+        int vertexCount = mesh.getVertexCount();
+
+        UdimAccumulator accumulator = new UdimAccumulator();
+        // Соседние треугольники обычно в одном UDIM: последний слот проверяется первым
+        int lastUdim = Integer.MIN_VALUE;
+        int lastSlot = -1;
+
+        for (int t = from * 3; t < to * 3; t += 3) {
+            int a = triangles[t];
+            int b = triangles[t + 1];
+            int c = triangles[t + 2];
+            int uvA = uvTriangles[t];
+            int uvB = uvTriangles[t + 1];
+            int uvC = uvTriangles[t + 2];
+
+            // Треугольник без UV или с некорректными индексами пропускаем
+            if (uvA < 0 || uvB < 0 || uvC < 0 || a >= vertexCount || b >= vertexCount || c >= vertexCount) {
+                continue;
+            }
 
             // Вычисляем UDIM для треугольника
-            int udim = calculateUdim(uvA, uvB, uvC);
+            int udim = calculateUdim(uvs, uvA, uvB, uvC);
+            if (udim != lastUdim) {
+                lastUdim = udim;
+                lastSlot = accumulator.slotOf(udim, udimResolutionMap);
+            }
 
-            // Проверяем, есть ли информация о разрешении текстуры для этого UDIM
-            int textureResolution = udimResolutionMap.getOrDefault(udim, 0);
+            // Если разрешение текстуры не найдено или это заглушка, пропускаем
+            int textureResolution = accumulator.resolutions[lastSlot];
             if (textureResolution == 0) {
-                // Если разрешение текстуры не найдено или это заглушка, пропускаем
                 continue;
             }
 
             // Вычисляем площадь треугольника в мировом пространстве
-            double worldArea = calculateTriangleArea(vertexA, vertexB, vertexC);
+            double worldArea = calculateTriangleArea(positions, a, b, c);
 
             // Вычисляем площадь треугольника в UV-пространстве
-            double uvArea = calculateTriangleArea2D(uvA, uvB, uvC);
+            double uvArea = calculateTriangleArea2D(uvs, uvA, uvB, uvC);
 
             // Вычисляем texel density для треугольника
             double texelDensity = Math.sqrt(uvArea) * textureResolution / Math.sqrt(worldArea);
+            accumulator.stats[lastSlot].add(texelDensity, worldArea);
+        }
 
-            // Собираем данные по UDIM
-            UdimData udimData = udimDataMap.getOrDefault(udim, new UdimData(udim, textureResolution));
-            udimData.addTexelDensity(texelDensity);
-            udimData.addTriangle(texelDensity);
-            udimDataMap.put(udim, udimData);
+        // Прогресс сообщается, когда общее количество переходит через очередной шаг
+        int count = to - from;
+        long after = processed.addAndGet(count);
+        if (after / PROGRESS_STEP != (after - count) / PROGRESS_STEP) {
+            listener.onProgress(ValidationListener.TRIANGLES, after, mesh.getTriangleCount());
         }
+        return accumulator;
+    }
 
-        // Выводим результаты
-        result.addSeparator();
-        result.addMessage("9. Texel Density по UDIM:");
-        for (UdimData udimData : udimDataMap.values()) {
-            if (udimResolutionMap.get(udimData.udim) == 256) {
-                // Пропускаем UDIM с заглушкой
-                continue;
+    // Задачи всех геометрий меша; накопитель геометрии g записывается в geometryTotals[g]
+    private class GeometriesTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final UdimAccumulator[] geometryTotals;
+        private final AtomicLong processed;
+
+        GeometriesTask(UdimAccumulator[] geometryTotals, AtomicLong processed) {
+            this.geometryTotals = geometryTotals;
+            this.processed = processed;
+        }
+
+        @Override
+        protected void compute() {
+            List<TexelDensityTask> tasks = new ArrayList<>(geometryTotals.length);
+            for (int g = 0; g < geometryTotals.length; g++) {
+                tasks.add(new TexelDensityTask(mesh.getTriangleOffset(g), mesh.getTriangleOffset(g + 1), processed));
+            }
+            invokeAll(tasks);
+            for (int g = 0; g < geometryTotals.length; g++) {
+                geometryTotals[g] = tasks.get(g).join();
             }
-            double averageTexelDensity = udimData.getAverageTexelDensity();
-            int errorTriangles = udimData.getTrianglesOutOfRange(512, 1706);
+        }
+    }
 
-            String status = (errorTriangles == 0) ? "ОК" : "Ошибка";
-            result.addMessage("UDIM: " + udimData.udim +
-                    ", Средний Texel Density: " + String.format("%.2f", averageTexelDensity) +
-                    ", " + status + ", Полигонов вне диапазона: " + errorTriangles);
+    // Деление диапазона треугольников пополам до PARALLEL_CHUNK; накопители складываются слева направо
+    private class TexelDensityTask extends RecursiveTask<UdimAccumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final AtomicLong processed;
+
+        TexelDensityTask(int from, int to, AtomicLong processed) {
+            this.from = from;
+            this.to = to;
+            this.processed = processed;
+        }
+
+        @Override
+        protected UdimAccumulator compute() {
+            if (to - from <= PARALLEL_CHUNK) {
+                return accumulate(from, to, processed);
+            }
+            // Граница кратна PARALLEL_CHUNK, чтобы разбиение не зависело от порядка выполнения
+            int middle = from + Math.max(1, (to - from) / PARALLEL_CHUNK / 2) * PARALLEL_CHUNK;
+            TexelDensityTask left = new TexelDensityTask(from, middle, processed);
+            TexelDensityTask right = new TexelDensityTask(middle, to, processed);
+            right.fork();
+            UdimAccumulator result = left.compute();
+            result.merge(right.join());
+            return result;
         }
     }
 
     // Метод для вычисления UDIM на основе UV-координат треугольника
-    private int calculateUdim(double[] uvA, double[] uvB, double[] uvC) {
+    private int calculateUdim(double[] uvs, int uvA, int uvB, int uvC) {
         // Берём среднее значение UV для треугольника
-        double u = (uvA[0] + uvB[0] + uvC[0]) / 3.0;
-        double v = (uvA[1] + uvB[1] + uvC[1]) / 3.0;
+        double u = (uvs[uvA * 2] + uvs[uvB * 2] + uvs[uvC * 2]) / 3.0;
+        double v = (uvs[uvA * 2 + 1] + uvs[uvB * 2 + 1] + uvs[uvC * 2 + 1]) / 3.0;
 
         int uTile = (int) Math.floor(u);
         int vTile = (int) Math.floor(v);
@@ -97,68 +311,85 @@ public class TexelDensityCalculator {
         return 1001 + uTile + vTile * 10;
     }
 
-    // Метод для вычисления площади треугольника в 3D
-    private double calculateTriangleArea(double[] A, double[] B, double[] C) {
-        double[] AB = new double[]{B[0] - A[0], B[1] - A[1], B[2] - A[2]};
-        double[] AC = new double[]{C[0] - A[0], C[1] - A[1], C[2] - A[2]};
-
-        double[] crossProduct = new double[]{
-                AB[1] * AC[2] - AB[2] * AC[1],
-                AB[2] * AC[0] - AB[0] * AC[2],
-                AB[0] * AC[1] - AB[1] * AC[0]
-        };
-
-        double area = 0.5 * Math.sqrt(
-                crossProduct[0] * crossProduct[0] +
-                        crossProduct[1] * crossProduct[1] +
-                        crossProduct[2] * crossProduct[2]
-        );
+    // Метод для вычисления площади треугольника в 3D (без временных массивов)
+    private double calculateTriangleArea(double[] positions, int a, int b, int c) {
+        int ia = a * 3;
+        int ib = b * 3;
+        int ic = c * 3;
 
-        return area;
+        double abX = positions[ib] - positions[ia];
+        double abY = positions[ib + 1] - positions[ia + 1];
+        double abZ = positions[ib + 2] - positions[ia + 2];
+        double acX = positions[ic] - positions[ia];
+        double acY = positions[ic + 1] - positions[ia + 1];
+        double acZ = positions[ic + 2] - positions[ia + 2];
+
+        double crossX = abY * acZ - abZ * acY;
+        double crossY = abZ * acX - abX * acZ;
+        double crossZ = abX * acY - abY * acX;
+
+        return 0.5 * Math.sqrt(crossX * crossX + crossY * crossY + crossZ * crossZ);
     }
 
     // Метод для вычисления площади треугольника в 2D (UV-пространство)
-    private double calculateTriangleArea2D(double[] A, double[] B, double[] C) {
+    private double calculateTriangleArea2D(double[] uvs, int uvA, int uvB, int uvC) {
+        int ia = uvA * 2;
+        int ib = uvB * 2;
+        int ic = uvC * 2;
         double area = 0.5 * Math.abs(
-                (B[0] - A[0]) * (C[1] - A[1]) - (C[0] - A[0]) * (B[1] - A[1])
+                (uvs[ib] - uvs[ia]) * (uvs[ic + 1] - uvs[ia + 1]) - (uvs[ic] - uvs[ia]) * (uvs[ib + 1] - uvs[ia + 1])
         );
         return area;
     }
 
-    // Вспомогательный класс для хранения данных по UDIM
-    private static class UdimData {
-        int udim;
-        int textureResolution;
-        List<Double> texelDensities;
-        int trianglesOutOfRange;
+    // Накопители по UDIM одного диапазона треугольников: параллельные массивы по слотам.
+    // UDIM в сцене немного, поэтому слот ищется линейно, без Map и упаковки в Integer
+    private static class UdimAccumulator {
+        int[] udims = new int[8];
+        int[] resolutions = new int[8];
+        TexelDensityStats[] stats = new TexelDensityStats[8];
+        int size;
 
-        public UdimData(int udim, int textureResolution) {
-            this.udim = udim;
-            this.textureResolution = textureResolution;
-            this.texelDensities = new ArrayList<>();
-            this.trianglesOutOfRange = 0;
-        }
-
-        public void addTexelDensity(double texelDensity) {
-            texelDensities.add(texelDensity);
-        }
-
-        public void addTriangle(double texelDensity) {
-            if (texelDensity < 512 || texelDensity > 1706) {
-                trianglesOutOfRange++;
+        int slotOf(int udim, Map<Integer, Integer> udimResolutionMap) {
+            for (int slot = 0; slot < size; slot++) {
+                if (udims[slot] == udim) {
+                    return slot;
+                }
             }
+            return addSlot(udim, udimResolutionMap.getOrDefault(udim, 0));
         }
 
-        public double getAverageTexelDensity() {
-            double sum = 0;
-            for (double td : texelDensities) {
-                sum += td;
+        private int addSlot(int udim, int resolution) {
+            if (size == udims.length) {
+                int capacity = size * 2;
+                udims = Arrays.copyOf(udims, capacity);
+                resolutions = Arrays.copyOf(resolutions, capacity);
+                stats = Arrays.copyOf(stats, capacity);
             }
-            return sum / texelDensities.size();
+            udims[size] = udim;
+            resolutions[size] = resolution;
+            stats[size] = new TexelDensityStats();
+            return size++;
         }
 
-        public int getTrianglesOutOfRange(int min, int max) {
-            return trianglesOutOfRange;
+        // Добавление накопителей следующего диапазона (или геометрии); слоты без треугольников не переносятся
+        void merge(UdimAccumulator other) {
+            for (int otherSlot = 0; otherSlot < other.size; otherSlot++) {
+                if (other.stats[otherSlot].getCount() == 0) {
+                    continue;
+                }
+                int slot = -1;
+                for (int i = 0; i < size; i++) {
+                    if (udims[i] == other.udims[otherSlot]) {
+                        slot = i;
+                        break;
+                    }
+                }
+                if (slot < 0) {
+                    slot = addSlot(other.udims[otherSlot], other.resolutions[otherSlot]);
+                }
+                stats[slot].merge(other.stats[otherSlot]);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+package com.example.fbxchecker;
+
+public class TexelDensityStats {
+    // Потоковая статистика texel density одного UDIM за постоянную память: количество, минимум и максимум,
+    // простое среднее и среднее по площади, гистограмма с фиксированными границами и логарифмический скетч
+    // для приближенных перцентилей. Статистики диапазонов треугольников складываются через merge,
+    // результат не зависит от порядка сложения (кроме последних знаков сумм)
+
+    // Границы гистограммы относительно допустимого диапазона ValidationRules. Корзины: [256, 512), [512, 1109),
+    // [1109, 1706] - в диапазоне, затем (1706, 3412] и выше
+    private static final double[] HISTOGRAM_EDGES = {
+            ValidationRules.MIN_TEXEL_DENSITY / 2.0,
+            ValidationRules.MIN_TEXEL_DENSITY,
+            (ValidationRules.MIN_TEXEL_DENSITY + ValidationRules.MAX_TEXEL_DENSITY) / 2.0,
+            ValidationRules.MAX_TEXEL_DENSITY,
+            ValidationRules.MAX_TEXEL_DENSITY * 2.0
+    };
+
+    // Скетч: корзины с границами GAMMA^i, относительная погрешность перцентиля - 1%.
+    // Значения вне [SKETCH_MIN_VALUE, SKETCH_MAX_VALUE] попадают в крайние корзины
+    private static final double SKETCH_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + SKETCH_ACCURACY) / (1 - SKETCH_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double SKETCH_MIN_VALUE = 1e-2;
+    private static final double SKETCH_MAX_VALUE = 1e6;
+    private static final int SKETCH_MIN_INDEX = (int) Math.floor(Math.log(SKETCH_MIN_VALUE) / LOG_GAMMA);
+    private static final int SKETCH_MAX_INDEX = (int) Math.ceil(Math.log(SKETCH_MAX_VALUE) / LOG_GAMMA);
+
+    // Все значения, как в прежнем отчете (среднее и количество вне диапазона)
+    private long count;
+    private double sum;
+    private long outOfRange;
+
+    // Только конечные значения: треугольники с нулевой площадью дают бесконечность или NaN
+    private long finiteCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double weightedSum;
+    private double weightSum;
+    private final long[] histogram = new long[HISTOGRAM_EDGES.length + 1];
+    private final long[] sketch = new long[SKETCH_MAX_INDEX - SKETCH_MIN_INDEX + 1];
+    private long sketchZeroCount;
+
+    // texelDensity треугольника и его площадь в мировом пространстве (вес для среднего по площади)
+    public void add(double texelDensity, double worldArea) {
+        count++;
+        sum += texelDensity;
+        if (texelDensity < ValidationRules.MIN_TEXEL_DENSITY || texelDensity > ValidationRules.MAX_TEXEL_DENSITY) {
+            outOfRange++;
+        }
+        if (!Double.isFinite(texelDensity)) {
+            return;
+        }
+
+        finiteCount++;
+        min = Math.min(min, texelDensity);
+        max = Math.max(max, texelDensity);
+        weightedSum += texelDensity * worldArea;
+        weightSum += worldArea;
+
+        // Граница ниже MAX_TEXEL_DENSITY относится к корзине справа, начиная с MAX_TEXEL_DENSITY - к корзине слева,
+        // как в проверке диапазона [MIN, MAX]: 1706 попадает в "1109-1706", а не в "1706-3412"
+        int bin = 0;
+        while (bin < HISTOGRAM_EDGES.length && (HISTOGRAM_EDGES[bin] < ValidationRules.MAX_TEXEL_DENSITY
+                ? texelDensity >= HISTOGRAM_EDGES[bin] : texelDensity > HISTOGRAM_EDGES[bin])) {
+            bin++;
+        }
+        histogram[bin]++;
+
+        if (texelDensity <= 0) {
+            sketchZeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(texelDensity) / LOG_GAMMA);
+            sketch[Math.max(SKETCH_MIN_INDEX, Math.min(SKETCH_MAX_INDEX, index)) - SKETCH_MIN_INDEX]++;
+        }
+    }
+
+    public void merge(TexelDensityStats other) {
+        count += other.count;
+        sum += other.sum;
+        outOfRange += other.outOfRange;
+        finiteCount += other.finiteCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        weightedSum += other.weightedSum;
+        weightSum += other.weightSum;
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other.histogram[i];
+        }
+        for (int i = 0; i < sketch.length; i++) {
+            sketch[i] += other.sketch[i];
+        }
+        sketchZeroCount += other.sketchZeroCount;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return sum / count;
+    }
+
+    public long getOutOfRange() {
+        return outOfRange;
+    }
+
+    public double getMin() {
+        return finiteCount > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return finiteCount > 0 ? max : Double.NaN;
+    }
+
+    // Среднее, взвешенное по площади треугольников: крупные треугольники влияют на него сильнее мелких
+    public double getAreaWeightedMean() {
+        return weightSum > 0 ? weightedSum / weightSum : Double.NaN;
+    }
+
+    // Приближенный перцентиль (quantile от 0 до 1) по скетчу
+    public double getPercentile(double quantile) {
+        if (finiteCount == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(quantile * (finiteCount - 1));
+        if (rank < sketchZeroCount) {
+            return 0;
+        }
+        long seen = sketchZeroCount;
+        for (int i = 0; i < sketch.length; i++) {
+            seen += sketch[i];
+            if (seen > rank) {
+                // Середина корзины (GAMMA^(i-1), GAMMA^i] с относительной погрешностью SKETCH_ACCURACY
+                double value = 2 * Math.pow(GAMMA, i + SKETCH_MIN_INDEX) / (GAMMA + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    // Количество треугольников по корзинам гистограммы; подписи - getHistogramLabels()
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    public long getFiniteCount() {
+        return finiteCount;
+    }
+
+    public static String[] getHistogramLabels() {
+        String[] labels = new String[HISTOGRAM_EDGES.length + 1];
+        labels[0] = "<" + formatEdge(HISTOGRAM_EDGES[0]);
+        for (int i = 1; i < HISTOGRAM_EDGES.length; i++) {
+            labels[i] = formatEdge(HISTOGRAM_EDGES[i - 1]) + "-" + formatEdge(HISTOGRAM_EDGES[i]);
+        }
+        labels[HISTOGRAM_EDGES.length] = ">" + formatEdge(HISTOGRAM_EDGES[HISTOGRAM_EDGES.length - 1]);
+        return labels;
+    }
+
+    private static String formatEdge(double edge) {
+        return String.valueOf(Math.round(edge));
+    }
+}
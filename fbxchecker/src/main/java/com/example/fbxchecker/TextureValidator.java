@@ -1,25 +1,174 @@
 package com.example.fbxchecker;
 
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 public class TextureValidator {
 
     // Хэшмапа для хранения информации о максимальном разрешении текстуры для каждого UDIM
-    private Map<Integer, Integer> udimResolutionMap = new HashMap<>();
+    private Map<Integer, Integer> udimResolutionMap = new ConcurrentHashMap<>();
+
+    // Количество потоков и бюджет памяти (в байтах) на одновременно декодируемые текстуры
+    private final int threadCount;
+    private final long memoryBudgetBytes;
+
+    public TextureValidator() {
+        this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    // Пул потоков создается при первой текстуре; результаты собираются в порядке постановки
+    private ExecutorService executor;
+    private final Semaphore memoryBudget;
+    private final int budgetKb;
+    private final List<String> submittedNames = new ArrayList<>();
+    private final List<Future<TextureCheckResult>> futures = new ArrayList<>();
+
+    // Кэш результатов по записям архива (CRC-32 и размер); null - без кэша
+    private ValidationCache entryCache;
+
+    // Прогресс: сколько текстур проверено из поставленных в очередь
+    private ValidationListener listener = ValidationListener.NONE;
+    private ResourceGovernor resourceGovernor = new ResourceGovernor();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private volatile int submittedCount;
+
+    public TextureValidator(int threadCount, long memoryBudgetBytes) {
+        this.threadCount = Math.max(1, threadCount);
+        this.memoryBudgetBytes = Math.max(1024 * 1024, memoryBudgetBytes);
+        // Бюджет считается в килобайтах, чтобы уместиться в int семафора
+        this.budgetKb = (int) Math.min(Integer.MAX_VALUE, this.memoryBudgetBytes / 1024);
+        this.memoryBudget = new Semaphore(budgetKb, true);
+    }
 
     // Метод для получения хэшмапы с разрешениями UDIM
     public Map<Integer, Integer> getUdimResolutionMap() {
         return udimResolutionMap;
     }
 
-    // Метод для проверки списка текстур
-    public void validateTextures(List<String> textureFiles, ValidationResult result, Map<Integer, Integer> udimResolutionMap) {
+    // Метод для проверки списка текстур. Размер, альфа и битность читаются из заголовка PNG,
+    // заглушки 256x256 и использование альфа-канала проверяются построчно (PngPixelScanner).
+    // Полностью через ImageIO декодируются только не-PNG файлы, под бюджетом памяти.
+    // Текстуры читаются потоком прямо из архива и проверяются параллельно, сообщения выводятся в исходном порядке файлов
+    public void validateTextures(ZipArchive archive, List<ArchiveEntry> textureFiles, ValidationResult result, Map<Integer, Integer> udimResolutionMap) {
+        for (ArchiveEntry textureFile : textureFiles) {
+            submitTexture(textureFile.getFileName(), () -> archive.openStream(textureFile),
+                    ValidationCache.entryKey("texture", textureFile));
+        }
+        collectResults(result, udimResolutionMap);
+    }
+
+    public void setEntryCache(ValidationCache entryCache) {
+        this.entryCache = entryCache;
+    }
+
+    public void setListener(ValidationListener listener) {
+        this.listener = listener;
+    }
+
+    // Бюджет памяти проверки: декодированные изображения и строки PNG резервируются в нем до выделения
+    public void setResourceGovernor(ResourceGovernor resourceGovernor) {
+        this.resourceGovernor = resourceGovernor;
+    }
+
+    private void textureCompleted() {
+        listener.onProgress(ValidationListener.TEXTURES, completedCount.incrementAndGet(), submittedCount);
+    }
+
+    // Постановка текстуры в очередь проверки; проверка начинается сразу, не дожидаясь остальных файлов.
+    // Вызывается из одного потока (чтение архива или загрузки)
+    public void submitTexture(String fileName, TextureSource source) {
+        submitTexture(fileName, source, null);
+    }
+
+    // cacheKey - ключ записи архива (ValidationCache.entryKey): неизмененная текстура берется из кэша
+    // вместе со строками отчета и вкладом в udimResolutionMap, без чтения файла
+    public void submitTexture(String fileName, TextureSource source, String cacheKey) {
+        submittedNames.add(fileName);
+        submittedCount = submittedNames.size();
+        boolean cached = entryCache != null && cacheKey != null;
+        if (cached) {
+            TextureCheckResult cachedResult = entryCache.get(cacheKey, TextureCheckResult.class);
+            if (cachedResult != null) {
+                futures.add(CompletableFuture.completedFuture(cachedResult));
+                textureCompleted();
+                return;
+            }
+        }
+
+        if (executor == null) {
+            ImageIO.setUseCache(false);  // без временных файлов ImageIO при параллельном чтении
+            executor = Executors.newFixedThreadPool(threadCount);
+        }
+        futures.add(executor.submit(() -> {
+            TextureCheckResult textureResult = validateTexture(fileName, source, memoryBudget, budgetKb);
+            // Отказ по бюджету памяти зависит от загрузки машины, а не от текстуры, и в кэш не попадает
+            if (cached && !textureResult.hasCheck(ResourceGovernor.RESOURCE_LIMIT)) {
+                entryCache.put(cacheKey, textureResult);
+            }
+            textureCompleted();
+            return textureResult;
+        }));
+    }
+
+    // Ожидание проверок в порядке постановки, чтобы отчет был детерминированным, и запись результатов
+    public void collectResults(ValidationResult result, Map<Integer, Integer> udimResolutionMap) {
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                TextureCheckResult textureResult;
+                try {
+                    textureResult = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    result.addMessage("Ошибка при обработке файла " + submittedNames.get(i) + ": " + cause.getMessage());
+                    continue;
+                }
+
+                for (Finding finding : textureResult.findings) {
+                    result.addFinding(finding.getCheck(), finding.getSeverity(), finding.getSubject(), finding.getMessage(), finding.getMetrics());
+                }
+
+                // Запись максимального разрешения для этого UDIM
+                if (textureResult.resolution > 0) {
+                    udimResolutionMap.merge(textureResult.udim, textureResult.resolution, Math::max);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.addMessage("Ошибка: проверка текстур прервана");
+        } finally {
+            shutdown();
+        }
+    }
+
+    // Остановка пула и сброс очереди (в том числе при прерванной загрузке)
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        submittedNames.clear();
+        futures.clear();
+    }
+
+    // Проверка одной текстуры; выполняется в пуле потоков
+    private TextureCheckResult validateTexture(String fileName, TextureSource source, Semaphore memoryBudget, int budgetKb) throws InterruptedException {
         // Определяем длину столбцов для выравнивания
         int textureNameLength = 40;  // длина столбца для названия текстуры
         int resolutionLength = 20;   // длина столбца для разрешения
@@ -28,62 +177,186 @@ public class TextureValidator {
 
         String separator = "     "; // 5 пробелов как разделитель между столбцами
 
-        for (String textureFile : textureFiles) {
-            try {
-                File file = new File(textureFile);
-                BufferedImage image = ImageIO.read(file);
-
-                int width = image.getWidth();
-                int height = image.getHeight();
-                boolean hasAlpha = image.getColorModel().hasAlpha();
-                String alphaChannelStatus = hasAlpha ? " Альфа-канал: есть" : " Альфа-канал: отсутствует";
-
-                boolean is8Bit = checkBitDepth(image);
-                String bitDepthStatus = is8Bit ? "8 bit : OK" : "8 bit : Ошибка";
-
-                // Получаем только имя файла с расширением, без полного пути
-                String fileName = file.getName();
-
-                // Форматируем строку для вывода в соответствии с заданными длинами столбцов
-                String formattedTextureName = String.format("%-" + textureNameLength + "s", fileName);
-                String formattedResolution = String.format("%-" + resolutionLength + "s", " Размер: " + width + " x " + height);
-                String formattedAlphaChannel = String.format("%-" + alphaChannelLength + "s", alphaChannelStatus);
-                String formattedBitDepth = String.format("%-" + bitDepthLength + "s", bitDepthStatus);
-
-                // Проверка размера текстуры и запись результатов в один столбец с 5 пробелами между проверками
-                if (!isValidTextureSize(width, height)) {
-                    result.addMessage(formattedTextureName + separator + formattedResolution + separator + "Ошибка: недопустимый размер");
-                } else {
-                    result.addMessage(formattedTextureName + separator + formattedResolution + separator + formattedAlphaChannel + separator + formattedBitDepth);
-                }
+        TextureCheckResult checkResult = new TextureCheckResult();
+        try (InputStream inputStream = new BufferedInputStream(source.open())) {
+            int width;
+            int height;
+            boolean hasAlpha;
+            int pixelSize;
+            boolean singleColor = true;
+            boolean alphaUsed = true;
 
-                // Проверка цветовой палитры для 256x256 текстур
-                if (width == 256 && height == 256 && !isSingleColorTexture(image)) {
-                    result.addMessage(fileName + ": Ошибка - текстура 256x256 не является заглушкой.");
-                }
+            // Метаданные из заголовка PNG; не-PNG файлы декодируются целиком
+            PngHeader header = readPngHeader(inputStream);
+            if (header != null) {
+                width = header.getWidth();
+                height = header.getHeight();
+                hasAlpha = header.hasAlpha();
+                pixelSize = header.getPixelSize();
 
-                // Извлечение UDIM из имени файла и запись максимального разрешения для этого UDIM
-                int udim = extractUdimFromFileName(fileName);
-                int currentMaxResolution = udimResolutionMap.getOrDefault(udim, 0);
-                int textureResolution = Math.max(width, height);
-                if (textureResolution > currentMaxResolution) {
-                    udimResolutionMap.put(udim, textureResolution);
+                // Пиксели нужны только для проверки заглушки и использования альфы: один построчный проход.
+                // При FAIL_FAST текстура с ошибкой размера или глубины цвета по заголовку не сканируется
+                boolean checkStub = width == ValidationRules.STUB_TEXTURE_SIZE && height == ValidationRules.STUB_TEXTURE_SIZE;
+                boolean headerFailed = !isValidTextureSize(width, height) || !checkBitDepth(pixelSize);
+                if ((checkStub || hasAlpha) && ValidationRules.EXECUTION_POLICY.runsNextTier(headerFailed)) {
+                    // Сканер держит две строки изображения
+                    long rowBytes = 2 * (((long) width * header.getChannelCount() * header.getBitDepth() + 7) / 8);
+                    resourceGovernor.reserve(rowBytes, "строки текстуры " + fileName);
+                    try {
+                        PngPixelScanner scanner = PngPixelScanner.scan(header, inputStream, checkStub, hasAlpha);
+                        singleColor = scanner.isSingleColor();
+                        alphaUsed = scanner.isAlphaUsed();
+                    } finally {
+                        resourceGovernor.release(rowBytes);
+                    }
+                }
+            } else {
+                try (DecodedImage decoded = readImage(fileName, inputStream, memoryBudget, budgetKb)) {
+                    if (decoded == null) {
+                        checkResult.add("texture-read", Finding.Severity.ERROR, fileName,
+                                "Ошибка при обработке файла " + fileName + ": формат изображения не распознан", null);
+                        return checkResult;
+                    }
+                    BufferedImage image = decoded.image;
+                    width = image.getWidth();
+                    height = image.getHeight();
+                    hasAlpha = image.getColorModel().hasAlpha();
+                    pixelSize = image.getColorModel().getPixelSize();
+                    if (width == ValidationRules.STUB_TEXTURE_SIZE && height == ValidationRules.STUB_TEXTURE_SIZE) {
+                        singleColor = isSingleColorTexture(image);
+                    }
                 }
+            }
+
+            String alphaChannelStatus = hasAlpha ? " Альфа-канал: есть" : " Альфа-канал: отсутствует";
+
+            boolean is8Bit = checkBitDepth(pixelSize);
+            String bitDepthStatus = is8Bit ? "8 bit : OK" : "8 bit : Ошибка";
+
+            // Форматируем строку для вывода в соответствии с заданными длинами столбцов
+            String formattedTextureName = String.format("%-" + textureNameLength + "s", fileName);
+            String formattedResolution = String.format("%-" + resolutionLength + "s", " Размер: " + width + " x " + height);
+            String formattedAlphaChannel = String.format("%-" + alphaChannelLength + "s", alphaChannelStatus);
+            String formattedBitDepth = String.format("%-" + bitDepthLength + "s", bitDepthStatus);
+
+            Map<String, Number> metrics = Map.of("width", width, "height", height, "pixelSize", pixelSize, "alpha", hasAlpha ? 1 : 0);
+
+            // Проверка размера текстуры и запись результатов в один столбец с 5 пробелами между проверками
+            if (!isValidTextureSize(width, height)) {
+                checkResult.add("texture-size", Finding.Severity.ERROR, fileName,
+                        formattedTextureName + separator + formattedResolution + separator + "Ошибка: недопустимый размер", metrics);
+            } else {
+                checkResult.add("texture-format", is8Bit ? Finding.Severity.INFO : Finding.Severity.ERROR, fileName,
+                        formattedTextureName + separator + formattedResolution + separator + formattedAlphaChannel + separator + formattedBitDepth, metrics);
+            }
+
+            // Альфа-канал объявлен, но все пиксели непрозрачны (альфа = 255)
+            if (hasAlpha && !alphaUsed) {
+                checkResult.add("texture-alpha-usage", Finding.Severity.INFO, fileName,
+                        fileName + ": альфа-канал не используется (все значения 255)", null);
+            }
 
-            } catch (IOException e) {
-                result.addMessage("Ошибка при обработке файла " + new File(textureFile).getName() + ": " + e.getMessage());
+            // Проверка цветовой палитры для 256x256 текстур
+            if (width == ValidationRules.STUB_TEXTURE_SIZE && height == ValidationRules.STUB_TEXTURE_SIZE && !singleColor) {
+                checkResult.add("texture-stub", Finding.Severity.ERROR, fileName,
+                        fileName + ": Ошибка - текстура 256x256 не является заглушкой.", null);
+            }
+
+            // Извлечение UDIM из имени файла и максимальное разрешение текстуры
+            checkResult.udim = extractUdimFromFileName(fileName);
+            checkResult.resolution = Math.max(width, height);
+
+        } catch (ResourceLimitException e) {
+            checkResult.add(ResourceGovernor.RESOURCE_LIMIT, Finding.Severity.ERROR, fileName,
+                    "Ошибка при обработке файла " + fileName + ": " + e.getMessage(), null);
+        } catch (IOException e) {
+            checkResult.add("texture-read", Finding.Severity.ERROR, fileName,
+                    "Ошибка при обработке файла " + fileName + ": " + e.getMessage(), null);
+        }
+        return checkResult;
+    }
+
+    // Декодирование не-PNG файла через ImageIO: размер берется из заголовка, и изображение (4 байта на пиксель)
+    // резервируется в бюджете памяти до выделения - в ResourceGovernor и разрешениями семафора по размеру
+    // (не больше всего бюджета). Резерв держится, пока изображение используется, и снимается при закрытии.
+    // null, если формат не распознан
+    private DecodedImage readImage(String fileName, InputStream inputStream, Semaphore memoryBudget, int budgetKb)
+            throws IOException, InterruptedException {
+        ImageInputStream imageStream = ImageIO.createImageInputStream(inputStream);
+        Iterator<ImageReader> readers = imageStream != null ? ImageIO.getImageReaders(imageStream) : null;
+        if (readers == null || !readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(imageStream, true, true);
+            long decodedBytes = 4L * reader.getWidth(0) * reader.getHeight(0);
+            int permits = (int) Math.min(budgetKb, Math.max(1, decodedBytes / 1024));
+            resourceGovernor.reserve(decodedBytes, "изображение " + fileName);
+            try {
+                memoryBudget.acquire(permits);
+            } catch (InterruptedException e) {
+                resourceGovernor.release(decodedBytes);
+                throw e;
+            }
+            DecodedImage decoded = new DecodedImage(memoryBudget, permits, decodedBytes);
+            try {
+                decoded.image = reader.read(0);
+            } catch (IOException | RuntimeException e) {
+                decoded.close();
+                throw e;
             }
+            return decoded;
+        } finally {
+            reader.dispose();
+            imageStream.close();
         }
     }
 
+    // Декодированное изображение вместе с его резервом памяти
+    private class DecodedImage implements AutoCloseable {
+        private final Semaphore memoryBudget;
+        private final int permits;
+        private final long decodedBytes;
+        private BufferedImage image;
+
+        DecodedImage(Semaphore memoryBudget, int permits, long decodedBytes) {
+            this.memoryBudget = memoryBudget;
+            this.permits = permits;
+            this.decodedBytes = decodedBytes;
+        }
+
+        @Override
+        public void close() {
+            memoryBudget.release(permits);
+            resourceGovernor.release(decodedBytes);
+        }
+    }
+
+    // Чтение заголовка PNG; null, если файл не PNG (поток тогда остается в начале)
+    private PngHeader readPngHeader(InputStream inputStream) throws IOException {
+        inputStream.mark(8);
+        byte[] signature = inputStream.readNBytes(8);
+        inputStream.reset();
+        if (!PngHeader.isPng(signature)) {
+            return null;
+        }
+        return PngHeader.read(inputStream);
+    }
+
     // Метод для проверки допустимых размеров текстур
     private boolean isValidTextureSize(int width, int height) {
-        return (width == 256 && height == 256) || (width == 2048 && height == 2048) || (width == 4096 && height == 4096);
+        for (int size : ValidationRules.TEXTURE_SIZES) {
+            if (width == size && height == size) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // Метод для проверки, что текстура 8-bit
-    private boolean checkBitDepth(BufferedImage image) {
-        return image.getColorModel().getPixelSize() == 8;
+    private boolean checkBitDepth(int pixelSize) {
+        return pixelSize == ValidationRules.TEXTURE_PIXEL_SIZE;
     }
 
     // Метод для проверки, что текстура 256x256 состоит из одного цвета
@@ -91,10 +364,12 @@ public class TextureValidator {
         // Простой метод для проверки, все ли пиксели имеют один цвет
         int width = image.getWidth();
         int height = image.getHeight();
+        int[] row = new int[width];
         int firstPixel = image.getRGB(0, 0);
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (image.getRGB(x, y) != firstPixel) {
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int pixel : row) {
+                if (pixel != firstPixel) {
                     return false;
                 }
             }
@@ -115,4 +390,29 @@ public class TextureValidator {
         }
         return -1;
     }
-}
\ No newline at end of file
+
+    // Источник содержимого текстуры: запись архива или уже полученные байты загрузки
+    public interface TextureSource {
+        InputStream open() throws IOException;
+    }
+
+    // Результат проверки одной текстуры: находки (раздел назначается при записи в отчет) и вклад в udimResolutionMap
+    static class TextureCheckResult {
+        final List<Finding> findings = new ArrayList<>();
+        int udim = -1;
+        int resolution;
+
+        void add(String check, Finding.Severity severity, String fileName, String message, Map<String, Number> metrics) {
+            findings.add(new Finding(0, check, severity, fileName, message, metrics));
+        }
+
+        boolean hasCheck(String check) {
+            for (Finding finding : findings) {
+                if (finding.getCheck().equals(check)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
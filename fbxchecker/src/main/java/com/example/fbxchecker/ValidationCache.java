@@ -0,0 +1,316 @@
+package com.example.fbxchecker;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ValidationCache {
+    // Кэш результатов проверки по содержимому архива. Ключ - SHA-256 от имени и содержимого архива
+    // (имя определяет базовое имя проекта) и отпечатка правил ValidationRules.
+    // Тот же кэш хранит результаты отдельных записей архива по CRC-32 и размеру (см. entryKey).
+    // Два уровня: LRU в памяти и каталог на диске; оба ограничены размером и возрастом записей.
+    // Значения хранятся как JSON, поэтому изменение полученного объекта не меняет запись в кэше
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // Не чаще этого каталог на диске просматривается ради устаревших записей (и не реже maxAge)
+    private static final long DISK_SCAN_INTERVAL_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private final Path directory;       // null - без дискового уровня
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Duration maxAge;
+
+    // Порядок доступа: первой идет давно не использованная запись
+    private final LinkedHashMap<String, CachedResult> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    // Размер каталога по учету записей и удалений; -1 - еще не подсчитан. Каталог целиком просматривается
+    // только при превышении maxDiskBytes или по интервалу, а не при каждой записи
+    private long diskBytes = -1;
+    private long lastDiskScan;
+
+    public ValidationCache(Path directory, long maxMemoryBytes, long maxDiskBytes, Duration maxAge) {
+        this.directory = directory;
+        this.maxMemoryBytes = Math.max(0, maxMemoryBytes);
+        this.maxDiskBytes = Math.max(0, maxDiskBytes);
+        this.maxAge = maxAge;
+    }
+
+    // Кэш для CLI и пакетного режима включается системным свойством -Dfbxchecker.cache.dir=<каталог>; иначе null
+    public static ValidationCache fromSystemProperties() {
+        String cacheDirectory = System.getProperty("fbxchecker.cache.dir");
+        if (cacheDirectory == null || cacheDirectory.isBlank()) {
+            return null;
+        }
+        return new ValidationCache(Path.of(cacheDirectory),
+                Long.getLong("fbxchecker.cache.memory-max-mb", 64) * 1024 * 1024,
+                Long.getLong("fbxchecker.cache.disk-max-mb", 2048) * 1024 * 1024,
+                Duration.ofHours(Long.getLong("fbxchecker.cache.max-age-hours", 168)));
+    }
+
+    // Ключ архива: имя файла, содержимое и отпечаток правил
+    public static String key(Path archive) throws IOException {
+        return key(archive, ValidationRules.fingerprint());
+    }
+
+    static String key(Path archive, String rulesFingerprint) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(rulesFingerprint.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(archive.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(archive), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Ключ записи архива по данным центрального каталога: вид результата, имя, CRC-32, размер и отпечаток правил.
+    // extra - прочие входные данные результата (например, базовое имя проекта); null, если CRC записи неизвестен
+    public static String entryKey(String kind, ArchiveEntry entry, String... extra) {
+        return entryKey(ValidationRules.fingerprint(), kind, entry, extra);
+    }
+
+    static String entryKey(String rulesFingerprint, String kind, ArchiveEntry entry, String... extra) {
+        if (entry.getCrc() < 0 || entry.getSize() < 0) {
+            return null;
+        }
+        MessageDigest digest = newDigest();
+        String source = rulesFingerprint + "\0" + kind + "\0" + entry.getName()
+                + "\0" + entry.getCrc() + "\0" + entry.getSize() + "\0" + String.join("\0", Arrays.asList(extra));
+        return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    // Отчет по ключу архива; null, если его нет ни в памяти, ни на диске или он устарел
+    public ValidationResult get(String key) {
+        ValidationResult.Snapshot snapshot = get(key, ValidationResult.Snapshot.class);
+        return snapshot == null ? null : ValidationResult.fromSnapshot(snapshot);
+    }
+
+    public void put(String key, ValidationResult result) {
+        put(key, result.toSnapshot());
+    }
+
+    // Значение по ключу; null, если его нет или оно устарело
+    public <T> T get(String key, Class<T> type) {
+        CachedResult cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+            if (cached != null && isExpired(cached)) {
+                removeFromMemory(key);
+                cached = null;
+            }
+        }
+
+        if (cached == null) {
+            cached = readFromDisk(key);
+            if (cached == null) {
+                return null;
+            }
+            putInMemory(key, cached);
+        }
+
+        try {
+            return OBJECT_MAPPER.readValue(cached.json, type);
+        } catch (IOException e) {
+            System.out.println("Ошибка при чтении кэша проверки: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(String key, Object value) {
+        String json;
+        try {
+            json = OBJECT_MAPPER.writeValueAsString(value);
+        } catch (IOException e) {
+            System.out.println("Ошибка при записи кэша проверки: " + e.getMessage());
+            return;
+        }
+        CachedResult cached = new CachedResult(json, System.currentTimeMillis());
+        putInMemory(key, cached);
+        writeToDisk(key, cached);
+    }
+
+    private boolean isExpired(CachedResult cached) {
+        return System.currentTimeMillis() - cached.createdAt > maxAge.toMillis();
+    }
+
+    private void putInMemory(String key, CachedResult cached) {
+        synchronized (memory) {
+            removeFromMemory(key);
+            memory.put(key, cached);
+            memoryBytes += cached.size;
+
+            // Вытеснение давно не использованных записей сверх лимита памяти
+            Iterator<Map.Entry<String, CachedResult>> iterator = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+                memoryBytes -= iterator.next().getValue().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    private void removeFromMemory(String key) {
+        CachedResult removed = memory.remove(key);
+        if (removed != null) {
+            memoryBytes -= removed.size;
+        }
+    }
+
+    private CachedResult readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key + ".json");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            CachedFile stored = OBJECT_MAPPER.readValue(file.toFile(), CachedFile.class);
+            if (stored.value == null) {
+                return null;
+            }
+            CachedResult cached = new CachedResult(OBJECT_MAPPER.writeValueAsString(stored.value), stored.createdAt);
+            if (isExpired(cached)) {
+                long fileBytes = Files.size(file);
+                if (Files.deleteIfExists(file)) {
+                    addDiskBytes(-fileBytes);
+                }
+                return null;
+            }
+            // Время изменения файла служит меткой последнего использования для вытеснения с диска
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return cached;
+        } catch (IOException e) {
+            System.out.println("Ошибка при чтении кэша проверки " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedResult cached) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            CachedFile stored = new CachedFile();
+            stored.createdAt = cached.createdAt;
+            stored.value = OBJECT_MAPPER.readTree(cached.json);
+            // Запись через временный файл, чтобы параллельный читатель не увидел неполный JSON
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            OBJECT_MAPPER.writeValue(temporary.toFile(), stored);
+            Path file = directory.resolve(key + ".json");
+            long writtenBytes = Files.size(temporary);
+            long replacedBytes = Files.isRegularFile(file) ? Files.size(file) : 0;
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            addDiskBytes(writtenBytes - replacedBytes);
+            evictFromDiskIfNeeded();
+        } catch (IOException e) {
+            System.out.println("Ошибка при записи кэша проверки: " + e.getMessage());
+        }
+    }
+
+    private synchronized void addDiskBytes(long bytes) {
+        if (diskBytes >= 0) {
+            diskBytes += bytes;
+        }
+    }
+
+    // Просмотр каталога при первой записи, при превышении лимита размера и не чаще интервала - ради устаревших записей
+    private synchronized void evictFromDiskIfNeeded() throws IOException {
+        long now = System.currentTimeMillis();
+        if (diskBytes < 0 || diskBytes > maxDiskBytes || now - lastDiskScan > Math.min(maxAge.toMillis(), DISK_SCAN_INTERVAL_MILLIS)) {
+            evictFromDisk(now);
+        }
+    }
+
+    // Удаление записей, не использованных дольше maxAge, затем самых давних сверх лимита размера.
+    // Размер сокращается до 90% лимита, чтобы следующие записи не вызывали просмотр каталога снова
+    private synchronized void evictFromDisk(long now) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = new ArrayList<>(stream.filter(file -> file.getFileName().toString().endsWith(".json")).toList());
+        }
+
+        long totalBytes = 0;
+        List<Path> kept = new ArrayList<>();
+        Map<Path, Long> lastUsed = new LinkedHashMap<>();
+        for (Path file : files) {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (now - modified > maxAge.toMillis()) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            lastUsed.put(file, modified);
+            totalBytes += Files.size(file);
+            kept.add(file);
+        }
+
+        if (totalBytes > maxDiskBytes) {
+            kept.sort((a, b) -> Long.compare(lastUsed.get(a), lastUsed.get(b)));
+            for (Path file : kept) {
+                if (totalBytes <= maxDiskBytes / 10 * 9) {
+                    break;
+                }
+                totalBytes -= Files.size(file);
+                Files.deleteIfExists(file);
+            }
+        }
+        diskBytes = totalBytes;
+        lastDiskScan = now;
+    }
+
+    // Запись в памяти: значение в JSON и время проверки; size - оценка занимаемой памяти
+    private static class CachedResult {
+        final String json;
+        final long createdAt;
+        final long size;
+
+        CachedResult(String json, long createdAt) {
+            this.json = json;
+            this.createdAt = createdAt;
+            this.size = 64 + 2L * json.length();
+        }
+    }
+
+    // Формат файла на диске
+    private static class CachedFile {
+        long createdAt;
+        JsonNode value;
+    }
+}
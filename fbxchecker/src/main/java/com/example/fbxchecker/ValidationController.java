@@ -0,0 +1,135 @@
+package com.example.fbxchecker;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+@RestController
+@RequestMapping("/api")
+public class ValidationController {
+    // Проверка архива, загружаемого телом запроса (application/zip). Тело читается как поток записей ZIP:
+    // сцена разбирается и текстуры проверяются, пока следующие записи еще загружаются.
+    // Ответ - тот же текстовый отчет, что пишет CLI в validation_report.txt.
+    // Одновременно проверяется не больше maxConcurrentUploads загрузок, остальные получают 503;
+    // бюджеты памяти текстур, буфера загрузки и проверки (ResourceGovernor) делятся между ними
+
+    private final int maxConcurrentUploads;
+    private final Semaphore uploads;
+
+    public ValidationController(@Value("${fbxchecker.upload.max-concurrent:2}") int maxConcurrentUploads) {
+        this.maxConcurrentUploads = Math.max(1, maxConcurrentUploads);
+        this.uploads = new Semaphore(this.maxConcurrentUploads);
+    }
+
+    @PostMapping(value = "/validate",
+            consumes = {"application/zip", "application/octet-stream"},
+            produces = "text/plain;charset=UTF-8")
+    public ResponseEntity<String> validate(@RequestParam("name") String archiveName, InputStream body) {
+        if (!uploads.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Ошибка: выполняется слишком много проверок, повторите позже");
+        }
+        try {
+            return ResponseEntity.ok(validateUpload(archiveName, body));
+        } finally {
+            uploads.release();
+        }
+    }
+
+    private String validateUpload(String archiveName, InputStream body) {
+        ValidationResult result = new ValidationResult();
+
+        // Базовое имя берется из имени загружаемого архива
+        String baseName = FbxValidator.extractBaseName(archiveName);
+        result.addMessage("1. Имя проекта: " + baseName);  // 1.
+        result.addSeparator();
+
+        CountingInputStream countingBody = new CountingInputStream(body);
+        ResourceGovernor resourceGovernor = ResourceGovernor.forConcurrentJobs(maxConcurrentUploads);
+        TextureValidator textureValidator = new TextureValidator(Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().maxMemory() / 4 / maxConcurrentUploads);
+        try (ArchiveValidator archiveValidator = new ArchiveValidator(baseName, textureValidator,
+                Runtime.getRuntime().maxMemory() / 8 / maxConcurrentUploads)) {
+            archiveValidator.setResourceGovernor(resourceGovernor);
+            try (ZipInputStream zipInputStream = new ZipInputStream(countingBody)) {
+                ZipEntry entry;
+                while ((entry = zipInputStream.getNextEntry()) != null) {
+                    // Центрального каталога еще нет: ограничения распаковки проверяются по мере чтения записей
+                    resourceGovernor.checkStreamedEntry(entry.getName());
+                    InputStream content = resourceGovernor.limitStreamedEntry(zipInputStream, countingBody::getCount);
+                    archiveValidator.acceptEntry(entry.getName(), entry.isDirectory(), content);
+                    // Непрочитанный остаток записи тоже проходит через лимиты, а не распаковывается при переходе к следующей
+                    content.transferTo(OutputStream.nullOutputStream());
+                }
+                // Центральный каталог в конце архива тоже входит в его размер
+                countingBody.transferTo(OutputStream.nullOutputStream());
+            }
+
+            // Размер известен только после приема всего тела
+            new FbxFileValidator().validateArchiveSize(archiveName, countingBody.getCount(), result);  // 2.
+            result.addSeparator();
+
+            archiveValidator.finish(result);
+        } catch (ResourceLimitException e) {
+            result.addFinding(ResourceGovernor.RESOURCE_LIMIT, Finding.Severity.ERROR, null,
+                    "Ошибка: архив отклонен - " + e.getMessage(), null);
+        } catch (IOException e) {
+            result.addMessage("Ошибка при чтении архива: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.addMessage("Ошибка: проверка архива прервана");
+        }
+
+        return result.generateReport();
+    }
+
+    // Подсчет принятых байт тела запроса
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
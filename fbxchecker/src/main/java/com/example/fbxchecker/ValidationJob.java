@@ -0,0 +1,220 @@
+package com.example.fbxchecker;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+public class ValidationJob implements ValidationListener {
+    // Задание на проверку архива: состояние и отчет хранятся отдельно для каждого задания.
+    // Ход проверки хранится как события (готовые разделы, последние значения счетчиков, завершение),
+    // чтобы подписчик, пришедший позже, сначала получил уже случившееся
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+    private final String archiveName;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile ValidationResult result;
+    private volatile String error;
+    private volatile Instant finishedAt;
+
+    private final List<Event> sectionEvents = new ArrayList<>();
+    private final Map<String, Event> progressEvents = new LinkedHashMap<>();
+    private Event finishEvent;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    public ValidationJob(String id, String archiveName) {
+        this.id = id;
+        this.archiveName = archiveName;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void complete(ValidationResult result) {
+        this.result = result;
+        this.finishedAt = Instant.now();
+        this.status = Status.DONE;
+        publish(new Event("done", Map.of("errorCount", result.getErrorCount())));
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+        publish(new Event("failed", Map.of("error", error)));
+    }
+
+    @Override
+    public void onSectionCompleted(int section, List<Finding> findings) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("section", section);
+        data.put("hasErrors", findings.stream().anyMatch(Finding::isError));
+        data.put("findings", findings);
+        publish(new Event("section", data));
+    }
+
+    @Override
+    public void onProgress(String counter, long done, long total) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("counter", counter);
+        data.put("done", done);
+        data.put("total", total);
+        publish(new Event("progress", data));
+    }
+
+    // Подписка на события: сначала уже случившиеся, затем новые. Возвращает отмену подписки.
+    // История и новые события идут через одну очередь подписчика, поэтому событие не приходит дважды
+    // и новые события не обгоняют историю
+    public Runnable subscribe(Consumer<Event> subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        synchronized (this) {
+            subscription.pending.addAll(sectionEvents);
+            subscription.pending.addAll(progressEvents.values());
+            if (finishEvent != null) {
+                subscription.pending.add(finishEvent);
+            } else {
+                subscriptions.add(subscription);
+            }
+        }
+        subscription.deliver();
+        return () -> {
+            synchronized (this) {
+                subscriptions.remove(subscription);
+            }
+        };
+    }
+
+    // Событие сохраняется и ставится в очереди подписчиков под блокировкой, а подписчики вызываются вне ее,
+    // чтобы медленный клиент не задерживал потоки проверки
+    private void publish(Event event) {
+        List<Subscription> current;
+        synchronized (this) {
+            switch (event.getName()) {
+                case "section":
+                    sectionEvents.add(event);
+                    break;
+                case "progress":
+                    progressEvents.put((String) event.getData().get("counter"), event);
+                    break;
+                default:
+                    finishEvent = event;
+            }
+            for (Subscription subscription : subscriptions) {
+                subscription.enqueue(event);
+            }
+            current = new ArrayList<>(subscriptions);
+            if (finishEvent == event) {
+                subscriptions.clear();
+            }
+        }
+        for (Subscription subscription : current) {
+            subscription.deliver();
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getArchiveName() {
+        return archiveName;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        Status current = status;
+        return current == Status.DONE || current == Status.FAILED;
+    }
+
+    // Результат проверки; null, пока задание не завершено
+    public ValidationResult getResult() {
+        return result;
+    }
+
+    // Текст отчета собирается из находок при запросе; null, пока задание не завершено
+    public String getReport() {
+        ValidationResult current = result;
+        return current != null ? current.generateReport() : null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    // Очередь событий одного подписчика. События передаются по порядку и одним потоком за раз:
+    // поток, который застал доставку занятой, только оставляет событие в очереди
+    private static class Subscription {
+        private final Consumer<Event> subscriber;
+        private final Queue<Event> pending = new ArrayDeque<>();
+        private boolean delivering;
+
+        Subscription(Consumer<Event> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        synchronized void enqueue(Event event) {
+            pending.add(event);
+        }
+
+        void deliver() {
+            synchronized (this) {
+                if (delivering) {
+                    return;
+                }
+                delivering = true;
+            }
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = pending.poll();
+                    if (event == null) {
+                        delivering = false;
+                        return;
+                    }
+                }
+                subscriber.accept(event);
+            }
+        }
+    }
+
+    // Событие хода проверки: section, progress, done или failed
+    public static class Event {
+        private final String name;
+        private final Map<String, Object> data;
+
+        Event(String name, Map<String, Object> data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, Object> getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.fbxchecker;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class ValidationJobController {
+    // Асинхронная проверка: POST возвращает id задания сразу, статус и отчет запрашиваются позже
+
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType("text", "plain", StandardCharsets.UTF_8);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    // Подписка на события живет не дольше, чем может идти проверка большого архива
+    private static final long EVENTS_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final ValidationJobService jobService;
+
+    public ValidationJobController(ValidationJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping(consumes = {"application/zip", "application/octet-stream"})
+    public ResponseEntity<Map<String, Object>> submit(@RequestParam("name") String archiveName, InputStream body) throws IOException {
+        try {
+            ValidationJob job = jobService.submit(archiveName, body);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(toStatus(job));
+        } catch (RejectedExecutionException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", "Очередь проверок заполнена, повторите позже");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> status(@PathVariable("id") String id) {
+        ValidationJob job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(toStatus(job));
+    }
+
+    @GetMapping(value = "/{id}/report", produces = "text/plain;charset=UTF-8")
+    public ResponseEntity<String> report(@PathVariable("id") String id) {
+        ValidationJob job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        switch (job.getStatus()) {
+            case DONE:
+                return ResponseEntity.ok(job.getReport());
+            case FAILED:
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .contentType(TEXT_PLAIN_UTF8)
+                        .body("Ошибка при проверке архива: " + job.getError());
+            default:
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .contentType(TEXT_PLAIN_UTF8)
+                        .body("Отчет еще не готов: " + job.getStatus());
+        }
+    }
+
+    // Ход проверки в виде Server-Sent Events: section (готовый раздел с находками), progress
+    // (textures, triangles), в конце done или failed. Уже случившиеся события отправляются сразу после подписки
+    @GetMapping(value = "/{id}/events", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> events(@PathVariable("id") String id) {
+        ValidationJob job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT_MS);
+        Runnable unsubscribe = job.subscribe(event -> {
+            try {
+                emitter.send(SseEmitter.event().name(event.getName()).data(event.getData(), MediaType.APPLICATION_JSON));
+                if (event.getName().equals("done") || event.getName().equals("failed")) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился: проверка продолжается, события ему больше не отправляются
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return ResponseEntity.ok(emitter);
+    }
+
+    // Находки проверки для конвейера: одна находка - одна строка JSON, выводятся потоком
+    @GetMapping(value = "/{id}/findings", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> findings(@PathVariable("id") String id) {
+        ValidationJob job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ValidationResult result = job.getResult();
+        if (result == null) {
+            HttpStatus status = job.getStatus() == ValidationJob.Status.FAILED ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.CONFLICT;
+            return ResponseEntity.status(status).build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            result.writeJsonLines(writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // Статус задания без текста отчета
+    private Map<String, Object> toStatus(ValidationJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", job.getId());
+        status.put("name", job.getArchiveName());
+        status.put("status", job.getStatus());
+        status.put("createdAt", job.getCreatedAt());
+        status.put("finishedAt", job.getFinishedAt());
+        status.put("error", job.getError());
+        ValidationResult result = job.getResult();
+        if (result != null) {
+            status.put("errorCount", result.getErrorCount());
+        }
+        return status;
+    }
+}
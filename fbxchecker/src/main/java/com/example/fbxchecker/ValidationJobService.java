@@ -0,0 +1,145 @@
+package com.example.fbxchecker;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class ValidationJobService {
+    // Асинхронные проверки архивов. Одновременно выполняется не больше maxConcurrentJobs заданий,
+    // еще queueCapacity ждут в очереди, остальные отклоняются. У каждого задания свой каталог с архивом
+    // и свой отчет в памяти, бюджеты памяти текстур и проверки (ResourceGovernor) делятся между одновременными заданиями
+    // Повторно загруженный архив берется из кэша результатов (ValidationCache), если он включен
+
+    private final int maxConcurrentJobs;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ValidationJob> jobs = new ConcurrentHashMap<>();
+    private final ValidationCache cache;  // null, если кэш выключен
+    private Path workDirectory;
+
+    public ValidationJobService(@Value("${fbxchecker.jobs.max-concurrent:2}") int maxConcurrentJobs,
+                                @Value("${fbxchecker.jobs.queue-capacity:16}") int queueCapacity,
+                                @Value("${fbxchecker.jobs.retention-minutes:60}") long retentionMinutes,
+                                @Value("${fbxchecker.cache.enabled:true}") boolean cacheEnabled,
+                                @Value("${fbxchecker.cache.directory:${java.io.tmpdir}/fbxchecker-cache}") String cacheDirectory,
+                                @Value("${fbxchecker.cache.memory-max-mb:64}") long cacheMemoryMaxMb,
+                                @Value("${fbxchecker.cache.disk-max-mb:2048}") long cacheDiskMaxMb,
+                                @Value("${fbxchecker.cache.max-age-hours:168}") long cacheMaxAgeHours) {
+        this.maxConcurrentJobs = Math.max(1, maxConcurrentJobs);
+        this.retention = Duration.ofMinutes(Math.max(1, retentionMinutes));
+        this.cache = cacheEnabled
+                ? new ValidationCache(cacheDirectory.isBlank() ? null : Path.of(cacheDirectory),
+                        cacheMemoryMaxMb * 1024 * 1024, cacheDiskMaxMb * 1024 * 1024, Duration.ofHours(cacheMaxAgeHours))
+                : null;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.maxConcurrentJobs, this.maxConcurrentJobs,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> new Thread(runnable, "validation-job-" + threadNumber.incrementAndGet()));
+    }
+
+    // Прием архива и постановка задания в очередь. RejectedExecutionException, если очередь заполнена
+    public ValidationJob submit(String archiveName, InputStream body) throws IOException {
+        pruneFinishedJobs();
+        if (executor.getQueue().remainingCapacity() == 0) {
+            // Ранний отказ, чтобы не сохранять архив, который все равно не будет проверен
+            throw new RejectedExecutionException("Очередь проверок заполнена");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path jobDirectory = Files.createDirectories(getWorkDirectory().resolve(id));
+        // Имя файла сохраняется: из него берется базовое имя проекта (раздел 1)
+        Path archivePath = jobDirectory.resolve(safeFileName(archiveName));
+        try {
+            Files.copy(body, archivePath);
+        } catch (IOException e) {
+            deleteJobDirectory(jobDirectory);
+            throw e;
+        }
+
+        ValidationJob job = new ValidationJob(id, archiveName);
+        jobs.put(id, job);
+        try {
+            executor.execute(() -> run(job, archivePath));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            deleteJobDirectory(jobDirectory);
+            throw e;
+        }
+        return job;
+    }
+
+    // Задание по id; null, если такого нет или оно уже удалено по сроку хранения
+    public ValidationJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    private void run(ValidationJob job, Path archivePath) {
+        job.markRunning();
+        try {
+            TextureValidator textureValidator = new TextureValidator(
+                    Runtime.getRuntime().availableProcessors(),
+                    Runtime.getRuntime().maxMemory() / 4 / maxConcurrentJobs);
+            ValidationResult result = FbxValidator.validate(archivePath.toString(), null, textureValidator, cache, job,
+                    ResourceGovernor.forConcurrentJobs(maxConcurrentJobs));
+            job.complete(result);
+        } catch (Exception e) {
+            job.fail(e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            deleteJobDirectory(archivePath.getParent());
+        }
+    }
+
+    // Только имя файла, без каталогов: имя из запроса не должно выводить за пределы каталога задания
+    private static String safeFileName(String archiveName) {
+        String fileName = archiveName.substring(Math.max(archiveName.lastIndexOf('/'), archiveName.lastIndexOf('\\')) + 1);
+        return fileName.isEmpty() || fileName.equals(".") || fileName.equals("..") ? "archive.zip" : fileName;
+    }
+
+    // Удаление завершенных заданий старше срока хранения
+    private void pruneFinishedJobs() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+
+    private synchronized Path getWorkDirectory() throws IOException {
+        if (workDirectory == null) {
+            workDirectory = Files.createTempDirectory("fbxchecker-jobs-");
+        }
+        return workDirectory;
+    }
+
+    private void deleteJobDirectory(Path jobDirectory) {
+        try (var paths = Files.walk(jobDirectory)) {
+            paths.sorted((a, b) -> b.compareTo(a)) // Сортируем для удаления вложенных файлов сначала
+                    .forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Ошибка при удалении файлов задания: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        executor.shutdownNow();
+        if (workDirectory != null) {
+            deleteJobDirectory(workDirectory);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.fbxchecker;
+
+import java.util.List;
+
+public interface ValidationListener {
+    // Ход проверки: раздел отчета готов (в порядке завершения, а не номеров) или изменился счетчик прогресса.
+    // Вызывается из потоков проверок, поэтому реализация должна быть потокобезопасной
+
+    ValidationListener NONE = new ValidationListener() {
+    };
+
+    // Счетчики прогресса
+    String TEXTURES = "textures";
+    String TRIANGLES = "triangles";
+
+    default void onSectionCompleted(int section, List<Finding> findings) {
+    }
+
+    // done из total; total может расти, пока записи архива еще поступают
+    default void onProgress(String counter, long done, long total) {
+    }
+
+    // Результат проверки взят из кэша (ValidationCache); разделы затем передаются onSectionCompleted
+    default void onCacheHit() {
+    }
+}
@@ -1,32 +1,208 @@
 package com.example.fbxchecker;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ValidationResult {
-    private final List<String> messages = new ArrayList<>();
+    // Результат проверки - находки (Finding) в порядке отчета и разделители разделов.
+    // Счетчики ошибок по разделам и проверкам обновляются при добавлении, поэтому hasErrors и сводки
+    // не просматривают сообщения. Текстовый отчет и JSON Lines выводятся из находок потоком
+
+    // Заголовок раздела отчета: "4. Версия FBX: ..."
+    private static final Pattern SECTION_HEADER = Pattern.compile("^(\\d+)\\. ");
+    // Идентификаторы проверок для строк без типа, по номеру раздела
+    private static final String[] SECTION_CHECKS = {
+            "general", "project-name", "archive", "file-names", "fbx-version",
+            "object-names", "materials", "polycount", "textures", "texel-density"
+    };
+    private static final String SEPARATOR_LINE = "-------------------------------------------------";
+
+    private static final ObjectWriter JSON_LINE_WRITER = new ObjectMapper()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .writerFor(Finding.class);
+
+    private final List<Finding> findings = new ArrayList<>();
+    // Разделители: количество находок перед каждым разделителем
+    private final IntArrayBuilder separators = new IntArrayBuilder(16);
+
+    private int currentSection;
+    private int errorCount;
+    private final Map<Integer, Boolean> sectionErrors = new LinkedHashMap<>();
+    private final Map<String, int[]> checkCounts = new HashMap<>();  // проверка -> {находки, ошибки}
 
+    // Результат из сохраненного снимка (например, из кэша проверки)
+    static ValidationResult fromSnapshot(Snapshot snapshot) {
+        ValidationResult result = new ValidationResult();
+        result.append(snapshot.findings, snapshot.separators);
+        return result;
+    }
+
+    Snapshot toSnapshot() {
+        return new Snapshot(new ArrayList<>(findings), separators.toArray().clone());
+    }
+
+    // Строка отчета без типа: заголовок "N. ..." открывает раздел N, серьезность определяется по слову "Ошибка"
     public void addMessage(String message) {
-        messages.add(message);
+        Matcher matcher = SECTION_HEADER.matcher(message);
+        if (matcher.lookingAt()) {
+            currentSection = Integer.parseInt(matcher.group(1));
+            sectionErrors.putIfAbsent(currentSection, false);
+        }
+        addFinding(Finding.fromMessage(currentSection, sectionCheck(currentSection), message));
+    }
+
+    // Типизированная находка текущего раздела
+    public void addFinding(String check, Finding.Severity severity, String subject, String message, Map<String, Number> metrics) {
+        addFinding(new Finding(currentSection, check, severity, subject, message, metrics));
+    }
+
+    // Готовая находка со своим номером раздела (например, ошибка проверки до заголовка раздела)
+    void addFinding(Finding finding) {
+        findings.add(finding);
+        currentSection = finding.getSection();
+        if (currentSection > 0) {
+            sectionErrors.putIfAbsent(currentSection, false);
+        }
+
+        int[] counts = checkCounts.computeIfAbsent(finding.getCheck(), check -> new int[2]);
+        counts[0]++;
+        if (finding.isError()) {
+            counts[1]++;
+            errorCount++;
+            if (currentSection > 0) {
+                sectionErrors.put(currentSection, true);
+            }
+        }
+    }
+
+    // Находки и разделители другого результата (например, раздела, проверенного отдельно)
+    public void addAll(ValidationResult other) {
+        append(other.findings, other.separators.toArray());
+    }
+
+    private void append(List<Finding> otherFindings, int[] otherSeparators) {
+        int findingIndex = 0;
+        for (int separator : otherSeparators) {
+            while (findingIndex < separator) {
+                addFinding(otherFindings.get(findingIndex++));
+            }
+            addSeparator();
+        }
+        while (findingIndex < otherFindings.size()) {
+            addFinding(otherFindings.get(findingIndex++));
+        }
+    }
+
+    public List<Finding> getFindings() {
+        return Collections.unmodifiableList(findings);
     }
 
+    // Строки находок без разделителей
     public List<String> getMessages() {
+        List<String> messages = new ArrayList<>(findings.size());
+        findings.forEach(finding -> messages.add(finding.getMessage()));
         return messages;
     }
 
     public boolean hasErrors() {
-        return messages.stream().anyMatch(msg -> msg.contains("Ошибка"));
+        return errorCount > 0;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    // Количество находок и ошибок проверки по ее идентификатору
+    public int getFindingCount(String check) {
+        int[] counts = checkCounts.get(check);
+        return counts == null ? 0 : counts[0];
+    }
+
+    public int getErrorCount(String check) {
+        int[] counts = checkCounts.get(check);
+        return counts == null ? 0 : counts[1];
+    }
+
+    // Наличие ошибок по разделам отчета: номер раздела -> true, если в разделе есть ошибка
+    public Map<Integer, Boolean> getSectionErrors() {
+        return Collections.unmodifiableMap(sectionErrors);
     }
 
     public String generateReport() {
-        StringBuilder report = new StringBuilder();
-        messages.forEach(msg -> report.append(msg).append("\n"));
+        StringWriter report = new StringWriter();
+        try {
+            writeReport(report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         return report.toString();
     }
 
+    // Текстовый отчет построчно, без сборки всей строки в памяти
+    public void writeReport(Writer writer) throws IOException {
+        int[] separatorPositions = separators.toArray();
+        int separatorIndex = 0;
+        for (int i = 0; i <= findings.size(); i++) {
+            while (separatorIndex < separatorPositions.length && separatorPositions[separatorIndex] == i) {
+                writer.write("\r\n\n" + SEPARATOR_LINE + "\n\r\n\n");
+                separatorIndex++;
+            }
+            if (i < findings.size()) {
+                writer.write(findings.get(i).getMessage());
+                writer.write('\n');
+            }
+        }
+    }
+
+    // Машиночитаемый вывод: одна находка - одна строка JSON
+    public void writeJsonLines(Writer writer) throws IOException {
+        for (Finding finding : findings) {
+            JSON_LINE_WRITER.writeValue(writer, finding);
+            writer.write('\n');
+        }
+    }
+
     public void addSeparator() {
-        messages.add("\r\n");
-        messages.add("-------------------------------------------------");
-        messages.add("\r\n");
+        separators.add(findings.size());
+    }
+
+    // Идентификатор проверки для строк раздела без типа
+    static String sectionCheck(int section) {
+        return section < SECTION_CHECKS.length ? SECTION_CHECKS[section] : "section-" + section;
+    }
+
+    // Находки и разделители в виде, пригодном для кэша
+    static class Snapshot {
+        private List<Finding> findings;
+        private int[] separators;
+
+        // Для чтения из кэша
+        private Snapshot() {
+        }
+
+        Snapshot(List<Finding> findings, int[] separators) {
+            this.findings = findings;
+            this.separators = separators;
+        }
     }
 }
@@ -0,0 +1,75 @@
+package com.example.fbxchecker;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+public final class ValidationRules {
+    // Действующие правила проверки. Отпечаток правил входит в ключ кэша результатов (ValidationCache):
+    // при изменении любого порога или логики проверок старые результаты перестают совпадать
+
+    // Ревизия логики проверок и формата отчета; увеличивается при изменениях, которые не видны по порогам ниже
+    public static final int REVISION = 10;
+
+    public static final long MAX_ARCHIVE_SIZE_MB = 500;
+    // Ограничения распаковки (ResourceGovernor): архив сверх них отклоняется без чтения записей
+    public static final long MAX_UNCOMPRESSED_SIZE_MB = 2048;
+    public static final int MAX_COMPRESSION_RATIO = 100;
+    public static final int MAX_ENTRY_COUNT = 1000;
+    // Бюджет памяти проверок (изображения, буферы текстур, массивы меша); по умолчанию четверть кучи.
+    // Одновременные проверки делят его поровну (ResourceGovernor.forConcurrentJobs). Зависит от машины, а не от правил, поэтому в отпечаток не входит
+    public static final long JOB_HEAP_BUDGET_MB = Long.getLong("fbxchecker.job-heap-budget-mb",
+            Math.max(64, Runtime.getRuntime().maxMemory() / 4 / (1024 * 1024)));
+    public static final int MAX_POLYGON_COUNT = 2000000;
+    public static final String UV_CHANNEL_NAME = "UVChannel_1";
+    // Порядок выполнения проверок по уровням (см. ExecutionPolicy); задается свойством -Dfbxchecker.execution-policy
+    public static final ExecutionPolicy EXECUTION_POLICY = ExecutionPolicy.fromSystemProperties();
+    // Остановка подсчета полигонов (и отказ от texel density) сразу после превышения MAX_POLYGON_COUNT.
+    // По умолчанию включается вместе с EXECUTION_POLICY = FAIL_FAST, иначе сцена считается полностью;
+    // задается явно свойством -Dfbxchecker.polycount.fail-fast
+    public static final boolean POLYCOUNT_FAIL_FAST = Boolean.parseBoolean(System.getProperty(
+            "fbxchecker.polycount.fail-fast", String.valueOf(EXECUTION_POLICY == ExecutionPolicy.FAIL_FAST)));
+
+    // Допустимые размеры квадратных текстур; текстура STUB_TEXTURE_SIZE должна быть одноцветной заглушкой
+    public static final int[] TEXTURE_SIZES = {256, 2048, 4096};
+    public static final int STUB_TEXTURE_SIZE = 256;
+    public static final int TEXTURE_PIXEL_SIZE = 8;
+
+    // Допустимый диапазон Texel Density
+    public static final int MIN_TEXEL_DENSITY = 512;
+    public static final int MAX_TEXEL_DENSITY = 1706;
+
+    private static final String FINGERPRINT = computeFingerprint();
+
+    private ValidationRules() {
+    }
+
+    // SHA-256 от всех правил
+    public static String fingerprint() {
+        return FINGERPRINT;
+    }
+
+    private static String computeFingerprint() {
+        String rules = "revision=" + REVISION
+                + ";maxArchiveSizeMb=" + MAX_ARCHIVE_SIZE_MB
+                + ";maxUncompressedSizeMb=" + MAX_UNCOMPRESSED_SIZE_MB
+                + ";maxCompressionRatio=" + MAX_COMPRESSION_RATIO
+                + ";maxEntryCount=" + MAX_ENTRY_COUNT
+                + ";maxPolygonCount=" + MAX_POLYGON_COUNT
+                + ";polycountFailFast=" + POLYCOUNT_FAIL_FAST
+                + ";executionPolicy=" + EXECUTION_POLICY
+                + ";uvChannel=" + UV_CHANNEL_NAME
+                + ";textureSizes=" + Arrays.toString(TEXTURE_SIZES)
+                + ";stubTextureSize=" + STUB_TEXTURE_SIZE
+                + ";texturePixelSize=" + TEXTURE_PIXEL_SIZE
+                + ";texelDensity=" + MIN_TEXEL_DENSITY + "-" + MAX_TEXEL_DENSITY;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rules.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.fbxchecker;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class ZipArchive implements Closeable {
+    // Архив, открытый один раз на всю проверку. Список записей, размеры и CRC берутся
+    // из центрального каталога, содержимое записей читается потоком по требованию,
+    // без распаковки на диск. Потоки разных записей можно читать параллельно
+
+    private final String path;
+    private final ZipFile zipFile;
+    private final List<ArchiveEntry> entries;
+
+    private ZipArchive(String path, ZipFile zipFile) {
+        this.path = path;
+        this.zipFile = zipFile;
+
+        List<ArchiveEntry> entries = new ArrayList<>();
+        zipFile.stream().forEach(entry -> entries.add(new ArchiveEntry(
+                entry.getName(), entry.getSize(), entry.getCompressedSize(), entry.getCrc(), entry.isDirectory())));
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public static ZipArchive open(String zipFilePath) throws IOException {
+        return new ZipArchive(zipFilePath, new ZipFile(zipFilePath));
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    // Все записи в порядке центрального каталога
+    public List<ArchiveEntry> getEntries() {
+        return entries;
+    }
+
+    // Файлы с указанным расширением (без учета регистра)
+    public List<ArchiveEntry> findByExtension(String extension) {
+        List<ArchiveEntry> found = new ArrayList<>();
+        for (ArchiveEntry entry : entries) {
+            if (entry.hasExtension(extension)) {
+                found.add(entry);
+            }
+        }
+        return found;
+    }
+
+    // Поток распакованного содержимого записи; закрывается вызывающим кодом.
+    // Не отдает больше байт, чем указано в центральном каталоге: лимиты ResourceGovernor проверяются по этим размерам
+    public InputStream openStream(ArchiveEntry entry) throws IOException {
+        ZipEntry zipEntry = zipFile.getEntry(entry.getName());
+        if (zipEntry == null) {
+            throw new IOException("Запись не найдена в архиве: " + entry.getName());
+        }
+        InputStream content = zipFile.getInputStream(zipEntry);
+        return entry.getSize() >= 0 ? new DeclaredSizeInputStream(content, entry) : content;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+
+    // Содержимое записи, которое при распаковке оказалось больше размера из центрального каталога, - ошибка чтения
+    private static class DeclaredSizeInputStream extends FilterInputStream {
+        private final ArchiveEntry entry;
+        private long remaining;
+
+        DeclaredSizeInputStream(InputStream in, ArchiveEntry entry) {
+            super(in);
+            this.entry = entry;
+            this.remaining = entry.getSize();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                consume(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                consume(count);
+            }
+            return count;
+        }
+
+        private void consume(int count) throws ResourceLimitException {
+            remaining -= count;
+            if (remaining < 0) {
+                throw new ResourceLimitException("запись " + entry.getName() + " больше размера в центральном каталоге ("
+                        + entry.getSize() + " байт)");
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckSchedulerTests {
+    // Планировщик проверок: порядок по зависимостям, вывод разделов по номерам,
+    // циклы и необъявленные входы, ошибки проверок в их разделах
+
+    @Test
+    void runsChecksAfterTheirInputsAndWritesSectionsByNumber() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch secondDone = new CountDownLatch(1);
+        CheckScheduler scheduler = new CheckScheduler();
+        scheduler.provide("archive", "SM_Test.zip");
+        scheduler.addCheck("scene", List.of("archive"), (inputs, section) -> {
+            order.add("scene");
+            return "scene of " + inputs.get("archive");
+        });
+        scheduler.addCheck("unused", List.of("archive"), (inputs, section) -> {
+            order.add("unused");
+            return null;
+        });
+        // Раздел 2 объявлен раньше и завершается первым, но в отчете идет после раздела 1
+        scheduler.addSection(2, "names", List.of("scene"), (inputs, section) -> {
+            order.add("section 2");
+            section.addMessage("2. " + inputs.get("scene"));
+            secondDone.countDown();
+            return "SM_Test";
+        });
+        scheduler.addSection(1, null, List.of("archive"), (inputs, section) -> {
+            assertTrue(secondDone.await(10, TimeUnit.SECONDS));
+            section.addMessage("1. " + inputs.get("archive"));
+            return null;
+        });
+        scheduler.addSection(3, null, List.of("names", "scene"), (inputs, section) -> {
+            order.add("section 3");
+            section.addMessage("3. " + inputs.get("names") + " / " + inputs.get("scene"));
+            return null;
+        });
+
+        ValidationResult result = new ValidationResult();
+        scheduler.run(result);
+
+        assertEquals(List.of("1. SM_Test.zip", "2. scene of SM_Test.zip", "3. SM_Test / scene of SM_Test.zip"), result.getMessages());
+        // Значение, которое не нужно ни одному разделу, не вычисляется
+        assertEquals(List.of("scene", "section 2", "section 3"), order);
+    }
+
+    @Test
+    void reportsEachCompletedSectionToListener() {
+        Map<Integer, List<String>> completed = new ConcurrentHashMap<>();
+        CheckScheduler scheduler = new CheckScheduler(new ValidationListener() {
+            @Override
+            public void onSectionCompleted(int section, List<Finding> findings) {
+                completed.put(section, findings.stream().map(Finding::getMessage).toList());
+            }
+        });
+        scheduler.addSection(1, "a", List.of(), (inputs, section) -> {
+            section.addMessage("1. ОК");
+            return "a";
+        });
+        scheduler.addSection(2, null, List.of("a"), (inputs, section) -> {
+            throw new IllegalStateException("нет данных");
+        });
+
+        scheduler.run(new ValidationResult());
+        // Слушатель получает и раздел с ошибкой проверки
+        assertEquals(Map.of(1, List.of("1. ОК"), 2, List.of("Ошибка при выполнении проверки: нет данных")), completed);
+    }
+
+    @Test
+    void rejectsCyclicDependencies() {
+        CheckScheduler scheduler = new CheckScheduler();
+        scheduler.addCheck("a", List.of("b"), (inputs, section) -> "a");
+        scheduler.addCheck("b", List.of("c"), (inputs, section) -> "b");
+        scheduler.addCheck("c", List.of("a"), (inputs, section) -> "c");
+        scheduler.addSection(1, null, List.of("a"), (inputs, section) -> null);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> scheduler.run(new ValidationResult()));
+        assertEquals("Циклическая зависимость проверок: a -> b -> c -> a", error.getMessage());
+    }
+
+    @Test
+    void rejectsUndeclaredValues() {
+        CheckScheduler scheduler = new CheckScheduler();
+        scheduler.provide("archive", "SM_Test.zip");
+        assertThrows(IllegalStateException.class, () -> scheduler.addCheck("archive", List.of(), (inputs, section) -> null));
+        scheduler.addSection(1, null, List.of(), (inputs, section) -> null);
+        assertThrows(IllegalStateException.class, () -> scheduler.addSection(1, null, List.of(), (inputs, section) -> null));
+
+        scheduler.addSection(2, null, List.of("scene"), (inputs, section) -> null);
+        assertThrows(IllegalStateException.class, () -> scheduler.run(new ValidationResult()));
+    }
+
+    @Test
+    void writesCheckErrorsInTheirSections() {
+        CheckScheduler scheduler = new CheckScheduler();
+        scheduler.addCheck("scene", List.of(), (inputs, section) -> {
+            throw new IllegalArgumentException("сцена не прочитана");
+        });
+        scheduler.addSection(4, null, List.of("scene"), (inputs, section) -> {
+            section.addMessage("4. Версия FBX: 7400");
+            return null;
+        });
+        scheduler.addSection(8, null, List.of(), (inputs, section) -> {
+            section.addMessage("8. Текстуры");
+            throw new ResourceLimitException("превышен бюджет памяти проверки");
+        });
+        scheduler.addSection(9, null, List.of(), (inputs, section) -> {
+            section.addMessage("9. Плотность текселей: ОК");
+            return null;
+        });
+
+        ValidationResult result = new ValidationResult();
+        scheduler.run(result);
+
+        // Ошибка проверки без раздела выводится в зависимом разделе, хотя до его заголовка проверка не дошла
+        List<Finding> findings = result.getFindings();
+        assertEquals(4, findings.size());
+        Finding error = findings.get(0);
+        assertEquals("Ошибка при выполнении проверки: сцена не прочитана", error.getMessage());
+        assertEquals(4, error.getSection());
+        assertEquals("fbx-version", error.getCheck());
+        assertEquals(Finding.Severity.ERROR, error.getSeverity());
+        assertEquals(true, result.getSectionErrors().get(4));
+
+        // Отказ по бюджету памяти - отдельная проверка resource-limit в своем разделе, после строк раздела
+        assertEquals("8. Текстуры", findings.get(1).getMessage());
+        Finding limit = findings.get(2);
+        assertEquals(8, limit.getSection());
+        assertEquals(ResourceGovernor.RESOURCE_LIMIT, limit.getCheck());
+        assertEquals(Finding.Severity.ERROR, limit.getSeverity());
+        assertEquals("Ошибка при выполнении проверки: превышен бюджет памяти проверки", limit.getMessage());
+        assertEquals(1, result.getFindingCount(ResourceGovernor.RESOURCE_LIMIT));
+
+        assertEquals("9. Плотность текселей: ОК", findings.get(3).getMessage());
+        assertEquals(2, result.getErrorCount());
+        assertEquals(true, result.getSectionErrors().get(8));
+        assertEquals(false, result.getSectionErrors().get(9));
+    }
+}
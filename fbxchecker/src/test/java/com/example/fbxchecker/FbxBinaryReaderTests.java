@@ -0,0 +1,206 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FbxBinaryReaderTests {
+    // Бинарный FBX собирается в памяти: заголовок, узлы с EndOffset, массивы без сжатия и с zlib
+
+    private static final long GEOMETRY_ID = 2000000000001L;
+    private static final double[] VERTICES = {0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0};
+    private static final int[] POLYGON_VERTEX_INDEX = {0, 1, 2, -4};
+
+    @Test
+    void readsHeaderAndGeometryWith32BitOffsets() throws IOException {
+        FbxScene scene = FbxBinaryReader.read(new ByteArrayInputStream(sceneBytes(7400)));
+        assertEquals(7400, scene.getVersion());
+        assertGeometry(scene);
+    }
+
+    @Test
+    void readsHeaderAndGeometryWith64BitOffsets() throws IOException {
+        FbxScene scene = FbxBinaryReader.read(new ByteArrayInputStream(sceneBytes(7500)));
+        assertEquals(7500, scene.getVersion());
+        assertGeometry(scene);
+    }
+
+    @Test
+    void skipsNodesOutsideProjection() throws IOException {
+        FbxScene scene = FbxBinaryReader.read(new ByteArrayInputStream(sceneBytes(7500)));
+        FbxNode root = scene.getRootNode();
+        assertNull(root.getChild("Takes"));
+        FbxNode geometry = scene.getGeometryIdNodeMap().get(GEOMETRY_ID);
+        assertNull(geometry.getChild("LayerElementNormal"));
+        // Узел после пропущенного читается с правильной позиции
+        assertNotNull(geometry.getChild("PolygonVertexIndex"));
+    }
+
+    @Test
+    void rejectsNonBinaryFile() {
+        byte[] ascii = "; FBX 7.4.0 project file".getBytes(StandardCharsets.ISO_8859_1);
+        assertThrows(IOException.class, () -> FbxBinaryReader.read(new ByteArrayInputStream(ascii)));
+    }
+
+    @Test
+    void rejectsRawArrayWithWrongByteLength() {
+        byte[] property = arrayProperty('d', 4, 0, new byte[8]);
+        assertThrows(IOException.class, () -> FbxBinaryReader.read(new ByteArrayInputStream(geometryWith(property))));
+    }
+
+    @Test
+    void rejectsArrayLengthOverBudgetWithoutAllocating() {
+        byte[] property = arrayProperty('d', Integer.MAX_VALUE, 1, zlib(new byte[8]));
+        assertThrows(IOException.class, () -> FbxBinaryReader.read(new ByteArrayInputStream(geometryWith(property))));
+    }
+
+    @Test
+    void rejectsArrayDataPastNodeEnd() {
+        // Заявлено 1000 байт сжатых данных, а в узле их 8
+        ByteBuffer buffer = littleEndian(1 + 12 + 8);
+        buffer.put((byte) 'i').putInt(2).putInt(1).putInt(1000).put(new byte[8]);
+        assertThrows(IOException.class, () -> FbxBinaryReader.read(new ByteArrayInputStream(geometryWith(buffer.array()))));
+    }
+
+    private static void assertGeometry(FbxScene scene) {
+        FbxNode geometry = scene.getGeometryIdNodeMap().get(GEOMETRY_ID);
+        assertNotNull(geometry);
+        assertArrayEquals(VERTICES, JsonFbxValidator.extractVerticesFromGeometry(geometry));
+        // PolygonVertexIndex записан с zlib: длина известна без распаковки, значения - после
+        assertEquals(4, JsonFbxValidator.getArray(geometry, "PolygonVertexIndex", 'i').getArrayLength());
+        assertArrayEquals(POLYGON_VERTEX_INDEX, JsonFbxValidator.extractPolygonVertexIndicesFromGeometry(geometry));
+        assertTrue(scene.getModelNames().isEmpty());
+    }
+
+    private static byte[] sceneBytes(int version) throws IOException {
+        ByteBuffer vertices = littleEndian(VERTICES.length * 8);
+        for (double value : VERTICES) {
+            vertices.putDouble(value);
+        }
+        ByteBuffer indexes = littleEndian(POLYGON_VERTEX_INDEX.length * 4);
+        for (int value : POLYGON_VERTEX_INDEX) {
+            indexes.putInt(value);
+        }
+
+        Node geometry = new Node("Geometry", longProperty(GEOMETRY_ID), stringProperty("Geometry::Ground\u0000\u0001Geometry"))
+                .add(new Node("Vertices", arrayProperty('d', VERTICES.length, 0, vertices.array())))
+                .add(new Node("LayerElementNormal", stringProperty("skipped"))
+                        .add(new Node("Normals", arrayProperty('d', 3, 0, new byte[24]))))
+                .add(new Node("PolygonVertexIndex", arrayProperty('i', POLYGON_VERTEX_INDEX.length, 1, zlib(indexes.array()))));
+        Node objects = new Node("Objects").add(geometry);
+        Node takes = new Node("Takes").add(new Node("Take", stringProperty("Take 001")));
+        return write(version, objects, takes);
+    }
+
+    // Сцена с одной геометрией, у которой единственное свойство - property
+    private static byte[] geometryWith(byte[] property) throws IOException {
+        Node geometry = new Node("Geometry", longProperty(GEOMETRY_ID)).add(new Node("Vertices", property));
+        return write(7500, new Node("Objects").add(geometry));
+    }
+
+    private static byte[] write(int version, Node... nodes) throws IOException {
+        boolean wide = version >= 7500;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write("Kaydara FBX Binary  \0".getBytes(StandardCharsets.ISO_8859_1));
+        out.write(new byte[]{0x1A, 0x00});
+        out.write(littleEndian(4).putInt(version).array());
+        for (Node node : nodes) {
+            out.write(node.toBytes(out.size(), wide));
+        }
+        out.write(new byte[wide ? 25 : 13]);
+        return out.toByteArray();
+    }
+
+    private static byte[] longProperty(long value) {
+        return littleEndian(9).put((byte) 'L').putLong(value).array();
+    }
+
+    private static byte[] stringProperty(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return littleEndian(5 + bytes.length).put((byte) 'S').putInt(bytes.length).put(bytes).array();
+    }
+
+    private static byte[] arrayProperty(char type, int length, int encoding, byte[] data) {
+        return littleEndian(13 + data.length).put((byte) type).putInt(length).putInt(encoding).putInt(data.length).put(data).array();
+    }
+
+    private static byte[] zlib(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[data.length + 64];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Узел FBX: свойства и вложенные узлы; EndOffset считается от позиции узла в файле
+    private static class Node {
+        private final String name;
+        private final byte[][] properties;
+        private final List<Node> children = new ArrayList<>();
+
+        Node(String name, byte[]... properties) {
+            this.name = name;
+            this.properties = properties;
+        }
+
+        Node add(Node child) {
+            children.add(child);
+            return this;
+        }
+
+        byte[] toBytes(long start, boolean wide) throws IOException {
+            ByteArrayOutputStream propertyBytes = new ByteArrayOutputStream();
+            for (byte[] property : properties) {
+                propertyBytes.write(property);
+            }
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            int headerLength = (wide ? 24 : 12) + 1 + nameBytes.length;
+
+            ByteArrayOutputStream childBytes = new ByteArrayOutputStream();
+            long childStart = start + headerLength + propertyBytes.size();
+            for (Node child : children) {
+                childBytes.write(child.toBytes(childStart + childBytes.size(), wide));
+            }
+            if (!children.isEmpty()) {
+                childBytes.write(new byte[wide ? 25 : 13]);
+            }
+
+            long end = childStart + childBytes.size();
+            ByteBuffer header = littleEndian(headerLength);
+            if (wide) {
+                header.putLong(end).putLong(properties.length).putLong(propertyBytes.size());
+            } else {
+                header.putInt((int) end).putInt(properties.length).putInt(propertyBytes.size());
+            }
+            header.put((byte) nameBytes.length).put(nameBytes);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(header.array());
+            out.write(propertyBytes.toByteArray());
+            out.write(childBytes.toByteArray());
+            return out.toByteArray();
+        }
+    }
+}
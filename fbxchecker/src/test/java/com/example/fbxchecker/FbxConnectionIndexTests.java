@@ -0,0 +1,136 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FbxConnectionIndexTests {
+    // Списки смежности индекса сверяются со списками, собранными проходом по Connections в порядке файла,
+    // как это делалось до индекса (Map<Long, List<Long>>)
+
+    private static final long MODEL = 1000000000001L;
+    private static final long UCX = 1000000000002L;
+    private static final long GEOMETRY_1 = 2000000000001L;
+    private static final long GEOMETRY_2 = 2000000000002L;
+    private static final long GEOMETRY_3 = 2000000000003L;
+    private static final long MATERIAL_1 = 3000000000001L;
+    private static final long MATERIAL_2 = 3000000000002L;
+    private static final long TEXTURE = 4000000000001L;
+    private static final long UNKNOWN = 9000000000001L;
+
+    private static final String[][] OBJECTS = {
+            {"Model", "" + MODEL, "Model::SM_Ground"},
+            {"Model", "" + UCX, "Model::UCX_SM_Ground_001"},
+            {"Geometry", "" + GEOMETRY_1, "Geometry::A"},
+            {"Geometry", "" + GEOMETRY_2, "Geometry::B"},
+            {"Geometry", "" + GEOMETRY_3, "Geometry::C"},
+            {"Material", "" + MATERIAL_1, "Material::M_1"},
+            {"Material", "" + MATERIAL_2, "Material::M_2"},
+            {"Texture", "" + TEXTURE, "Texture::T"},
+    };
+
+    // Порядок связей намеренно перемешан: геометрии модели идут не подряд и вперемешку с другими типами
+    private static final Object[][] CONNECTIONS = {
+            {"OO", MODEL, 0L},
+            {"OO", GEOMETRY_3, MODEL},
+            {"OO", MATERIAL_1, MODEL},
+            {"OO", GEOMETRY_2, UCX},
+            {"OP", TEXTURE, MATERIAL_1, "DiffuseColor"},
+            {"OO", GEOMETRY_1, MODEL},
+            {"OO", UNKNOWN, MODEL},
+            {"PP", GEOMETRY_2, MODEL},
+            {"OO", MATERIAL_1, UCX},
+            {"OO", GEOMETRY_1, UCX},
+    };
+
+    @Test
+    void adjacencyFollowsConnectionOrder() {
+        FbxConnectionIndex index = buildScene().getConnections();
+        Map<Long, List<Long>> children = new LinkedHashMap<>();
+        Map<Long, List<Long>> parents = new LinkedHashMap<>();
+        for (Object[] connection : CONNECTIONS) {
+            String type = (String) connection[0];
+            long child = (Long) connection[1];
+            long parent = (Long) connection[2];
+            if ((type.equals("OO") || type.equals("OP")) && index.contains(child) && index.contains(parent)) {
+                children.computeIfAbsent(parent, id -> new ArrayList<>()).add(child);
+                parents.computeIfAbsent(child, id -> new ArrayList<>()).add(parent);
+            }
+        }
+
+        for (String[] object : OBJECTS) {
+            long id = Long.parseLong(object[1]);
+            assertArrayEquals(toArray(children.get(id)), index.getChildren(id, null), "потомки " + object[2]);
+            assertArrayEquals(toArray(parents.get(id)), index.getParents(id, null), "родители " + object[2]);
+        }
+    }
+
+    @Test
+    void filtersByTypeKeepingOrder() {
+        FbxConnectionIndex index = buildScene().getConnections();
+        assertArrayEquals(new long[]{GEOMETRY_3, GEOMETRY_1}, index.getChildren(MODEL, "Geometry"));
+        assertArrayEquals(new long[]{MATERIAL_1}, index.getChildren(MODEL, "Material"));
+        assertArrayEquals(new long[]{GEOMETRY_2, GEOMETRY_1}, index.getChildren(UCX, "Geometry"));
+        assertArrayEquals(new long[]{MODEL, UCX}, index.getParents(GEOMETRY_1, "Model"));
+        assertArrayEquals(new long[]{TEXTURE}, index.getChildren(MATERIAL_1, "Texture"));
+        assertArrayEquals(new long[0], index.getChildren(MATERIAL_2, null));
+        assertArrayEquals(new long[]{GEOMETRY_1, GEOMETRY_2, GEOMETRY_3}, index.getObjectIds("Geometry"));
+    }
+
+    @Test
+    void describesObjectsAndSkipsUnknownIds() {
+        FbxConnectionIndex index = buildScene().getConnections();
+        assertEquals("Geometry", index.getType(GEOMETRY_2));
+        assertEquals("Model::SM_Ground", index.getName(MODEL));
+        assertEquals("Texture", index.getNode(TEXTURE).getName());
+
+        // Корень сцены и объекты вне Objects в индекс не попадают, связи с ними пропускаются
+        assertFalse(index.contains(0));
+        assertFalse(index.contains(UNKNOWN));
+        assertNull(index.getType(UNKNOWN));
+        assertNull(index.getNode(UNKNOWN));
+        assertArrayEquals(new long[0], index.getChildren(UNKNOWN, null));
+        assertArrayEquals(new long[0], index.getParents(MODEL, null));
+        assertTrue(index.contains(MATERIAL_2));
+    }
+
+    private static FbxScene buildScene() {
+        FbxNode objects = new FbxNode("Objects");
+        for (String[] object : OBJECTS) {
+            FbxNode node = new FbxNode(object[0]);
+            node.addProperty(new FbxProperty('L', Long.parseLong(object[1])));
+            node.addProperty(new FbxProperty('S', object[2]));
+            objects.addChild(node);
+        }
+
+        FbxNode connections = new FbxNode("Connections");
+        for (Object[] connection : CONNECTIONS) {
+            FbxNode node = new FbxNode("C");
+            node.addProperty(new FbxProperty('S', connection[0]));
+            node.addProperty(new FbxProperty('L', connection[1]));
+            node.addProperty(new FbxProperty('L', connection[2]));
+            if (connection.length > 3) {
+                node.addProperty(new FbxProperty('S', connection[3]));
+            }
+            connections.addChild(node);
+        }
+
+        FbxNode root = new FbxNode("");
+        root.addChild(objects);
+        root.addChild(connections);
+        return new FbxScene(7400, root);
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids == null ? new long[0] : ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
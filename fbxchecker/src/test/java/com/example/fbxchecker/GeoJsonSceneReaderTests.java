@@ -0,0 +1,160 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoJsonSceneReaderTests {
+    // Чтение .geojson потоком и через отображение в память дает одинаковую сцену: длины массивов
+    // по разделителям совпадают с разобранными массивами, включая пустые и из одного элемента
+
+    // Геометрия с массивами разной длины и записи: пробелы и переводы строк внутри массивов,
+    // тип свойства после значения, отрицательные числа и экспонента
+    private static final String SCENE = """
+            {"version": 7400, "children": [
+              {"name": "Objects", "properties": [], "children": [
+                {"name": "Model", "properties": [{"type": "L", "value": 1}, {"type": "S", "value": "SM_Test\\u0000\\u0001Model"},
+                  {"type": "S", "value": "Mesh"}], "children": []},
+                {"name": "Geometry", "properties": [{"type": "L", "value": 2}, {"type": "S", "value": "Geometry\\u0000\\u0001Geometry"},
+                  {"type": "S", "value": "Mesh"}], "children": [
+                  {"name": "Vertices", "properties": [{"type": "d", "value": [
+                    0, 0.5, -1.25e2,
+                    1e-3, 2, 3
+                  ]}], "children": []},
+                  {"name": "PolygonVertexIndex", "properties": [{"value": [0,1,-2], "type": "i"}], "children": []},
+                  {"name": "LayerElementUV", "properties": [{"type": "I", "value": 0}], "children": [
+                    {"name": "Name", "properties": [{"type": "S", "value": "UVChannel_1"}], "children": []},
+                    {"name": "UV", "properties": [{"type": "d", "value": [ 0.25 ]}], "children": []},
+                    {"name": "UVIndex", "properties": [{"type": "i", "value": [
+                    ]}], "children": []}
+                  ]}
+                ]}
+              ]},
+              {"name": "Connections", "properties": [], "children": [
+                {"name": "C", "properties": [{"type": "S", "value": "OO"}, {"type": "L", "value": 2}, {"type": "L", "value": 1}], "children": []}
+              ]}
+            ]}
+            """;
+
+    @TempDir
+    Path temporary;
+
+    @Test
+    void readsSameSceneInStreamAndMappedMode() throws IOException {
+        File file = write(SCENE);
+        FbxScene streamed = GeoJsonSceneReader.read(file, false);
+        FbxScene mapped = GeoJsonSceneReader.read(file, true);
+
+        assertEquals(streamed.getVersion(), mapped.getVersion());
+        assertSameNode(streamed.getRootNode(), mapped.getRootNode());
+
+        FbxNode geometry = mapped.getGeometryIdNodeMap().get(2L);
+        assertArrayEquals(new double[]{0, 0.5, -125, 0.001, 2, 3}, JsonFbxValidator.getArray(geometry, "Vertices", 'd').getDoubleArray());
+        assertArrayEquals(new int[]{0, 1, -2}, JsonFbxValidator.getArray(geometry, "PolygonVertexIndex", 'i').getIntArray());
+        FbxNode uvLayer = geometry.getChild("LayerElementUV");
+        assertArrayEquals(new double[]{0.25}, uvLayer.getChild("UV").getProperties().get(0).getDoubleArray());
+        assertArrayEquals(new int[0], uvLayer.getChild("UVIndex").getProperties().get(0).getIntArray());
+    }
+
+    @Test
+    void readsSceneBuiltForTests() throws IOException {
+        // Одна вершина, пустой полигон и UV из одной пары
+        File file = write(TestScenes.builder()
+                .model(1, "SM_Test")
+                .geometry(2, new double[]{1, 2, 3}, new int[]{-1}, new double[]{0.5, 0.5}, new int[]{0})
+                .geometry(3, new double[0], new int[0])
+                .connect(2, 1)
+                .connect(3, 1)
+                .toJson());
+
+        FbxScene streamed = GeoJsonSceneReader.read(file, false);
+        FbxScene mapped = GeoJsonSceneReader.read(file, true);
+        assertSameNode(streamed.getRootNode(), mapped.getRootNode());
+        assertEquals(streamed.getGeometryIdNodeMap().keySet(), mapped.getGeometryIdNodeMap().keySet());
+    }
+
+    @Test
+    void decodesMappedArrayOnceAcrossThreads() throws Exception {
+        File file = write(SCENE);
+        FbxScene mapped = GeoJsonSceneReader.read(file, true);
+        FbxProperty vertices = mapped.getGeometryIdNodeMap().get(2L).getChild("Vertices").getProperties().get(0);
+        assertEquals(6, vertices.getArrayLength());
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> values = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                values.add(executor.submit(() -> {
+                    start.await();
+                    return vertices.getValue();
+                }));
+            }
+            start.countDown();
+            // Все потоки получают один и тот же разобранный массив
+            Object first = values.get(0).get();
+            assertInstanceOf(double[].class, first);
+            for (Future<Object> value : values) {
+                assertSame(first, value.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(6, vertices.getArrayLength());
+    }
+
+    // Узлы, свойства и массивы совпадают; длина отображенного массива проверяется до его разбора
+    private static void assertSameNode(FbxNode expected, FbxNode actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getProperties().size(), actual.getProperties().size(), expected.getName());
+        for (int i = 0; i < expected.getProperties().size(); i++) {
+            FbxProperty expectedProperty = expected.getProperties().get(i);
+            FbxProperty actualProperty = actual.getProperties().get(i);
+            String where = expected.getName() + " #" + i;
+            assertEquals(expectedProperty.getType(), actualProperty.getType(), where);
+            assertEquals(expectedProperty.isArray(), actualProperty.isArray(), where);
+            if (expectedProperty.isArray()) {
+                assertEquals(expectedProperty.getArrayLength(), actualProperty.getArrayLength(), where);
+                Object expectedValue = expectedProperty.getValue();
+                Object actualValue = actualProperty.getValue();
+                if (expectedValue instanceof int[] ints) {
+                    assertArrayEquals(ints, (int[]) actualValue, where);
+                } else {
+                    assertArrayEquals((double[]) expectedValue, (double[]) actualValue, where);
+                }
+                assertEquals(expectedProperty.getArrayLength(), actualProperty.getArrayLength(), where);
+            } else {
+                assertEquals(expectedProperty.getValue(), actualProperty.getValue(), where);
+            }
+        }
+        assertEquals(expected.getChildren().size(), actual.getChildren().size(), expected.getName());
+        for (int i = 0; i < expected.getChildren().size(); i++) {
+            assertSameNode(expected.getChildren().get(i), actual.getChildren().get(i));
+        }
+    }
+
+    private File write(String json) throws IOException {
+        Path file = temporary.resolve("SM_Test.geojson");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        assertTrue(Files.size(file) > 0);
+        return file.toFile();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntHashMapTests {
+
+    @Test
+    void returnsMissingForAbsentKeys() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertEquals(-1, map.get(42));
+        assertEquals(-1, map.get(0));
+        assertFalse(map.containsKey(0));
+
+        map.put(7, 1);
+        assertEquals(-1, map.get(8));
+        assertEquals(-1, map.get(-7));
+        assertFalse(map.containsKey(Long.MIN_VALUE));
+    }
+
+    @Test
+    void storesZeroAndExtremeKeys() {
+        // Пустой слот определяется значением -1, а не ключом, поэтому 0 - обычный ключ
+        LongIntHashMap map = new LongIntHashMap(2);
+        map.put(0, 0);
+        map.put(Long.MIN_VALUE, 1);
+        map.put(Long.MAX_VALUE, 2);
+        map.put(-1, 3);
+
+        assertEquals(0, map.get(0));
+        assertTrue(map.containsKey(0));
+        assertEquals(1, map.get(Long.MIN_VALUE));
+        assertEquals(2, map.get(Long.MAX_VALUE));
+        assertEquals(3, map.get(-1));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    void overwritesWithoutGrowing() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1000000000001L, 1);
+        map.put(1000000000001L, 5);
+        assertEquals(5, map.get(1000000000001L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void keepsAllEntriesAcrossResizes() {
+        // Начальная емкость минимальная; id подряд и с общим старшим разрядом, как у FBX
+        LongIntHashMap map = new LongIntHashMap(1);
+        int count = 20000;
+        for (int i = 0; i < count; i++) {
+            map.put(2000000000000L + i, i);
+            map.put(-(long) i * 4096, count + i);
+        }
+
+        assertEquals(2 * count, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, map.get(2000000000000L + i));
+            assertEquals(count + i, map.get(-(long) i * 4096));
+        }
+        assertEquals(-1, map.get(2000000000000L + count));
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, -1));
+        assertEquals(0, map.size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MeshDataTests {
+    // Треугольники меша считаются по тому же правилу, что и в подсчете полигонов (раздел 7):
+    // смещения геометрий совпадают с его итогами, вырожденный полигон занимает один треугольник без UV
+
+    // Четырехугольник, треугольник, полигон из двух вершин и из одной: 2 + 1 + 1 + 1 треугольник
+    private static final double[] VERTICES = {0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0};
+    private static final int[] POLYGONS = {0, 1, 2, -4, 0, 1, -4, 2, -4, -1};
+    private static final double[] UV = {0.1, 0.1, 0.9, 0.1, 0.9, 0.9, 0.1, 0.9};
+    private static final int[] UV_INDEX = {0, 1, 2, 3, 0, 1, 3, 2, 3, 0};
+
+    @Test
+    void countsDegeneratePolygonsLikePolycount() throws IOException {
+        FbxScene scene = TestScenes.builder()
+                .model(1, "SM_Test")
+                .geometry(2, VERTICES, POLYGONS, UV, UV_INDEX)
+                .geometry(3, VERTICES, new int[]{0, 1, -3})
+                .connect(2, 1)
+                .connect(3, 1)
+                .read();
+
+        PolycountCalculator.PolycountResult polycount = new PolycountCalculator(scene, Integer.MAX_VALUE, false).calculate();
+        MeshData mesh = MeshData.build(scene, ValidationRules.UV_CHANNEL_NAME);
+
+        assertEquals(6, polycount.getTriangleCount());
+        assertEquals(polycount.getTriangleCount(), mesh.getTriangleCount());
+        for (int g = 0; g < mesh.getGeometryCount(); g++) {
+            assertEquals(polycount.getTriangleCount(polycount.indexOf(mesh.getGeometryId(g))), mesh.getGeometryTriangleCount(g));
+        }
+
+        // Веер четырехугольника, треугольник, затем вырожденные полигоны из своих вершин без UV
+        assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3, 0, 1, 3, 2, 3, 3, 0, 0, 0, 4, 5, 6}, mesh.getTriangles());
+        assertArrayEquals(new int[]{0, 1, 2, 0, 2, 3, 0, 1, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1}, mesh.getUvTriangles());
+    }
+
+    @Test
+    void buildsSameMeshFromPolycountSizes() throws IOException {
+        FbxScene scene = TestScenes.builder()
+                .model(1, "SM_Test")
+                .geometry(2, VERTICES, POLYGONS, UV, UV_INDEX)
+                .connect(2, 1)
+                .read();
+        PolycountCalculator.PolycountResult polycount = new PolycountCalculator(scene, Integer.MAX_VALUE, false).calculate();
+
+        MeshData counted = MeshData.build(scene, ValidationRules.UV_CHANNEL_NAME);
+        MeshData sized = MeshData.build(scene, ValidationRules.UV_CHANNEL_NAME, polycount);
+
+        assertArrayEquals(counted.getPositions(), sized.getPositions());
+        assertArrayEquals(counted.getTriangles(), sized.getTriangles());
+        assertArrayEquals(counted.getUvs(), sized.getUvs());
+        assertArrayEquals(counted.getUvTriangles(), sized.getUvTriangles());
+        assertEquals(4, sized.getVertexCount());
+        assertEquals(4, sized.getUvCount());
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PngPixelScannerTests {
+    // Ответы сканера сверяются с BufferedImage, прочитанным из тех же байт через ImageIO.
+    // Фильтры строк задаются собственным кодировщиком (ImageIO выбирает фильтр сам), остальные варианты
+    // (Adam7, палитра с tRNS, 16 бит, серый с альфой) записываются через ImageIO
+
+    private static final int SIZE = 17;
+    // Положение полей IHDR в файле: сигнатура (8), длина и тип блока (8), ширина и высота (8)
+    private static final int IHDR_BIT_DEPTH = 24;
+    private static final int IHDR_COLOR_TYPE = 25;
+    private static final int IHDR_INTERLACE = 28;
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 4})
+    void reconstructsRowsForEachFilterType(int filterType) throws IOException {
+        // Один цвет с ненулевыми каналами: ошибка восстановления любого фильтра дает разные пиксели
+        byte[] uniform = encodeRgba(SIZE, SIZE, filterType, (x, y) -> 0xFF804020);
+        PngPixelScanner uniformScan = scan(uniform);
+        assertTrue(uniformScan.isSingleColor());
+        assertFalse(uniformScan.isAlphaUsed());
+        assertMatchesImageIO(uniform);
+
+        // Градиент: ответы совпадают с ImageIO, альфа меняется только в последнем пикселе
+        byte[] gradient = encodeRgba(SIZE, SIZE, filterType,
+                (x, y) -> (x == SIZE - 1 && y == SIZE - 1 ? 0x7F : 0xFF) << 24 | (x * 13) << 16 | (y * 7) << 8 | (x * y & 0xFF));
+        PngPixelScanner gradientScan = scan(gradient);
+        assertFalse(gradientScan.isSingleColor());
+        assertTrue(gradientScan.isAlphaUsed());
+        assertMatchesImageIO(gradient);
+    }
+
+    @Test
+    void scansAdam7Interlaced() throws IOException {
+        BufferedImage uniform = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        fill(uniform, (x, y) -> 0xFF336699);
+        byte[] png = writeImageIO(uniform, true);
+        assertEquals(1, png[IHDR_INTERLACE]);
+        assertScan(png, true, false);
+
+        BufferedImage varied = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        // Отличается только пиксель последнего прохода Adam7 (нечетная строка)
+        fill(varied, (x, y) -> x == 3 && y == 5 ? 0x80336699 : 0xFF336699);
+        assertScan(writeImageIO(varied, true), false, true);
+    }
+
+    @Test
+    void appliesPaletteTransparency() throws IOException {
+        byte[] red = {(byte) 200, 10, 10};
+        byte[] green = {10, (byte) 200, 10};
+        byte[] blue = {10, 10, (byte) 200};
+        byte[] alpha = {(byte) 255, (byte) 255, 0};
+        IndexColorModel palette = new IndexColorModel(8, 3, red, green, blue, alpha);
+
+        BufferedImage opaque = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_BYTE_INDEXED, palette);
+        opaque.getRaster().setSample(0, 0, 0, 1);
+        byte[] png = writeImageIO(opaque, false);
+        assertEquals(PngHeader.COLOR_PALETTE, png[IHDR_COLOR_TYPE]);
+        assertTrue(PngHeader.read(new ByteArrayInputStream(png)).hasTransparencyChunk());
+        assertScan(png, false, false);
+
+        BufferedImage transparent = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_BYTE_INDEXED, palette);
+        transparent.getRaster().setSample(SIZE - 1, SIZE - 1, 0, 2);
+        assertScan(writeImageIO(transparent, false), false, true);
+    }
+
+    @Test
+    void scans16BitSamples() throws IOException {
+        BufferedImage gray = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_USHORT_GRAY);
+        byte[] png = writeImageIO(gray, false);
+        assertEquals(16, png[IHDR_BIT_DEPTH]);
+        assertScan(png, true, false);
+        // Младший байт 16-битного отсчета в ARGB не попадает, старший - попадает
+        gray.getRaster().setSample(1, 1, 0, 0x0100);
+        assertScan(writeImageIO(gray, false), false, false);
+
+        BufferedImage rgba = componentImage(ColorSpace.CS_sRGB, true, DataBuffer.TYPE_USHORT);
+        WritableRaster raster = rgba.getRaster();
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                raster.setPixel(x, y, new int[]{0x8000, 0x4000, 0x2000, 0xFFFF});
+            }
+        }
+        assertScan(writeImageIO(rgba, false), true, false);
+        raster.setPixel(2, 3, new int[]{0x8000, 0x4000, 0x2000, 0x1000});
+        assertScan(writeImageIO(rgba, false), false, true);
+    }
+
+    @Test
+    void scansGrayAlpha() throws IOException {
+        BufferedImage image = componentImage(ColorSpace.CS_GRAY, true, DataBuffer.TYPE_BYTE);
+        WritableRaster raster = image.getRaster();
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                raster.setPixel(x, y, new int[]{90, 255});
+            }
+        }
+        byte[] png = writeImageIO(image, false);
+        assertEquals(PngHeader.COLOR_GRAYSCALE_ALPHA, png[IHDR_COLOR_TYPE]);
+        assertScan(png, true, false);
+        raster.setPixel(SIZE - 1, 0, new int[]{90, 254});
+        assertScan(writeImageIO(image, false), false, true);
+    }
+
+    // Ответы сканера равны заданным и совпадают с BufferedImage из ImageIO
+    private static void assertScan(byte[] png, boolean singleColor, boolean alphaUsed) throws IOException {
+        PngPixelScanner scanner = scan(png);
+        assertEquals(singleColor, scanner.isSingleColor(), "singleColor");
+        assertEquals(alphaUsed, scanner.isAlphaUsed(), "alphaUsed");
+        assertMatchesImageIO(png);
+    }
+
+    private static void assertMatchesImageIO(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        int first = image.getRGB(0, 0);
+        boolean singleColor = true;
+        boolean alphaUsed = false;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int pixel = image.getRGB(x, y);
+                singleColor &= pixel == first;
+                alphaUsed |= (pixel >>> 24) != 0xFF;
+            }
+        }
+        PngPixelScanner scanner = scan(png);
+        assertEquals(singleColor, scanner.isSingleColor(), "singleColor по ImageIO");
+        assertEquals(alphaUsed && image.getColorModel().hasAlpha(), scanner.isAlphaUsed(), "alphaUsed по ImageIO");
+    }
+
+    private static PngPixelScanner scan(byte[] png) throws IOException {
+        return PngPixelScanner.scan(new ByteArrayInputStream(png), true, true);
+    }
+
+    private static BufferedImage componentImage(int colorSpace, boolean alpha, int dataType) {
+        ComponentColorModel colorModel = new ComponentColorModel(ColorSpace.getInstance(colorSpace), alpha, false,
+                alpha ? Transparency.TRANSLUCENT : Transparency.OPAQUE, dataType);
+        return new BufferedImage(colorModel, colorModel.createCompatibleWritableRaster(SIZE, SIZE), false, null);
+    }
+
+    private static void fill(BufferedImage image, Pixels pixels) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, pixels.argb(x, y));
+            }
+        }
+    }
+
+    private static byte[] writeImageIO(BufferedImage image, boolean interlaced) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (interlaced) {
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // PNG RGBA 8 бит, все строки отфильтрованы одним типом фильтра
+    private static byte[] encodeRgba(int width, int height, int filterType, Pixels pixels) throws IOException {
+        int rowLength = width * 4;
+        byte[] previous = new byte[rowLength];
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        for (int y = 0; y < height; y++) {
+            byte[] row = new byte[rowLength];
+            for (int x = 0; x < width; x++) {
+                int argb = pixels.argb(x, y);
+                row[x * 4] = (byte) (argb >> 16);
+                row[x * 4 + 1] = (byte) (argb >> 8);
+                row[x * 4 + 2] = (byte) argb;
+                row[x * 4 + 3] = (byte) (argb >>> 24);
+            }
+            raw.write(filterType);
+            for (int i = 0; i < rowLength; i++) {
+                int left = i >= 4 ? row[i - 4] & 0xFF : 0;
+                int up = previous[i] & 0xFF;
+                int upLeft = i >= 4 ? previous[i - 4] & 0xFF : 0;
+                int predictor = switch (filterType) {
+                    case 1 -> left;
+                    case 2 -> up;
+                    case 3 -> (left + up) / 2;
+                    case 4 -> paeth(left, up, upLeft);
+                    default -> 0;
+                };
+                raw.write((row[i] - predictor) & 0xFF);
+            }
+            previous = row;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed)) {
+            deflater.write(raw.toByteArray());
+        }
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        png.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerData = new DataOutputStream(header);
+        headerData.writeInt(width);
+        headerData.writeInt(height);
+        headerData.write(new byte[]{8, PngHeader.COLOR_RGBA, 0, 0, 0});
+        writeChunk(png, "IHDR", header.toByteArray());
+        writeChunk(png, "IDAT", compressed.toByteArray());
+        writeChunk(png, "IEND", new byte[0]);
+        return png.toByteArray();
+    }
+
+    // Предсказание Paeth по спецификации PNG (независимо от реализации в сканере)
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
+    private static void writeChunk(ByteArrayOutputStream png, String type, byte[] data) throws IOException {
+        DataOutputStream out = new DataOutputStream(png);
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private interface Pixels {
+        int argb(int x, int y);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolycountCalculatorTests {
+    // Подсчет треугольников раздела 7: неиспользуемые вершины по геометриям, остановка после превышения лимита,
+    // строки отчета по сцене, объектам и геометриям
+
+    private static final double[] FOUR_VERTICES = {0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0};
+    private static final double[] SIX_VERTICES = {0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0, 2, 0, 0, 2, 1, 0};
+    private static final int[] QUAD = {0, 1, 2, -4};
+    private static final double[] UV = {0.1, 0.1, 0.9, 0.1, 0.9, 0.9, 0.1, 0.9};
+    private static final int[] UV_INDEX = {0, 1, 2, 3};
+
+    @Test
+    void countsUnusedVerticesPerGeometry() throws IOException {
+        FbxScene scene = TestScenes.builder()
+                .model(1, "SM_Test")
+                // Последние две вершины, затем первые четыре: отметки одной геометрии не переходят в следующую
+                .geometry(10, SIX_VERTICES, new int[]{4, 5, -1})
+                .geometry(11, SIX_VERTICES, QUAD)
+                // Индекс за пределами массива вершин не отмечается
+                .geometry(12, FOUR_VERTICES, new int[]{0, 1, -8})
+                .connect(10, 1)
+                .connect(11, 1)
+                .connect(12, 1)
+                .read();
+
+        PolycountCalculator.PolycountResult polycount = new PolycountCalculator(scene, Integer.MAX_VALUE, false).calculate();
+
+        assertEquals(3, polycount.getGeometryCount());
+        assertEquals(List.of(3, 2, 2), unusedVertices(polycount));
+        assertEquals(6, polycount.getVertexCount(polycount.indexOf(10)));
+        assertEquals(4, polycount.getVertexCount(polycount.indexOf(12)));
+        assertEquals(4, polycount.getTriangleCount());
+    }
+
+    @Test
+    void countsDegeneratePolygonsAsOneTriangle() throws IOException {
+        // Полигоны из двух вершин, из двух и из одной, затем пятиугольник
+        FbxScene scene = TestScenes.builder()
+                .model(1, "SM_Test")
+                .geometry(10, SIX_VERTICES, new int[]{0, -2, 2, -4, -1, 0, 1, 2, 3, -5})
+                .connect(10, 1)
+                .read();
+
+        PolycountCalculator.PolycountResult polycount = new PolycountCalculator(scene, Integer.MAX_VALUE, false).calculate();
+
+        assertEquals(6, polycount.getTriangleCount());
+        assertEquals(6, polycount.getTriangleCount(0));
+        assertEquals(1, polycount.getUnusedVertexCount(0));
+    }
+
+    @Test
+    void stopsAfterGeometryThatExceedsLimit() throws IOException {
+        TestScenes.Builder builder = TestScenes.builder().model(1, "SM_Test");
+        for (long id = 10; id < 14; id++) {
+            builder.geometry(id, FOUR_VERTICES, QUAD).connect(id, 1);
+        }
+        FbxScene scene = builder.read();
+
+        PolycountCalculator.PolycountResult stopped = new PolycountCalculator(scene, 3, true).calculate();
+        assertTrue(stopped.isAborted());
+        assertEquals(2, stopped.getGeometryCount());
+        assertEquals(4, stopped.getTriangleCount());
+        assertEquals(-1, stopped.indexOf(12));
+
+        // Без failFast считаются все геометрии; лимит, достигнутый на последней геометрии, не останавливает подсчет
+        PolycountCalculator.PolycountResult full = new PolycountCalculator(scene, 3, false).calculate();
+        assertFalse(full.isAborted());
+        assertEquals(4, full.getGeometryCount());
+        assertEquals(8, full.getTriangleCount());
+        PolycountCalculator.PolycountResult last = new PolycountCalculator(scene, 8, true).calculate();
+        assertFalse(last.isAborted());
+        assertEquals(4, last.getGeometryCount());
+
+        ValidationResult result = new ValidationResult();
+        PolycountCalculator.addReport(stopped, scene, result);
+        assertEquals(List.of("Количество полигонов в сцене: не менее 4 Ошибка: количество полигонов не должно превышать 2 млн. "
+                + "(подсчет остановлен после 2 из 4 геометрий)"), result.getMessages());
+        assertEquals(2, result.getFindings().get(0).getMetrics().get("geometriesCounted").intValue());
+        assertTrue(result.hasErrors());
+    }
+
+    @Test
+    void reportsObjectsAndTheirGeometries() throws IOException {
+        FbxScene scene = TestScenes.builder()
+                .model(1, "SM_Test_A")
+                .model(2, "SM_Test_B")
+                .model(3, "UCX_SM_Test_A")
+                .geometry(10, FOUR_VERTICES, QUAD, UV, UV_INDEX)
+                .geometry(11, SIX_VERTICES, new int[]{0, 1, -3})
+                .geometry(12, FOUR_VERTICES, new int[]{0, -2, 2, -4, -1})
+                .geometry(13, FOUR_VERTICES, new int[]{0, 1, -3})
+                .connect(10, 1)
+                .connect(11, 1)
+                .connect(12, 2)
+                .connect(13, 3)
+                .read();
+
+        PolycountCalculator.PolycountResult polycount = new PolycountCalculator(scene, ValidationRules.MAX_POLYGON_COUNT, true).calculate();
+        ValidationResult result = new ValidationResult();
+        PolycountCalculator.addReport(polycount, scene, result);
+
+        // Коллизия входит в итог сцены, но не выводится как объект; геометрии выводятся только у объекта с несколькими
+        assertEquals(List.of(
+                "Количество полигонов в сцене: 7   OK",
+                "Неиспользуемых вершин в сцене: 4",
+                "    SM_Test_A: треугольников 3, неиспользуемых вершин 3, UV-каналы: " + ValidationRules.UV_CHANNEL_NAME,
+                "        Геометрия 10: треугольников 2, вершин 4, неиспользуемых вершин 0",
+                "        Геометрия 11: треугольников 1, вершин 6, неиспользуемых вершин 3",
+                "    SM_Test_B: треугольников 3, неиспользуемых вершин 0, UV-каналы: нет"), result.getMessages());
+        assertFalse(result.hasErrors());
+
+        Finding object = result.getFindings().get(2);
+        assertEquals("polycount-object", object.getCheck());
+        assertEquals("SM_Test_A", object.getSubject());
+        assertEquals(3, object.getMetrics().get("triangles").intValue());
+        assertEquals(2, object.getMetrics().get("geometries").intValue());
+        assertEquals(1, object.getMetrics().get("uvChannels").intValue());
+        assertEquals(2, result.getFindingCount("polycount-geometry"));
+    }
+
+    private static List<Integer> unusedVertices(PolycountCalculator.PolycountResult polycount) {
+        return IntStream.range(0, polycount.getGeometryCount())
+                .mapToObj(polycount::getUnusedVertexCount)
+                .toList();
+    }
+}
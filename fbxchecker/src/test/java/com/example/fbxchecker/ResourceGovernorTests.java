@@ -0,0 +1,81 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceGovernorTests {
+    // Бюджет памяти проверки: резерв сверх бюджета - ResourceLimitException, которая попадает в отчет
+    // находкой RESOURCE_LIMIT, а не заканчивается OutOfMemoryError
+
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void rejectsReservationOverBudgetWithoutKeepingIt() throws IOException {
+        ResourceGovernor governor = new ResourceGovernor(1000);
+        governor.reserve(600, "первый буфер");
+
+        ResourceLimitException e = assertThrows(ResourceLimitException.class, () -> governor.reserve(500, "второй буфер"));
+        assertTrue(e.getMessage().contains("второй буфер"));
+
+        // Отклоненный резерв не занимает бюджет, освобожденный - возвращается в него
+        governor.reserve(400, "третий буфер");
+        governor.release(1000);
+        governor.reserve(1000, "весь бюджет");
+    }
+
+    @Test
+    void splitsBudgetBetweenConcurrentJobs() throws IOException {
+        long budget = ValidationRules.JOB_HEAP_BUDGET_MB * MB;
+        ResourceGovernor[] jobs = new ResourceGovernor[4];
+        for (int i = 0; i < jobs.length; i++) {
+            jobs[i] = ResourceGovernor.forConcurrentJobs(jobs.length);
+            jobs[i].reserve(budget / jobs.length, "задание " + i);
+        }
+        // Вместе задания занимают не больше общего бюджета: доля каждого исчерпана
+        assertThrows(ResourceLimitException.class, () -> jobs[0].reserve(1, "сверх доли"));
+
+        // Без деления одна проверка получает весь бюджет
+        ResourceGovernor.forConcurrentJobs(0).reserve(budget, "весь бюджет");
+    }
+
+    @Test
+    void reportsTextureOverBudgetAsResourceLimitFinding(@TempDir Path directory) throws IOException {
+        // Заглушка 256x256 сканируется построчно: две строки RGB - 1536 байт при бюджете в 1 KB
+        Path archive = directory.resolve("SM_Budget.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zip.putNextEntry(new ZipEntry("T_Budget_Diffuse.1001.png"));
+            writePng(zip, ValidationRules.STUB_TEXTURE_SIZE);
+            zip.closeEntry();
+        }
+
+        ValidationResult result = FbxValidator.validate(archive.toString(), null, new TextureValidator(1, MB),
+                null, ValidationListener.NONE, new ResourceGovernor(1024));
+
+        List<Finding> limits = result.getFindings().stream()
+                .filter(finding -> finding.getCheck().equals(ResourceGovernor.RESOURCE_LIMIT))
+                .toList();
+        assertEquals(1, limits.size());
+        assertEquals(Finding.Severity.ERROR, limits.get(0).getSeverity());
+        assertEquals("T_Budget_Diffuse.1001.png", limits.get(0).getSubject());
+        assertTrue(limits.get(0).getMessage().contains("превышен бюджет памяти проверки"));
+        assertEquals(1, result.getFindingCount(ResourceGovernor.RESOURCE_LIMIT));
+    }
+
+    private static void writePng(OutputStream out, int size) throws IOException {
+        ImageIO.write(new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB), "png", out);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.fbxchecker;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class TestScenes {
+    // Сцены .geojson для тестов в том же виде, что выгружает конвертер: Objects с моделями и геометриями
+    // (Vertices, PolygonVertexIndex, UV-канал ByPolygonVertex/IndexToDirect) и Connections со связями OO
+
+    private TestScenes() {
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private final List<String> objects = new ArrayList<>();
+        private final List<String> connections = new ArrayList<>();
+
+        // Модель; имя UCX_... - коллизия, в объекты сцены не входит
+        Builder model(long id, String name) {
+            objects.add("{\"name\": \"Model\", \"properties\": [" + property("L", id) + ", "
+                    + property("S", "\"" + name + "\\u0000\\u0001Model\"") + ", " + property("S", "\"Mesh\"")
+                    + "], \"children\": []}");
+            return this;
+        }
+
+        Builder geometry(long id, double[] vertices, int[] polygonVertexIndex) {
+            return geometry(id, vertices, polygonVertexIndex, null, null);
+        }
+
+        // uv - пары u,v канала UVChannel_1, uvIndex - UV индекс каждого угла полигонов
+        Builder geometry(long id, double[] vertices, int[] polygonVertexIndex, double[] uv, int[] uvIndex) {
+            StringBuilder children = new StringBuilder();
+            children.append(node("Vertices", property("d", Arrays.toString(vertices))));
+            children.append(", ").append(node("PolygonVertexIndex", property("i", Arrays.toString(polygonVertexIndex))));
+            if (uv != null) {
+                children.append(", {\"name\": \"LayerElementUV\", \"properties\": [" + property("I", 0) + "], \"children\": [")
+                        .append(node("Name", property("S", "\"" + ValidationRules.UV_CHANNEL_NAME + "\""))).append(", ")
+                        .append(node("MappingInformationType", property("S", "\"ByPolygonVertex\""))).append(", ")
+                        .append(node("ReferenceInformationType", property("S", "\"IndexToDirect\""))).append(", ")
+                        .append(node("UV", property("d", Arrays.toString(uv)))).append(", ")
+                        .append(node("UVIndex", property("i", Arrays.toString(uvIndex))))
+                        .append("]}");
+            }
+            objects.add("{\"name\": \"Geometry\", \"properties\": [" + property("L", id) + ", "
+                    + property("S", "\"Geometry\\u0000\\u0001Geometry\"") + ", " + property("S", "\"Mesh\"")
+                    + "], \"children\": [" + children + "]}");
+            return this;
+        }
+
+        Builder connect(long child, long parent) {
+            connections.add(node("C", property("S", "\"OO\"") + ", " + property("L", child) + ", " + property("L", parent)));
+            return this;
+        }
+
+        String toJson() {
+            return "{\"version\": 7400, \"children\": ["
+                    + "{\"name\": \"Objects\", \"properties\": [], \"children\": [" + String.join(", ", objects) + "]}, "
+                    + "{\"name\": \"Connections\", \"properties\": [], \"children\": [" + String.join(", ", connections) + "]}"
+                    + "]}";
+        }
+
+        FbxScene read() throws IOException {
+            return GeoJsonSceneReader.read(new ByteArrayInputStream(toJson().getBytes(StandardCharsets.UTF_8)));
+        }
+
+        private static String node(String name, String properties) {
+            return "{\"name\": \"" + name + "\", \"properties\": [" + properties + "], \"children\": []}";
+        }
+
+        private static String property(String type, Object value) {
+            return "{\"type\": \"" + type + "\", \"value\": " + value + "}";
+        }
+    }
+}
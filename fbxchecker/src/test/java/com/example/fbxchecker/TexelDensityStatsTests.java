@@ -0,0 +1,113 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TexelDensityStatsTests {
+    // Статистика texel density: корзины гистограммы согласованы с допустимым диапазоном,
+    // перцентили скетча в пределах его погрешности, merge равен подсчету по всем значениям сразу
+
+    private static final int IN_RANGE_FIRST_BIN = 2;
+    private static final int IN_RANGE_LAST_BIN = 3;
+
+    @Test
+    void labelsHistogramBins() {
+        assertArrayEquals(new String[]{"<256", "256-512", "512-1109", "1109-1706", "1706-3412", ">3412"},
+                TexelDensityStats.getHistogramLabels());
+    }
+
+    @Test
+    void putsRangeBoundariesIntoInRangeBins() {
+        double[] values = {100, 256, 511.9, 512, 1108.9, 1109, 1706, 1706.01, 3412, 3412.5};
+        long[] expected = {1, 2, 2, 2, 2, 1};
+
+        TexelDensityStats stats = new TexelDensityStats();
+        for (double value : values) {
+            stats.add(value, 1);
+        }
+        assertArrayEquals(expected, stats.getHistogram());
+        assertEquals(6, stats.getOutOfRange());
+    }
+
+    @Test
+    void inRangeBinsHoldExactlyInRangeValues() {
+        for (double value = 0; value <= 4000; value += 0.5) {
+            TexelDensityStats stats = new TexelDensityStats();
+            stats.add(value, 1);
+            long[] histogram = stats.getHistogram();
+            boolean inRangeBin = histogram[IN_RANGE_FIRST_BIN] + histogram[IN_RANGE_LAST_BIN] == 1;
+            assertEquals(stats.getOutOfRange() == 0, inRangeBin, "texel density " + value);
+        }
+    }
+
+    @Test
+    void estimatesPercentilesWithinSketchAccuracy() {
+        TexelDensityStats stats = new TexelDensityStats();
+        for (int value = 1; value <= 1000; value++) {
+            stats.add(value, 1);
+        }
+
+        // Ранг перцентиля - floor(q * (n - 1)): 50, 500 и 950
+        assertEquals(50, stats.getPercentile(0.05), 50 * 0.01);
+        assertEquals(500, stats.getPercentile(0.5), 500 * 0.01);
+        assertEquals(950, stats.getPercentile(0.95), 950 * 0.01);
+        // Крайние перцентили не выходят за минимум и максимум
+        assertEquals(1, stats.getPercentile(0));
+        assertEquals(1000, stats.getPercentile(1));
+    }
+
+    @Test
+    void handlesZeroAndNonFiniteValues() {
+        TexelDensityStats stats = new TexelDensityStats();
+        assertTrue(Double.isNaN(stats.getPercentile(0.5)));
+        assertTrue(Double.isNaN(stats.getMin()));
+        assertTrue(Double.isNaN(stats.getAreaWeightedMean()));
+
+        stats.add(0, 1);
+        stats.add(0, 1);
+        stats.add(800, 1);
+        // Треугольник с нулевой площадью: входит в количество и вне диапазона, но не в распределение
+        stats.add(Double.POSITIVE_INFINITY, 0);
+
+        assertEquals(4, stats.getCount());
+        assertEquals(3, stats.getFiniteCount());
+        assertEquals(3, stats.getOutOfRange());
+        assertEquals(0, stats.getPercentile(0.5));
+        assertEquals(800, stats.getPercentile(1), 800 * 0.01);
+        assertEquals(0, stats.getMin());
+        assertEquals(800, stats.getMax());
+    }
+
+    @Test
+    void mergeMatchesSingleStats() {
+        TexelDensityStats all = new TexelDensityStats();
+        TexelDensityStats first = new TexelDensityStats();
+        TexelDensityStats second = new TexelDensityStats();
+        for (int i = 0; i < 2000; i++) {
+            double value = 100 + (i * 37 % 1000) * 3.5;
+            double area = 0.5 + i % 7;
+            all.add(value, area);
+            (i % 3 == 0 ? first : second).add(value, area);
+        }
+        TexelDensityStats merged = new TexelDensityStats();
+        merged.merge(first);
+        merged.merge(second);
+        // Пустая статистика не меняет минимум и максимум
+        merged.merge(new TexelDensityStats());
+
+        assertEquals(all.getCount(), merged.getCount());
+        assertEquals(all.getFiniteCount(), merged.getFiniteCount());
+        assertEquals(all.getOutOfRange(), merged.getOutOfRange());
+        assertEquals(all.getMin(), merged.getMin());
+        assertEquals(all.getMax(), merged.getMax());
+        assertEquals(all.getMean(), merged.getMean(), 1e-9);
+        assertEquals(all.getAreaWeightedMean(), merged.getAreaWeightedMean(), 1e-9);
+        assertArrayEquals(all.getHistogram(), merged.getHistogram());
+        for (double quantile : new double[]{0, 0.05, 0.25, 0.5, 0.75, 0.95, 1}) {
+            assertEquals(all.getPercentile(quantile), merged.getPercentile(quantile), "quantile " + quantile);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationCacheTests {
+    // Кэш проверки: ключи архива и записей, отпечаток правил, вытеснение по LRU и возрасту,
+    // сохранение результатов через JSON в памяти и на диске
+
+    private static final long MB = 1024 * 1024;
+    private static final Duration DAY = Duration.ofDays(1);
+
+    @TempDir
+    Path temporary;
+
+    @Test
+    void findsResultByArchiveKey() throws IOException {
+        Path archive = write("SM_Test.zip", "архив");
+        ValidationCache cache = new ValidationCache(temporary.resolve("cache"), MB, MB, DAY);
+        ValidationResult result = sampleResult();
+
+        String key = ValidationCache.key(archive);
+        assertEquals(key, ValidationCache.key(archive));
+        assertNull(cache.get(key));
+        cache.put(key, result);
+        assertEquals(result.generateReport(), cache.get(key).generateReport());
+
+        // Другое содержимое или другое имя - другой ключ
+        Path changed = write("SM_Test.zip", "архив 2");
+        assertNotEquals(key, ValidationCache.key(changed));
+        assertNull(cache.get(ValidationCache.key(changed)));
+        Path renamed = temporary.resolve("SM_Other.zip");
+        Files.copy(archive, renamed);
+        assertNotEquals(key, ValidationCache.key(renamed));
+    }
+
+    @Test
+    void rulesFingerprintChangesKeys() throws IOException {
+        Path archive = write("SM_Test.zip", "архив");
+        ArchiveEntry entry = new ArchiveEntry("SM_Test.fbx", 100, 50, 12345, false);
+
+        assertEquals(ValidationCache.key(archive), ValidationCache.key(archive, ValidationRules.fingerprint()));
+        assertNotEquals(ValidationCache.key(archive, "a"), ValidationCache.key(archive, "b"));
+
+        assertEquals(ValidationCache.entryKey("section-4", entry),
+                ValidationCache.entryKey(ValidationRules.fingerprint(), "section-4", entry));
+        assertNotEquals(ValidationCache.entryKey("a", "section-4", entry), ValidationCache.entryKey("b", "section-4", entry));
+
+        // Запись, сохраненная при одних правилах, не находится после их изменения
+        ValidationCache cache = new ValidationCache(temporary.resolve("cache"), MB, MB, DAY);
+        cache.put(ValidationCache.entryKey("a", "section-4", entry), sampleResult());
+        assertNull(cache.get(ValidationCache.entryKey("b", "section-4", entry)));
+        assertNotNull(cache.get(ValidationCache.entryKey("a", "section-4", entry)));
+    }
+
+    @Test
+    void entryKeyDependsOnEntryKindAndExtra() {
+        ArchiveEntry entry = new ArchiveEntry("SM_Test.fbx", 100, 50, 12345, false);
+        String key = ValidationCache.entryKey("section-5", entry, "SM_Test");
+
+        assertEquals(key, ValidationCache.entryKey("section-5", new ArchiveEntry("SM_Test.fbx", 100, 80, 12345, false), "SM_Test"));
+        assertNotEquals(key, ValidationCache.entryKey("section-4", entry, "SM_Test"));
+        assertNotEquals(key, ValidationCache.entryKey("section-5", entry, "SM_Other"));
+        assertNotEquals(key, ValidationCache.entryKey("section-5", new ArchiveEntry("SM_Test.fbx", 100, 50, 54321, false), "SM_Test"));
+        assertNotEquals(key, ValidationCache.entryKey("section-5", new ArchiveEntry("SM_Test.fbx", 101, 50, 12345, false), "SM_Test"));
+        assertNotEquals(key, ValidationCache.entryKey("section-5", new ArchiveEntry("SM_Other.fbx", 100, 50, 12345, false), "SM_Test"));
+
+        // Без CRC запись не кэшируется
+        assertNull(ValidationCache.entryKey("section-4", new ArchiveEntry("SM_Test.fbx", 100, 50, -1, false)));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedFromMemory() {
+        // Строка из 100 символов занимает 64 + 2 * 102 байта: в лимит помещаются две записи
+        String value = "x".repeat(100);
+        ValidationCache cache = new ValidationCache(null, 600, 0, DAY);
+        cache.put("a", value);
+        cache.put("b", value);
+        assertEquals(value, cache.get("a", String.class));
+        cache.put("c", value);
+
+        assertEquals(value, cache.get("a", String.class));
+        assertNull(cache.get("b", String.class));
+        assertEquals(value, cache.get("c", String.class));
+    }
+
+    @Test
+    void expiresOldEntriesInMemory() throws InterruptedException {
+        ValidationCache cache = new ValidationCache(null, MB, 0, Duration.ofMillis(1));
+        cache.put("a", "значение");
+        Thread.sleep(20);
+        assertNull(cache.get("a", String.class));
+    }
+
+    @Test
+    void expiresOldEntriesOnDisk() throws IOException {
+        Path directory = temporary.resolve("cache");
+        new ValidationCache(directory, MB, MB, DAY).put("old", "значение");
+        Path old = directory.resolve("old.json");
+        Files.setLastModifiedTime(old, FileTime.fromMillis(System.currentTimeMillis() - 2 * DAY.toMillis()));
+
+        // Первая запись нового кэша просматривает каталог и удаляет давно не использованные файлы
+        new ValidationCache(directory, MB, MB, DAY).put("new", "значение");
+        assertFalse(Files.exists(old));
+        assertTrue(Files.exists(directory.resolve("new.json")));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedFromDisk() throws IOException {
+        Path directory = temporary.resolve("cache");
+        String value = "x".repeat(1000);
+        new ValidationCache(directory, 0, MB, DAY).put("size", value);
+        long fileBytes = Files.size(directory.resolve("size.json"));
+        Files.delete(directory.resolve("size.json"));
+
+        // Без уровня памяти чтение идет с диска; в лимит помещаются две записи
+        ValidationCache cache = new ValidationCache(directory, 0, fileBytes * 5 / 2, DAY);
+        long now = System.currentTimeMillis();
+        cache.put("a", value);
+        Files.setLastModifiedTime(directory.resolve("a.json"), FileTime.fromMillis(now - 20_000));
+        cache.put("b", value);
+        Files.setLastModifiedTime(directory.resolve("b.json"), FileTime.fromMillis(now - 10_000));
+        assertEquals(value, cache.get("a", String.class));
+        cache.put("c", value);
+
+        assertEquals(value, cache.get("a", String.class));
+        assertNull(cache.get("b", String.class));
+        assertEquals(value, cache.get("c", String.class));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void restoresTextureCheckResult() {
+        TextureValidator.TextureCheckResult texture = new TextureValidator.TextureCheckResult();
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("width", 1000);
+        metrics.put("height", 2048);
+        texture.add("texture-resolution", Finding.Severity.ERROR, "SM_Test_Diffuse_1001.png", "Ошибка: размер", metrics);
+        texture.add("texture-format", Finding.Severity.INFO, "SM_Test_Diffuse_1001.png", "ОК: формат", null);
+        texture.udim = 1001;
+        texture.resolution = 2048;
+
+        // Через память и через диск
+        Path directory = temporary.resolve("cache");
+        new ValidationCache(directory, MB, MB, DAY).put("texture", texture);
+        for (ValidationCache cache : List.of(new ValidationCache(null, MB, 0, DAY), new ValidationCache(directory, 0, MB, DAY))) {
+            cache.put("texture", texture);
+            TextureValidator.TextureCheckResult restored = cache.get("texture", TextureValidator.TextureCheckResult.class);
+
+            assertEquals(1001, restored.udim);
+            assertEquals(2048, restored.resolution);
+            assertEquals(2, restored.findings.size());
+            assertTrue(restored.hasCheck("texture-format"));
+            Finding error = restored.findings.get(0);
+            assertEquals("texture-resolution", error.getCheck());
+            assertEquals(Finding.Severity.ERROR, error.getSeverity());
+            assertTrue(error.isError());
+            assertEquals("SM_Test_Diffuse_1001.png", error.getSubject());
+            assertEquals("Ошибка: размер", error.getMessage());
+            assertEquals(List.of("width", "height"), List.copyOf(error.getMetrics().keySet()));
+            assertEquals(1000, error.getMetrics().get("width").intValue());
+            assertEquals(2048, error.getMetrics().get("height").intValue());
+            assertTrue(restored.findings.get(1).getMetrics().isEmpty());
+        }
+    }
+
+    @Test
+    void restoresValidationResult() {
+        ValidationResult result = sampleResult();
+        Path directory = temporary.resolve("cache");
+        new ValidationCache(directory, MB, MB, DAY).put("result", result);
+
+        ValidationResult restored = new ValidationCache(directory, 0, MB, DAY).get("result");
+        assertEquals(result.generateReport(), restored.generateReport());
+        assertEquals(result.getErrorCount(), restored.getErrorCount());
+        assertEquals(result.getSectionErrors(), restored.getSectionErrors());
+        assertEquals(result.getFindings().size(), restored.getFindings().size());
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = temporary.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static ValidationResult sampleResult() {
+        ValidationResult result = new ValidationResult();
+        result.addMessage("2. Название проекта: SM_Test");
+        result.addFinding("archive-name", Finding.Severity.INFO, "SM_Test.zip", "ОК: имя архива", null);
+        result.addSeparator();
+        result.addFinding("polycount", Finding.Severity.ERROR, "SM_Test", "Ошибка: много полигонов", Map.of("triangles", 150000));
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationJobTests {
+    // События задания: подписчик получает историю, затем новые события - без повторов и без обгона истории
+
+    @Test
+    void deliversEventPublishedDuringReplayAfterHistory() {
+        ValidationJob job = new ValidationJob("1", "SM_Test.zip");
+        job.onSectionCompleted(1, List.of());
+        job.onSectionCompleted(2, List.of());
+
+        List<String> received = new ArrayList<>();
+        job.subscribe(event -> {
+            received.add(describe(event));
+            // Раздел завершается, пока подписчик еще получает историю
+            if (received.size() == 1) {
+                job.onSectionCompleted(3, List.of());
+            }
+        });
+        job.complete(new ValidationResult());
+
+        assertEquals(List.of("section 1", "section 2", "section 3", "done"), received);
+    }
+
+    @Test
+    void finishedJobReplaysHistoryOnly() {
+        ValidationJob job = new ValidationJob("1", "SM_Test.zip");
+        job.onProgress(ValidationListener.TEXTURES, 1, 2);
+        job.onProgress(ValidationListener.TEXTURES, 2, 2);
+        job.fail("ошибка");
+
+        List<String> received = new ArrayList<>();
+        job.subscribe(event -> received.add(describe(event)));
+        // Счетчик передается последним значением
+        assertEquals(List.of("progress 2", "failed"), received);
+    }
+
+    @Test
+    void concurrentSubscribersSeeEachSectionOnceInOrder() throws InterruptedException {
+        int sections = 2000;
+        ValidationJob job = new ValidationJob("1", "SM_Test.zip");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<List<String>> received = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                for (int section = 0; section < sections; section++) {
+                    job.onSectionCompleted(section, List.of());
+                }
+                job.complete(new ValidationResult());
+            });
+            started.await();
+            // Подписчики приходят, пока события публикуются
+            for (int i = 0; i < 20; i++) {
+                List<String> events = new ArrayList<>();
+                received.add(events);
+                job.subscribe(event -> {
+                    synchronized (events) {
+                        events.add(describe(event));
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int section = 0; section < sections; section++) {
+            expected.add("section " + section);
+        }
+        expected.add("done");
+        for (List<String> events : received) {
+            synchronized (events) {
+                assertEquals(expected, events);
+            }
+        }
+    }
+
+    private static String describe(ValidationJob.Event event) {
+        return switch (event.getName()) {
+            case "section" -> "section " + event.getData().get("section");
+            case "progress" -> "progress " + event.getData().get("done");
+            default -> event.getName();
+        };
+    }
+}
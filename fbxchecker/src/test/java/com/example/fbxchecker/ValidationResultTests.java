@@ -0,0 +1,162 @@
+package com.example.fbxchecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationResultTests {
+    // Отчет из находок совпадает побайтно с прежним форматом, где разделитель хранился тремя строками
+    // ("\r\n", линия, "\r\n"), а каждая строка заканчивалась "\n"; счетчики совпадают с подсчетом по находкам
+
+    @Test
+    void writesReportInBaselineFormat() throws IOException {
+        BaselineReport baseline = new BaselineReport();
+        ValidationResult result = new ValidationResult();
+
+        // Разделители в начале, подряд и в конце отчета
+        separator(result, baseline);
+        message(result, baseline, "1. Общие сведения");
+        message(result, baseline, "Архив: SM_Test_Bulvar_Ground.zip");
+        separator(result, baseline);
+        separator(result, baseline);
+        message(result, baseline, "2. Название проекта: SM_Test_Bulvar_Ground");
+        finding(result, baseline, "project-name", Finding.Severity.ERROR, "Ошибка: имя содержит пробел");
+        message(result, baseline, "");
+        message(result, baseline, "Строка с \r\n переводом");
+        separator(result, baseline);
+
+        assertEquals(baseline.generateReport(), result.generateReport());
+        StringWriter writer = new StringWriter();
+        result.writeReport(writer);
+        assertEquals(baseline.generateReport(), writer.toString());
+
+        // Объединение и снимок для кэша сохраняют положение разделителей
+        ValidationResult combined = new ValidationResult();
+        combined.addAll(result);
+        assertEquals(baseline.generateReport(), combined.generateReport());
+        assertEquals(baseline.generateReport(), ValidationResult.fromSnapshot(result.toSnapshot()).generateReport());
+
+        // Строки без разделителей
+        assertEquals(baseline.messagesWithoutSeparators(), result.getMessages());
+    }
+
+    @Test
+    void emptyResultWritesEmptyReport() {
+        assertEquals("", new ValidationResult().generateReport());
+        assertFalse(new ValidationResult().hasErrors());
+    }
+
+    @Test
+    void countersMatchFindings() {
+        ValidationResult result = new ValidationResult();
+        result.addMessage("2. Размер архива: 1.20 MB.");
+        result.addMessage("Ошибка: в архиве нет файла .fbx");
+        result.addMessage("4. Версия FBX: 7400");
+        result.addFinding("fbx-version", Finding.Severity.INFO, "SM_Test.fbx", "ОК: версия 7400", null);
+        result.addSeparator();
+        result.addMessage("7. Полигоны");
+        result.addFinding("polycount", Finding.Severity.ERROR, "SM_Test", "Ошибка: 150000 треугольников", Map.of("triangles", 150000));
+        result.addFinding("polycount", Finding.Severity.ERROR, "SM_Test_2", "Ошибка: 120000 треугольников", Map.of("triangles", 120000));
+        result.addFinding("polycount", Finding.Severity.INFO, "SM_Test_3", "ОК: 100 треугольников", null);
+
+        ValidationResult combined = new ValidationResult();
+        combined.addAll(result);
+        for (ValidationResult checked : List.of(result, combined, ValidationResult.fromSnapshot(result.toSnapshot()))) {
+            List<Finding> findings = checked.getFindings();
+            int errors = (int) findings.stream().filter(Finding::isError).count();
+            assertEquals(errors, checked.getErrorCount());
+            assertEquals(3, checked.getErrorCount());
+            assertTrue(checked.hasErrors());
+
+            Map<String, int[]> counts = new HashMap<>();
+            Map<Integer, Boolean> sectionErrors = new LinkedHashMap<>();
+            for (Finding finding : findings) {
+                int[] count = counts.computeIfAbsent(finding.getCheck(), check -> new int[2]);
+                count[0]++;
+                count[1] += finding.isError() ? 1 : 0;
+                sectionErrors.merge(finding.getSection(), finding.isError(), Boolean::logicalOr);
+            }
+            counts.forEach((check, count) -> {
+                assertEquals(count[0], checked.getFindingCount(check), check);
+                assertEquals(count[1], checked.getErrorCount(check), check);
+            });
+            assertEquals(sectionErrors, checked.getSectionErrors());
+            assertEquals(Map.of(2, true, 4, false, 7, true), checked.getSectionErrors());
+
+            assertEquals(2, checked.getFindingCount("archive"));
+            assertEquals(1, checked.getErrorCount("archive"));
+            assertEquals(4, checked.getFindingCount("polycount"));
+            assertEquals(2, checked.getErrorCount("polycount"));
+            assertEquals(0, checked.getFindingCount("textures"));
+        }
+    }
+
+    @Test
+    void detectsSectionAndSeverityOfUntypedMessages() {
+        ValidationResult result = new ValidationResult();
+        result.addMessage("Архив: SM_Test.zip");
+        result.addMessage("8. Текстуры");
+        result.addMessage("Ошибка: текстура SM_Test_Diffuse_1001.png не найдена");
+
+        List<Finding> findings = result.getFindings();
+        assertEquals(0, findings.get(0).getSection());
+        assertEquals("general", findings.get(0).getCheck());
+        assertEquals(8, findings.get(2).getSection());
+        assertEquals("textures", findings.get(2).getCheck());
+        assertEquals(Finding.Severity.ERROR, findings.get(2).getSeverity());
+        assertEquals(Finding.Severity.INFO, findings.get(1).getSeverity());
+    }
+
+    private static void message(ValidationResult result, BaselineReport baseline, String message) {
+        result.addMessage(message);
+        baseline.addMessage(message);
+    }
+
+    private static void finding(ValidationResult result, BaselineReport baseline, String check, Finding.Severity severity, String message) {
+        result.addFinding(check, severity, null, message, null);
+        baseline.addMessage(message);
+    }
+
+    private static void separator(ValidationResult result, BaselineReport baseline) {
+        result.addSeparator();
+        baseline.addSeparator();
+    }
+
+    // Прежний ValidationResult: список строк, разделитель - три строки
+    private static class BaselineReport {
+        private static final String SEPARATOR_LINE = "-------------------------------------------------";
+        private final List<String> messages = new ArrayList<>();
+        private final List<String> withoutSeparators = new ArrayList<>();
+
+        void addMessage(String message) {
+            messages.add(message);
+            withoutSeparators.add(message);
+        }
+
+        void addSeparator() {
+            messages.add("\r\n");
+            messages.add(SEPARATOR_LINE);
+            messages.add("\r\n");
+        }
+
+        String generateReport() {
+            StringBuilder report = new StringBuilder();
+            messages.forEach(message -> report.append(message).append("\n"));
+            return report.toString();
+        }
+
+        List<String> messagesWithoutSeparators() {
+            return withoutSeparators;
+        }
+    }
+}